@@ -0,0 +1,177 @@
+/*
+ *  Class WriterExportBenchmark
+ *
+ *  A JMH benchmark of a stream export via a Writer: the character stream
+ *  writer against Jena's byte stream writer through a WriterOutputStream.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.exporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.WriterOutputStream;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.sparql.core.Quad;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Class WriterExportBenchmark
+ *
+ *  Each invocation writes a generated model of quads to a counting Writer.  The "character"
+ *  benchmark uses RDFStreamExporter.getCharacterStream(), i.e., the Writer export path.  The
+ *  "transcoded" benchmark uses the prior path: Jena's UTF-8 bytes decoded back to characters by
+ *  a WriterOutputStream.  Run by:
+ *      mvn -P benchmark test -Djmh.include=WriterExport
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriterExportBenchmark {
+    @Param({ "ntriples", "nquads" })
+    public String strFormat;
+
+    @Param({ "100000" })
+    public int iStatements;
+
+    private RDFFormat format;
+    private RDFStreamExporter theExporter;
+    private List<Quad> listQuads;
+
+    /*
+     * Class CountingWriter
+     *
+     *  A Writer that only counts the characters, so the benchmark measures the export path.
+     */
+    static private class CountingWriter extends Writer {
+        private long lChars = 0;
+
+        @Override
+        public void write(char[] acharData, int iOffset, int iLength) {
+            this.lChars += iLength;
+        }
+
+        @Override
+        public void write(int iChar) {
+            this.lChars++;
+        }
+
+        @Override
+        public void write(String strData, int iOffset, int iLength) {
+            this.lChars += iLength;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        long getCount() {
+            return this.lChars;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        this.format = ( "nquads".equals(this.strFormat) ? RDFFormat.NQUADS_UTF8 : RDFFormat.NTRIPLES_UTF8 );
+        this.theExporter = new RDFStreamExporter(this.format, this.strFormat);
+
+        //
+        // Generate a model of typical cell values: IRIs, plain, language, and typed literals...
+        //
+        Node nodeGraph = ( "nquads".equals(this.strFormat) ?
+            NodeFactory.createURI("http://example.org/graph") : Quad.defaultGraphNodeGenerated );
+        Node nodeName = NodeFactory.createURI("http://xmlns.com/foaf/0.1/name");
+        Node nodeAge = NodeFactory.createURI("http://xmlns.com/foaf/0.1/age");
+        Node nodeKnows = NodeFactory.createURI("http://xmlns.com/foaf/0.1/knows");
+        Node nodeNote = NodeFactory.createURI("http://example.org/vocab#note");
+        this.listQuads = new ArrayList<Quad>(this.iStatements);
+        int iSubject = 0;
+        while ( this.listQuads.size() < this.iStatements ) {
+            Node nodeSubject = NodeFactory.createURI("http://example.org/person/" + iSubject);
+            this.listQuads.add( Quad.create( nodeGraph, nodeSubject, nodeName,
+                NodeFactory.createLiteral("Person Name " + iSubject) ) );
+            this.listQuads.add( Quad.create( nodeGraph, nodeSubject, nodeAge,
+                NodeFactory.createLiteral( Integer.toString(iSubject % 100), XSDDatatype.XSDinteger ) ) );
+            this.listQuads.add( Quad.create( nodeGraph, nodeSubject, nodeKnows,
+                NodeFactory.createURI("http://example.org/person/" + ( iSubject + 1 ) ) ) );
+            this.listQuads.add( Quad.create( nodeGraph, nodeSubject, nodeNote,
+                NodeFactory.createLiteral("Résumé née à Zürich, 東京 " + iSubject, "fr") ) );
+            iSubject++;
+        }
+    }
+
+    private void write(StreamRDF theStream) {
+        theStream.start();
+        for (Quad theQuad : this.listQuads) {
+            if ( theQuad.isDefaultGraph() ) {
+                theStream.triple( theQuad.asTriple() );
+            }
+            else {
+                theStream.quad(theQuad);
+            }
+        }
+        theStream.finish();
+    }
+
+    @Benchmark
+    public long character()
+            throws IOException {
+        CountingWriter theWriter = new CountingWriter();
+        this.write( this.theExporter.getCharacterStream(theWriter) );
+        theWriter.flush();
+        return theWriter.getCount();
+    }
+
+    @Benchmark
+    public long transcoded()
+            throws IOException {
+        CountingWriter theWriter = new CountingWriter();
+        OutputStream theOutput = new WriterOutputStream(theWriter, StandardCharsets.UTF_8);
+        this.write( StreamRDFWriter.getWriterStream(theOutput, this.format) );
+        theOutput.flush();
+        return theWriter.getCount();
+    }
+}
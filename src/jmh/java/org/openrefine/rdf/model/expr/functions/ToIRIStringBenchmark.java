@@ -0,0 +1,171 @@
+/*
+ *  Class ToIRIStringBenchmark
+ *
+ *  A JMH benchmark of the staged toIRIString() conversion against the
+ *  baseline regular expression conversion.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.expr.functions;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openrefine.rdf.model.Util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Class ToIRIStringBenchmark
+ *
+ *  Each invocation converts a generated corpus of cell values.  The corpus kind selects the
+ *  values: "iri" values are IRIs as is, "name" values need the whitespace stage, and "mixed"
+ *  values draw on every stage.  Run by:
+ *      mvn -P benchmark test -Djmh.include=ToIRIString
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToIRIStringBenchmark {
+    static private final int iCORPUS_SIZE = 1024;
+
+    static private final String[] astrWORDS = {
+        "name", "Résumé", "café", "日本語", "value", "x1", "a-b", "%20", "50%", "q?", "#tag",
+        "a/b", "c:d", "(x)", "[1]", "x&y", "<b>", "\"q\"", "__", "😀", "ü"
+    };
+    static private final String[] astrSEPARATORS = { " ", "  ", "\t", "_", "/", ":", "" };
+
+    @Param({ "iri", "name", "mixed" })
+    public String strKind;
+
+    private String[] astrCorpus;
+
+    @Setup
+    public void setup() {
+        Random theRandom = new Random(42);
+        this.astrCorpus = new String[ToIRIStringBenchmark.iCORPUS_SIZE];
+        for (int iIndex = 0; iIndex < ToIRIStringBenchmark.iCORPUS_SIZE; iIndex++) {
+            switch (this.strKind) {
+                case "iri":
+                    this.astrCorpus[iIndex] = "http://example.org/item/" + iIndex + "#id" + theRandom.nextInt(1000);
+                    break;
+                case "name":
+                    this.astrCorpus[iIndex] = "First Name " + iIndex + " Last Name " + theRandom.nextInt(1000);
+                    break;
+                default:
+                    StringBuilder sbValue = new StringBuilder();
+                    int iWords = 1 + theRandom.nextInt(6);
+                    for (int iWord = 0; iWord < iWords; iWord++) {
+                        if (iWord > 0) {
+                            sbValue.append( ToIRIStringBenchmark.astrSEPARATORS[ theRandom.nextInt( ToIRIStringBenchmark.astrSEPARATORS.length ) ] );
+                        }
+                        sbValue.append( ToIRIStringBenchmark.astrWORDS[ theRandom.nextInt( ToIRIStringBenchmark.astrWORDS.length ) ] );
+                    }
+                    this.astrCorpus[iIndex] = sbValue.toString();
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public void staged(Blackhole theHole) {
+        for (String strConvert : this.astrCorpus) {
+            theHole.consume( ToIRIString.toIRIString(strConvert) );
+        }
+    }
+
+    @Benchmark
+    public void baseline(Blackhole theHole) {
+        for (String strConvert : this.astrCorpus) {
+            theHole.consume( ToIRIStringBenchmark.toIRIStringByPatterns(strConvert) );
+        }
+    }
+
+    static private boolean isIRIByChecker(String strConvert) {
+        try {
+            Util.iriFactory.construct(strConvert);
+        }
+        catch (Exception ex) {
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * Method toIRIStringByPatterns()
+     *
+     *  The baseline regular expression conversion.  See ToIRIStringTest.
+     */
+    static private String toIRIStringByPatterns(String strConvert) {
+        String strUnderscore = "_";
+        int iTry = 0;
+        do {
+            if ( ToIRIStringBenchmark.isIRIByChecker(strConvert) ) {
+                break;
+            }
+            if (iTry > 7) {
+                strConvert = null;
+                break;
+            }
+            switch (iTry) {
+                case 0:
+                    strConvert = strConvert.replaceAll(
+                        "[" + Util.WHITESPACE + Pattern.quote("<>\"{}|\\^`") + "]+", strUnderscore);
+                    break;
+                case 1:
+                    strConvert = strConvert.replaceAll(
+                        "[^-\\p{N}\\p{L}_\\.~:/\\?#\\[\\]@\\%!\\$&'\\(\\)\\*\\+,;=]+", strUnderscore);
+                    break;
+                case 2:
+                    strConvert = strConvert.replaceFirst("^(:?/+)+", strUnderscore);
+                    break;
+                case 3:
+                    strConvert = strConvert.replaceAll("[!\\$&'\\(\\)\\*\\+,;=]+", strUnderscore);
+                    break;
+                case 4:
+                    strConvert = strConvert.replaceAll("[\\?#\\[\\]@]+", strUnderscore);
+                    break;
+                case 5:
+                    strConvert = strConvert.replaceAll("/+", strUnderscore);
+                    break;
+                case 6:
+                    strConvert = strConvert.replaceAll(":+", strUnderscore);
+                    break;
+                default:
+                    strConvert = strConvert.replaceAll("[^-\\p{N}\\p{L}_\\.~]+", strUnderscore);
+                    break;
+            }
+            strConvert = strConvert.replaceAll("__+", strUnderscore);
+            ++iTry;
+        } while (true);
+        return strConvert;
+    }
+}
@@ -31,6 +31,7 @@ import java.util.Map.Entry;
 
 import org.openrefine.rdf.model.Node;
 import org.openrefine.rdf.model.ResourceNode;
+import org.openrefine.rdf.model.TransformPlan;
 import org.openrefine.rdf.model.Util;
 import org.openrefine.rdf.model.vocab.Vocabulary;
 import org.openrefine.rdf.model.vocab.VocabularyList;
@@ -41,6 +42,7 @@ import com.google.refine.model.Project;
 import org.apache.jena.iri.IRI;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -208,6 +210,13 @@ public class RDFTransform implements OverlayModel {
      *      the above Subject Mappings.  An Object Mapping is held by each property to describe
      *      the general tuples for the property's subject.  This completes a general statement
      *      description (Subject, Property, Object) tuple.
+     *
+     *      Graph Mapping:
+     *      --------------------
+     *      A Graph Mapping is an optional single resource element that names the graph of
+     *          every statement made on a row or record.  It may be a constant, a column, or
+     *          an expression like any subject.  Without it, all statements are in the default
+     *          graph.
      */
     static public RDFTransform reconstruct(JsonNode jnodeRoot) {
         return RDFTransform.reconstruct(null, jnodeRoot);
@@ -288,6 +297,13 @@ public class RDFTransform implements OverlayModel {
             if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFTransform.logger.warn("  No Subjects!");
         }
 
+        //
+        // Construct theGraphNode from "graphMapping"...
+        //
+        if ( jnodeRoot.has(Util.gstrGraphMapping) ) {
+            theTransform.setGraph( jnodeRoot.get(Util.gstrGraphMapping) );
+        }
+
         if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFTransform.logger.info("...ending reconstruction");
         return theTransform;
     }
@@ -349,6 +365,27 @@ public class RDFTransform implements OverlayModel {
     @JsonIgnore
     private List<ResourceNode> theRootNodes;
 
+    /*
+     * Graph Node for Document
+     *
+     *  The graph node names the graph of the statements made on each row or record.  A null
+     *  graph node is the default graph.
+     */
+    @JsonIgnore
+    private ResourceNode theGraphNode = null;
+
+    /*
+     * Revision and Plan
+     *
+     *  The revision is updated on any change to the transform.  The compiled plan is cached
+     *  for its revision.
+     */
+    @JsonIgnore
+    private long lRevision = 0;
+
+    @JsonIgnore
+    private TransformPlan thePlan = null;
+
     /****************************************************************************************************
      ****************************************************************************************************
      *
@@ -465,6 +502,7 @@ public class RDFTransform implements OverlayModel {
         if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFTransform.logger.info("Setting BaseIRI from ParsedIRI...");
         if (Util.isDebugMode()) RDFTransform.logger.info("DEBUG: BaseIRI set to:" + iriBase.toString());
         this.theBaseIRI = iriBase;
+        this.updateRevision();
     }
 
     @JsonProperty(Util.gstrBaseIRI)
@@ -539,6 +577,7 @@ public class RDFTransform implements OverlayModel {
             this.theBaseIRI = Util.buildIRI( RDFTransform.theGlobalContext.getDefaultBaseIRI() );
             if ( Util.isDebugMode() ) RDFTransform.logger.info("DEBUG: BaseIRI set to default.");
         }
+        this.updateRevision();
     }
 
     @JsonIgnore
@@ -569,6 +608,7 @@ public class RDFTransform implements OverlayModel {
     @JsonIgnore
     public void setNamespaces(VocabularyList listNamespaces) {
         this.theNamespaces = listNamespaces;
+        this.updateRevision();
     }
 
     @JsonProperty(Util.gstrNamespaces)
@@ -604,6 +644,7 @@ public class RDFTransform implements OverlayModel {
                         getPredefinedVocabularyManager().
                             getPredefinedVocabularies().clone();
             }
+            this.updateRevision();
         }
     }
 
@@ -613,11 +654,14 @@ public class RDFTransform implements OverlayModel {
             this.theNamespaces = new VocabularyList();
         }
         this.theNamespaces.add( new Vocabulary(strPrefix, strNamespace) );
+        this.updateRevision();
     }
 
     @JsonIgnore
     public boolean removeNamespace(String strPrefix) {
-        return this.theNamespaces.removeByPrefix(strPrefix);
+        boolean bRemoved = this.theNamespaces.removeByPrefix(strPrefix);
+        this.updateRevision();
+        return bRemoved;
     }
 
     @JsonIgnore
@@ -626,6 +670,30 @@ public class RDFTransform implements OverlayModel {
         return this.theRootNodes;
     }
 
+    /*
+     * Method getPlan()
+     *
+     *  Get the compiled execution plan for the transform's current revision.  The plan is
+     *  compiled on first use after any change to the base IRI, namespaces, root nodes, or
+     *  graph node and is shared by all exports and previews of that revision.
+     */
+    @JsonIgnore
+    public synchronized TransformPlan getPlan() {
+        if ( this.thePlan == null || this.thePlan.getRevision() != this.lRevision ) {
+            this.thePlan = TransformPlan.compile(this, this.lRevision);
+        }
+        return this.thePlan;
+    }
+
+    @JsonIgnore
+    public synchronized long getRevision() {
+        return this.lRevision;
+    }
+
+    private synchronized void updateRevision() {
+        this.lRevision++;
+    }
+
     @JsonProperty(Util.gstrSubjectMappings)
     public JsonNode getRootsAsJSON() {
         if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFTransform.logger.info("Getting roots as JSON...");
@@ -662,6 +730,7 @@ public class RDFTransform implements OverlayModel {
     public void setRoots(List<ResourceNode> listRootNodes) {
         if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFTransform.logger.info("Setting root nodes...");
         this.theRootNodes = listRootNodes;
+        this.updateRevision();
     }
 
     @JsonProperty(Util.gstrSubjectMappings)
@@ -697,9 +766,68 @@ public class RDFTransform implements OverlayModel {
                 }
             }
             this.theRootNodes = listRootNodes;
+            this.updateRevision();
         }
     }
 
+    @JsonIgnore
+    public ResourceNode getGraph() {
+        return this.theGraphNode;
+    }
+
+    @JsonProperty(Util.gstrGraphMapping)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public JsonNode getGraphAsJSON() {
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFTransform.logger.info("Getting graph as JSON...");
+
+        // Ensure all @JsonProperty() getter methods properly handle a null context...
+
+        if (this.theGraphNode == null) {
+            return null; // ...no graph: not written
+        }
+
+        ByteArrayOutputStream baostream = new ByteArrayOutputStream();
+        try {
+            JsonGenerator jsonWriter = ParsingUtilities.mapper.getFactory().createGenerator(baostream);
+            this.theGraphNode.write(jsonWriter, true);
+            jsonWriter.flush();
+            jsonWriter.close();
+            return ParsingUtilities.mapper.readTree( baostream.toString("UTF-8") );
+        }
+        catch (Exception ex) {
+            RDFTransform.logger.error("Error getting graph node!", ex);
+            ex.printStackTrace();
+        }
+        return null;
+    }
+
+    @JsonIgnore
+    public void setGraph(ResourceNode nodeGraph) {
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFTransform.logger.info("Setting graph node...");
+        this.theGraphNode = nodeGraph;
+        this.updateRevision();
+    }
+
+    @JsonProperty(Util.gstrGraphMapping)
+    public void setGraph(JsonNode jnodeGraphMapping) {
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFTransform.logger.info("Setting graph node from JSON...");
+        ResourceNode nodeGraph = null;
+        if ( ! ( jnodeGraphMapping == null || jnodeGraphMapping.isNull() || jnodeGraphMapping.isEmpty() ) ) {
+            Node theNode =
+                Node.reconstructNode(
+                    RDFTransform.theReconstructor, jnodeGraphMapping,
+                    this.theBaseIRI, this.theNamespaces);
+            if (theNode instanceof ResourceNode) {
+                nodeGraph = (ResourceNode) theNode;
+            }
+            // Otherwise, a literal cannot name a graph...
+            else {
+                RDFTransform.logger.warn("WARNING: Graph Mapping is not a resource: default graph used.");
+            }
+        }
+        this.setGraph(nodeGraph);
+    }
+
     @Override
     @JsonIgnore
     public void onBeforeSave(Project theProject) {
@@ -767,6 +895,11 @@ public class RDFTransform implements OverlayModel {
      *      },
      *      ...
      * ]
+     * "graphMapping" : (optional)
+     *      {   "prefix" : a prefix,
+     *          "valueSource" : { },
+     *          "expression": { }
+     *      }
      *
      * "typeMappings" : [
      *      {   "prefix" : a prefix,
@@ -858,6 +991,14 @@ public class RDFTransform implements OverlayModel {
             }
             theWriter.writeEndArray();
 
+            //
+            // The Graph Mapping (graphMapping), if any...
+            //
+            if (this.theGraphNode != null) {
+                theWriter.writeFieldName(Util.gstrGraphMapping);
+                this.theGraphNode.write(theWriter, true);
+            }
+
             theWriter.writeEndObject();
 
             theWriter.flush();
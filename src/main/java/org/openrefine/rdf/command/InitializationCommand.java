@@ -41,7 +41,11 @@ import com.google.refine.operations.OperationRegistry;
 
 import org.openrefine.rdf.ApplicationContext;
 import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.exporter.RDFBinaryExporter;
+import org.openrefine.rdf.model.exporter.RDFCompressedExporter;
+import org.openrefine.rdf.model.exporter.RDFPatchExporter;
 import org.openrefine.rdf.model.exporter.RDFPrettyExporter;
+import org.openrefine.rdf.model.exporter.RDFShardedExporter;
 import org.openrefine.rdf.model.exporter.RDFStreamExporter;
 import org.openrefine.rdf.model.expr.RDFTransformBinder;
 import org.openrefine.rdf.model.expr.functions.ToIRIString;
@@ -161,6 +165,7 @@ public class InitializationCommand extends Command {
         aCommands.add(new RDFTCommandItem( "get-preferences", new PreferencesCommand() ));
         aCommands.add(new RDFTCommandItem( "preview-rdf", new PreviewRDFCommand() ));
         aCommands.add(new RDFTCommandItem( "preview-rdf-expression", new PreviewRDFTExpressionCommand() ));
+        aCommands.add(new RDFTCommandItem( "get-transform-patch", new TransformPatchCommand() ));
         aCommands.add(new RDFTCommandItem( strSaveRDFTransform, new SaveRDFTransformCommand() ));
         aCommands.add(new RDFTCommandItem( "save-baseIRI", new SaveBaseIRICommand() ));
         aCommands.add(new RDFTCommandItem( "validate-iri", new ValidateIRICommand() ));
@@ -254,11 +259,6 @@ public class InitializationCommand extends Command {
         aStream.add(new RDFTExportPrinter(RDFFormat.TRIX, "TRIX"));
         // DUMMY PRINTERS: (Stream)
         aStream.add(new RDFTExportPrinter(RDFFormat.RDFNULL, "RDFNULL"));
-        // BINARY PRINTERS: (Stream)
-        aStream.add(new RDFTExportPrinter(RDFFormat.RDF_PROTO, "RDF_PROTO"));
-        aStream.add(new RDFTExportPrinter(RDFFormat.RDF_THRIFT, "RDF_THRIFT"));
-        aStream.add(new RDFTExportPrinter(null /* BINARY_RDF */, "BinaryRDF"));
-        aStream.add(new RDFTExportPrinter(null /* HDT */, "HDT"));
 
         for (RDFTExportPrinter ptr : aStream) {
             if (ptr.rdfFormat != null) {
@@ -266,6 +266,52 @@ public class InitializationCommand extends Command {
             }
         }
 
+        //
+        // BINARY PRINTERS: (Stream) buffered, OutputStream only
+        //
+        List<RDFTExportPrinter> aBinary = new ArrayList<RDFTExportPrinter>();
+        aBinary.add(new RDFTExportPrinter(RDFFormat.RDF_PROTO, "RDF_PROTO"));
+        aBinary.add(new RDFTExportPrinter(RDFFormat.RDF_THRIFT, "RDF_THRIFT"));
+        aBinary.add(new RDFTExportPrinter(null /* BINARY_RDF */, "BinaryRDF"));
+        aBinary.add(new RDFTExportPrinter(null /* HDT */, "HDT"));
+
+        for (RDFTExportPrinter ptr : aBinary) {
+            if (ptr.rdfFormat != null) {
+                ExporterRegistry.registerExporter( ptr.strFormat, new RDFBinaryExporter(ptr.rdfFormat, ptr.strFormat) );
+            }
+        }
+
+        //
+        // COMPRESSED PRINTERS: (Stream) gzip, bzip2
+        //
+        List<RDFTExportPrinter> aCompressed = new ArrayList<RDFTExportPrinter>();
+        aCompressed.add(new RDFTExportPrinter(RDFFormat.NTRIPLES_UTF8, "NTRIPLES"));
+        aCompressed.add(new RDFTExportPrinter(RDFFormat.NQUADS_UTF8, "NQUADS"));
+        aCompressed.add(new RDFTExportPrinter(RDFFormat.TURTLE_BLOCKS, "TURTLE_BLOCKS"));
+
+        for (RDFTExportPrinter ptr : aCompressed) {
+            ExporterRegistry.registerExporter( ptr.strFormat + "_GZIP",
+                new RDFCompressedExporter(ptr.rdfFormat, ptr.strFormat + "_GZIP", RDFCompressedExporter.strGZIP) );
+            ExporterRegistry.registerExporter( ptr.strFormat + "_BZIP2",
+                new RDFCompressedExporter(ptr.rdfFormat, ptr.strFormat + "_BZIP2", RDFCompressedExporter.strBZIP2) );
+        }
+
+        //
+        // SHARDED PRINTERS: (Stream) many files in a ZIP archive
+        //
+        List<RDFTExportPrinter> aSharded = new ArrayList<RDFTExportPrinter>();
+        aSharded.add(new RDFTExportPrinter(RDFFormat.NTRIPLES_UTF8, "NTRIPLES_SHARDS"));
+        aSharded.add(new RDFTExportPrinter(RDFFormat.NQUADS_UTF8, "NQUADS_SHARDS"));
+
+        for (RDFTExportPrinter ptr : aSharded) {
+            ExporterRegistry.registerExporter( ptr.strFormat, new RDFShardedExporter(ptr.rdfFormat, ptr.strFormat) );
+        }
+
+        //
+        // INCREMENTAL PRINTERS: changes since the last incremental export (RDF Patch)
+        //
+        ExporterRegistry.registerExporter( "RDF_PATCH", new RDFPatchExporter("RDF_PATCH") );
+
         // //
         // // SPECIAL PRINTERS:
         // //
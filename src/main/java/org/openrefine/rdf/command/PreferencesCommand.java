@@ -27,6 +27,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.google.refine.commands.Command;
+import com.google.refine.util.ParsingUtilities;
 import org.openrefine.rdf.model.Util;
 
 import org.slf4j.Logger;
@@ -59,6 +60,19 @@ public class PreferencesCommand extends Command {
             strPreferences =
                 "{ \"iVerbosity\" : " +     Util.getVerbose() + ", " +
                   "\"iExportLimit\" : " +   Util.getExportLimit() + ", " +
+                  "\"iExportThreads\" : " + Util.getExportThreads() + ", " +
+                  "\"bExportOrdered\" : " + Util.isExportOrdered() + ", " +
+                  "\"iFlushSize\" : " +     Util.getFlushSize() + ", " +
+                  "\"iFlushCount\" : " +    Util.getFlushCount() + ", " +
+                  "\"iFlushTime\" : " +     Util.getFlushTime() + ", " +
+                  "\"iSortRunSize\" : " +   Util.getSortRunSize() + ", " +
+                  "\"bExportSpill\" : " +   Util.isExportSpill() + ", " +
+                  "\"iBinaryBufferSize\" : " + Util.getBinaryBufferSize() + ", " +
+                  "\"bBinaryPrefixes\" : " + Util.isBinaryPrefixes() + ", " +
+                  "\"iCompressThreads\" : " + Util.getCompressThreads() + ", " +
+                  "\"iShardCount\" : " +    Util.getShardCount() + ", " +
+                  "\"bShardBySubject\" : " + Util.isShardBySubject() + ", " +
+                  "\"strShardDirectory\" : " + ParsingUtilities.mapper.writeValueAsString( Util.getShardDirectory() ) + ", " +
                   "\"bPreviewStream\" : " + Util.isPreviewStream() + ", " +
                   "\"bDebugMode\" : " +     Util.isDebugMode() + ", " +
                   "\"bDebugJSON\" : " +     Util.isDebugJSON() + ", " +
@@ -33,6 +33,7 @@ import org.openrefine.rdf.model.Util;
 import org.openrefine.rdf.model.operation.PreviewRDFRecordVisitor;
 import org.openrefine.rdf.model.operation.PreviewRDFRowVisitor;
 import org.openrefine.rdf.model.operation.RDFVisitor;
+import org.openrefine.rdf.model.operation.SubjectGroupingStreamRDF;
 
 import com.google.refine.browsing.Engine;
 import com.google.refine.commands.Command;
@@ -133,11 +134,16 @@ public class PreviewRDFCommand extends Command {
             //
             StreamRDF theWriter = null;
             if ( bPreviewStream )  {
-                theWriter = StreamRDFWriter.getWriterStream(osOut, RDFFormat.TURTLE_BLOCKS);
+                // A transform with a graph mapping previews the named graphs as TriG...
+                RDFFormat theFormat =
+                    ( theTransform.getGraph() == null ? RDFFormat.TURTLE_BLOCKS : RDFFormat.TRIG_BLOCKS );
+                theWriter = StreamRDFWriter.getWriterStream(osOut, theFormat);
                 if (theWriter == null) {
                     PreviewRDFCommand.logger.warn("WARN: Cannot construct Stream-based writer. Using pretty printer.");
                 }
                 else {
+                    // Group each row's or record's statements by subject for the block writer...
+                    theWriter = new SubjectGroupingStreamRDF(theWriter);
                     if ( Util.isDebugMode() ) PreviewRDFCommand.logger.info("DEBUG:   Acquired writer: StreamRDFWriter.");
                 }
             }
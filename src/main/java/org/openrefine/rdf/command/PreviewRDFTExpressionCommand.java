@@ -29,6 +29,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.utils.EvaluationContext;
 
 import com.google.refine.commands.expr.PreviewExpressionCommand;
 import com.google.refine.expr.EvalError;
@@ -150,6 +151,7 @@ public class PreviewRDFTExpressionCommand extends PreviewExpressionCommand {
         Boolean bGood = true;
         int iRow = 0;
         boolean bRecordMode = this.theProject.recordModel.hasRecords();
+        EvaluationContext theContext = new EvaluationContext(this.theProject);
         StringBuffer strbuffTemp = new StringBuffer();
         StringBuffer strbuffTempAbs = new StringBuffer();
         String strResult;
@@ -177,7 +179,7 @@ public class PreviewRDFTExpressionCommand extends PreviewExpressionCommand {
                     // NOTE: Expression evaluation will fail all the time because...typing!
                     //       It's constantly updating the preview as we type, so failure on
                     //       incomplete expressions!
-                    results = Util.evaluateExpression(this.theProject, this.strExpression, this.strColumnName, iRowIndex);
+                    results = theContext.evaluateExpression(this.strExpression, this.strColumnName, iRowIndex);
                 }
                 else
                     break;
@@ -319,6 +321,7 @@ public class PreviewRDFTExpressionCommand extends PreviewExpressionCommand {
         Integer[] aiIndices = new Integer[iRows];
         int iRow = 0;
         boolean bRecordMode = this.theProject.recordModel.hasRecords();
+        EvaluationContext theContext = new EvaluationContext(this.theProject);
         StringBuffer strbuffTemp = new StringBuffer();
         String strResult;
         boolean bGood = true;
@@ -343,7 +346,7 @@ public class PreviewRDFTExpressionCommand extends PreviewExpressionCommand {
                     // NOTE: Expression evaluation will fail all the time because...typing!
                     //       It's constantly updating the preview as we type, so failure on
                     //       incomplete expressions!
-                    results = Util.evaluateExpression(this.theProject, this.strExpression, this.strColumnName, iRowIndex);
+                    results = theContext.evaluateExpression(this.strExpression, this.strColumnName, iRowIndex);
                 }
                 else
                     break;
@@ -0,0 +1,103 @@
+/*
+ *  Class TransformPatchCommand
+ *
+ *  Responds with the RDF Patch of the statements added and deleted by
+ *  replacing the project's saved RDF Transform with a given transform.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.command;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.operation.TransformDiff;
+import org.openrefine.rdf.model.utils.RDFPatchWriter;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.commands.Command;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class TransformPatchCommand
+ *
+ *  Given a project, an engine, and a transform, the command streams the RDF Patch that takes
+ *  the statements of the saved transform to the statements of the given transform on the
+ *  engine's filtered rows or records.  A triple store synchronized with the project's export
+ *  can then be updated by the patch instead of reloaded.  See TransformDiff.
+ */
+public class TransformPatchCommand extends Command {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:TransPatchCmd");
+
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if ( Util.isVerbose(3) ) TransformPatchCommand.logger.info("Creating transform patch...");
+        // No CSRF Token required for this command: it does not change the project.
+
+        try {
+            Project theProject = this.getProject(request);
+            Engine theEngine = TransformPatchCommand.getEngine(request, theProject);
+
+            String strTransform = request.getParameter(RDFTransform.KEY);
+            if (strTransform == null) {
+                TransformPatchCommand.logger.info("ERROR: No Transform JSON! Cannot construct patch.");
+                TransformPatchCommand.respondJSON(response, CodeResponse.error);
+                return;
+            }
+            JsonNode jnodeTransform = ParsingUtilities.evaluateJsonStringToObjectNode(strTransform);
+            if ( jnodeTransform == null || jnodeTransform.isNull() || jnodeTransform.isEmpty() ) {
+                TransformPatchCommand.logger.info("ERROR: No Transform JSON Node! Cannot construct patch.");
+                TransformPatchCommand.respondJSON(response, CodeResponse.error);
+                return;
+            }
+            RDFTransform theNewTransform = RDFTransform.reconstruct(theProject, jnodeTransform);
+            if (theNewTransform == null) {
+                TransformPatchCommand.logger.info("ERROR: No Transform available! Cannot construct patch.");
+                TransformPatchCommand.respondJSON(response, CodeResponse.error);
+                return;
+            }
+            // The saved transform, if any...
+            RDFTransform theOldTransform = (RDFTransform) theProject.overlayModels.get(RDFTransform.EXTENSION);
+
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Content-Type", RDFPatchWriter.strCONTENT_TYPE);
+            Writer theWriter = response.getWriter();
+            TransformDiff theDiff = new TransformDiff(theOldTransform, theNewTransform);
+            theDiff.write( theProject, theEngine, new RDFPatchWriter(theWriter) );
+            theWriter.flush();
+        }
+        catch (Exception ex) {
+            TransformPatchCommand.logger.error("ERROR: Constructing Patch:" + ex.getMessage(), ex);
+            if ( Util.isVerbose() || Util.isDebugMode() ) ex.printStackTrace();
+            TransformPatchCommand.respondException(response, ex);
+            return;
+        }
+        if ( Util.isVerbose(3) ) TransformPatchCommand.logger.info("...patch created.");
+    }
+}
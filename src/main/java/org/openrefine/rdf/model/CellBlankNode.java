@@ -27,6 +27,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.openrefine.rdf.model.expr.functions.ToIRIString;
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RecordModel;
 
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.ParsingException;
@@ -91,30 +93,29 @@ public class CellBlankNode extends ResourceNode implements CellNode {
     }
 
     @Override
-    protected void createRowResources() {
+    protected List<RDFNode> createRowResources(EvaluationContext theContext, RecordModel theRec) {
         if (Util.isDebugMode()) CellBlankNode.logger.info("DEBUG: createRowResources...");
 
-        this.listNodes = null;
         Object results = null;
         try {
             // NOTE: Currently, the expression just results in a "true" (some non-empty string is evaluated)
             //      or "false" (a null or empty string is evaluated).
             //      When "true", a BNode is automatically generated.
             results =
-                Util.evaluateExpression( this.theProject, this.strExpression, this.strColumnName, this.theRec.row() );
+                theContext.evaluateExpression( this.strExpression, this.strColumnName, theContext.getColumnSlot(this), theRec.row() );
         }
         catch (ParsingException ex) {
             // An cell might result in a ParsingException when evaluating an IRI expression.
             // Eat the exception...
-            return;
+            return null;
         }
 
         // Results cannot be classed...
         if ( results == null || ExpressionUtils.isError(results) || ! ExpressionUtils.isNonBlankData(results) ) {
-            return;
+            return null;
         }
 
-        this.listNodes = new ArrayList<RDFNode>();
+        List<RDFNode> listNodes = new ArrayList<RDFNode>();
 
         // Results are an array...
         if ( results.getClass().isArray() ) {
@@ -122,20 +123,21 @@ public class CellBlankNode extends ResourceNode implements CellNode {
 
             List<Object> listResult = Arrays.asList(results);
             for (Object objResult : listResult) {
-                this.normalizeBNodeResource(objResult);
+                this.normalizeBNodeResource(theRec, objResult, listNodes);
             }
         }
         // Results are singular...
         else {
-            this.normalizeBNodeResource(results);
+            this.normalizeBNodeResource(theRec, results, listNodes);
         }
 
-        if ( this.listNodes.isEmpty() ) {
-            this.listNodes = null;
+        if ( listNodes.isEmpty() ) {
+            listNodes = null;
         }
+        return listNodes;
     }
 
-    private void normalizeBNodeResource(Object objResult) {
+    private void normalizeBNodeResource(RecordModel theRec, Object objResult, List<RDFNode> listNodes) {
         String strResult = Util.toSpaceStrippedString(objResult);
         // NOTE: The prefix "_:" is auto-added by createBNode()
         // TODO: Use strResult or just "true" or "false"?  Currently, "true" or "false".
@@ -159,13 +161,13 @@ public class CellBlankNode extends ResourceNode implements CellNode {
                 else {
                     // Since we are processing by row (even in record mode for columns),
                     // the row number is set and we can use it with the ColumnName
-                    String strIndex = Integer.toString( this.theRec.row() );
+                    String strIndex = Integer.toString( theRec.row() );
                     bnode = new ResourceImpl( new AnonId( strIRIColumnName + "_" + strIndex ) );
                 }
             }
 
             if (bnode != null) {
-                this.listNodes.add(bnode);
+                listNodes.add(bnode);
             }
         }
     }
@@ -26,6 +26,9 @@ import java.util.Arrays;
 import java.util.List;
 import java.io.IOException;
 
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RecordModel;
+
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.ParsingException;
 
@@ -111,27 +114,26 @@ public class CellLiteralNode extends LiteralNode implements CellNode {
      *  from this node on Rows
      */
     @Override
-    protected void createRowLiterals() {
+    protected List<RDFNode> createRowLiterals(EvaluationContext theContext, RecordModel theRec) {
         if (Util.isDebugMode()) CellLiteralNode.logger.info("DEBUG: createRowLiterals...");
 
-        this.listNodes = null;
         Object results = null;
         try {
             results =
-                Util.evaluateExpression( this.theProject, this.strExpression, this.strColumnName, this.theRec.row() );
+                theContext.evaluateExpression( this.strExpression, this.strColumnName, theContext.getColumnSlot(this), theRec.row() );
         }
         catch (ParsingException ex) {
             // An cell might result in a ParsingException when evaluating an IRI expression.
             // Eat the exception...
-            return;
+            return null;
         }
 
         // Results cannot be classed...
         if ( results == null || ExpressionUtils.isError(results) || ! ExpressionUtils.isNonBlankData(results) ) {
-            return;
+            return null;
         }
 
-        this.listNodes = new ArrayList<RDFNode>();
+        List<RDFNode> listNodes = new ArrayList<RDFNode>();
 
         // Results are an array...
         if ( results.getClass().isArray() ) {
@@ -139,17 +141,18 @@ public class CellLiteralNode extends LiteralNode implements CellNode {
 
             List<Object> listResult = Arrays.asList(results);
             for (Object obj : listResult) {
-                this.normalizeLiteral(obj);
+                this.normalizeLiteral(theContext, obj, listNodes);
             }
         }
         // Results are singular...
         else {
-            this.normalizeLiteral(results);
+            this.normalizeLiteral(theContext, results, listNodes);
         }
 
-        if ( this.listNodes.isEmpty() ) {
-            this.listNodes = null;
+        if ( listNodes.isEmpty() ) {
+            listNodes = null;
         }
+        return listNodes;
     }
 
     @Override
@@ -22,8 +22,12 @@
 package org.openrefine.rdf.model;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.io.IOException;
 
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RecordModel;
+
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.ParsingException;
 
@@ -94,51 +98,45 @@ public class CellResourceNode extends ResourceNode implements CellNode {
     }
 
     @Override
-    protected void createRowResources() {
+    protected List<RDFNode> createRowResources(EvaluationContext theContext, RecordModel theRec) {
         if (Util.isDebugMode()) CellResourceNode.logger.info("DEBUG: createRowResources...");
 
-        this.listNodes = null;
         Object results = null;
         try {
             results =
-                Util.evaluateExpression( this.theProject, this.strExpression, this.strColumnName, this.theRec.row() );
+                theContext.evaluateExpression( this.strExpression, this.strColumnName, theContext.getColumnSlot(this), theRec.row() );
         }
         catch (ParsingException ex) {
             // An cell might result in a ParsingException when evaluating an IRI expression.
             // Eat the exception...
-            return;
+            return null;
         }
 
         // Results cannot be classed...
         if ( results == null || ExpressionUtils.isError(results) || ! ExpressionUtils.isNonBlankData(results) ) {
-            return;
+            return null;
         }
 
-        this.listNodes = new ArrayList<RDFNode>();
+        List<RDFNode> listNodes = new ArrayList<RDFNode>();
 
         // Results are an array...
         if ( results.getClass().isArray() ) {
             if (Util.isDebugMode()) CellResourceNode.logger.info("DEBUG: Result is Array...");
-            this.processResultsAsArray(this.strPrefix, results);
+            this.processResultsAsArray(theContext, this.strPrefix, results, listNodes);
         }
         // Results are singular...
         else {
             if (Util.isDebugMode()) CellResourceNode.logger.info("DEBUG: Result is Singular...");
             if ( results.toString().isEmpty() ) {
-                return;
-            }
-            var bDone = false;
-            if (this.strPrefix == null) {
-                bDone = this.processResultsAsSingle(results);
-            }
-            if ( ! bDone ) {
-                this.normalizeResource(this.strPrefix, results);
+                return null;
             }
+            this.resolveResult(theContext, this.strPrefix, results, listNodes);
         }
 
-        if ( this.listNodes.isEmpty() ) {
-            this.listNodes = null;
+        if ( listNodes.isEmpty() ) {
+            listNodes = null;
         }
+        return listNodes;
     }
 
     @Override
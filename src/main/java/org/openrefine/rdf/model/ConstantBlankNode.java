@@ -22,9 +22,13 @@
 package org.openrefine.rdf.model;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import java.io.IOException;
 
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RecordModel;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonGenerationException;
@@ -73,27 +77,30 @@ public class ConstantBlankNode extends ResourceNode implements ConstantNode {
     }
 
     @Override
-    protected void createResources() {
+    protected List<RDFNode> createResources(EvaluationContext theContext, RecordModel theRec) {
         // For a Constant Blank Node, we only need one constant blank node resource per record,
         // so process as a row...
-        this.createRowResources();
+        return this.createRowResources(theContext, theRec);
     }
 
     @Override
-    protected void createRecordResources() {
+    protected List<RDFNode> createRecordResources(EvaluationContext theContext, RecordModel theRec) {
         // NOT USED!  Just in case, process as a row...
-        this.createRowResources();
+        return this.createRowResources(theContext, theRec);
     }
 
     @Override
-    protected void createRowResources() {
+    protected List<RDFNode> createRowResources(EvaluationContext theContext, RecordModel theRec) {
         if ( Util.isDebugMode() ) ConstantBlankNode.logger.info("DEBUG: createRowResources...");
 
-        this.listNodes = new ArrayList<RDFNode>();
-        this.normalizeBNodeResource();
+        List<RDFNode> listNodes = new ArrayList<RDFNode>();
+        listNodes.add( this.normalizeBNodeResource() );
+        return listNodes;
     }
 
-    private void normalizeBNodeResource() {
+    // NOTE: Synchronized as the node tree may be shared by concurrent evaluations and the
+    //       One and Only Constant BNode must be constructed only once.
+    private synchronized RDFNode normalizeBNodeResource() {
         // If the One and Only Constant BNode has NOT been constructed...
         if (this.bnode == null) {
             //
@@ -142,7 +149,7 @@ public class ConstantBlankNode extends ResourceNode implements ConstantNode {
         }
         // Otherwise, reuse as needed.
 
-        this.listNodes.add(bnode);
+        return this.bnode;
     }
 
     @Override
@@ -23,6 +23,10 @@ package org.openrefine.rdf.model;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RecordModel;
 
 import org.apache.jena.rdf.model.RDFNode;
 
@@ -72,39 +76,44 @@ public class ConstantResourceNode extends ResourceNode implements ConstantNode {
     }
 
     @Override
-    protected void createResources() {
+    protected List<RDFNode> createResources(EvaluationContext theContext, RecordModel theRec) {
         // For a Constant Resource Node, we only need one constant resource per record,
         // so process as a row...
-        this.createRowResources();
+        return this.createRowResources(theContext, theRec);
     }
 
     @Override
-    protected void createRecordResources() {
+    protected List<RDFNode> createRecordResources(EvaluationContext theContext, RecordModel theRec) {
         // NOT USED!
-        this.listNodes = null;
+        return null;
     }
 
     @Override
-    protected void createRowResources() {
-        this.listNodes = null;
+    protected List<RDFNode> createRowResources(EvaluationContext theContext, RecordModel theRec) {
+        // If the constant was resolved by the compiled plan...
+        TransformPlan thePlan = theContext.getPlan();
+        if ( thePlan != null && thePlan.hasConstants(this) ) {
+            return thePlan.getConstants(this);
+        }
 
         // If there is no value to work with...
         if ( this.strConstant == null || this.strConstant.isEmpty() ) {
-            return;
+            return null;
         }
 
-        this.listNodes = new ArrayList<RDFNode>();
+        List<RDFNode> listNodes = new ArrayList<RDFNode>();
         var bDone = false;
         if (this.strPrefix == null) {
-            bDone = this.processResultsAsSingle(this.strConstant);
+            bDone = this.processResultsAsSingle(theContext, this.strConstant, listNodes);
         }
         if ( ! bDone ) {
-            this.normalizeResource(this.strPrefix, this.strConstant);
+            this.normalizeResource(theContext, this.strPrefix, this.strConstant, listNodes);
         }
 
-        if ( this.listNodes.isEmpty() ) {
-            this.listNodes = null;
+        if ( listNodes.isEmpty() ) {
+            listNodes = null;
         }
+        return listNodes;
     }
 
     /*
@@ -131,7 +140,8 @@ public class ConstantResourceNode extends ResourceNode implements ConstantNode {
         }
 
         try {
-            Util.resolveIRI(this.baseIRI, strIRI);
+            // NOTE: Validate only.  The string is expanded and resolved by the caller.
+            Util.resolveIRI(null, strIRI);
         }
         catch (Exception ex) {
             // An IRIParsingException from Util.resolveIRI() means a bad IRI.
@@ -25,6 +25,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RecordModel;
+
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -33,10 +36,8 @@ import com.fasterxml.jackson.core.JsonGenerationException;
 import org.apache.jena.datatypes.RDFDatatype;
 import org.apache.jena.datatypes.TypeMapper;
 import org.apache.jena.datatypes.DatatypeFormatException;
-import org.apache.jena.rdf.model.impl.LiteralImpl;
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.graph.NodeFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,140 +65,157 @@ abstract public class LiteralNode extends Node {
      *  from this node on Rows / Records.
      */
     @Override
-    protected List<RDFNode> createObjects(ResourceNode nodeProperty) {
+    protected List<RDFNode> createObjects(EvaluationContext theContext, RecordModel recProperty) {
         if (Util.isDebugMode()) LiteralNode.logger.info("DEBUG: createObjects...");
 
-        this.setObjectParameters(nodeProperty);
-
         // TODO: Create process for Sub-Records
 
-        this.listNodes = null;
+        RecordModel theRec = new RecordModel();
 
         //
         // Record Mode...
         //
-        if ( nodeProperty.theRec.isRecordMode() ) { // ...property is Record based,
+        if ( recProperty.isRecordMode() ) { // ...property is Record based,
             // ...set to Row Mode and process on current row as set by rowNext()...
-            this.theRec.setMode(nodeProperty, true);
+            theRec.setMode(recProperty, true);
         }
         //
         // Row Mode...
         //
         else {
             // ...process on current row as set by rowNext()...
-            this.theRec.setMode(nodeProperty);
+            theRec.setMode(recProperty);
         }
 
-        this.createStatementsWorker();
-        this.theRec.clear();
-
         // Return the collected resources from the statement processing as Objects
         // to the given Property...
-        return this.listNodes;
+        return this.createStatementsWorker(theContext, theRec);
     }
 
     /*
      *  Method createStatementsWorker() for Literal Node types
      *
-     *  Return: void
+     *  Return: List<RDFNode>
      *
-     *  Stores the Literal as generic Values since these are "object" elements in
+     *  Returns the Literal as generic Values since these are "object" elements in
      *    ( source, predicate, object ) triples and need to be compatible with resources.
      */
-    private void createStatementsWorker() {
+    private List<RDFNode> createStatementsWorker(EvaluationContext theContext, RecordModel theRec) {
         if (Util.isDebugMode()) logger.info("DEBUG: createStatementsWorker...");
 
+        List<RDFNode> listNodes = null;
+
         //
         // Transition from Record to Row processing...
         //
-        if ( this.theRec.isRecordPerRow() ) {
+        if ( theRec.isRecordPerRow() ) {
             List<RDFNode> listLiteralsAll = new ArrayList<RDFNode>();
-            while ( this.theRec.rowNext() ) {
-                this.createRowLiterals(); // ...Row only
-                if ( ! ( this.listNodes == null || this.listNodes.isEmpty() ) ) {
-                    listLiteralsAll.addAll(this.listNodes);
+            while ( theRec.rowNext() ) {
+                listNodes = this.createRowLiterals(theContext, theRec); // ...Row only
+                if ( ! ( listNodes == null || listNodes.isEmpty() ) ) {
+                    listLiteralsAll.addAll(listNodes);
                 }
             }
             if ( listLiteralsAll.isEmpty() ) {
                 listLiteralsAll = null;
             }
-            this.listNodes = listLiteralsAll;
+            listNodes = listLiteralsAll;
         }
 
         //
         // Standard Record or Row processing...
         //
         else {
-            this.createLiterals(); // ...Record or Row
-            if ( this.listNodes == null || this.listNodes.isEmpty() ) {
-                this.listNodes = null;
+            listNodes = this.createLiterals(theContext, theRec); // ...Record or Row
+            if ( listNodes == null || listNodes.isEmpty() ) {
+                listNodes = null;
             }
         }
+
+        return listNodes;
     }
 
     /*
      *  Method createLiterals() for Literal Node types
      *
-     *  Return: void
+     *  Return: List<RDFNode>
      *
-     *  Stores the Literals as generic Values since these are "object" elements in
+     *  Returns the Literals as generic Values since these are "object" elements in
      *    ( source, predicate, object ) triples and need to be compatible with resources.
      */
-    protected void createLiterals() {
+    protected List<RDFNode> createLiterals(EvaluationContext theContext, RecordModel theRec) {
         if (Util.isDebugMode()) logger.info("DEBUG: createLiterals...");
 
         // TODO: Create process for Sub-Records
 
+        List<RDFNode> listNodes = null;
+
         //
         // Record Mode
         //
-        if ( this.theRec.isRecordMode() ) {
+        if ( theRec.isRecordMode() ) {
             // If a column node, the node should iterate all records in the Record group...
             if ( ! this.bIsIndex ) {
-                this.createRecordLiterals();
+                listNodes = this.createRecordLiterals(theContext, theRec);
             }
             // Otherwise, we only need to get a single "Record Number" literal for the Record group...
             else {
-                this.theRec.rowNext(); // ...set index for first (or any) row in the Record
-                this.createRowLiterals(); // ...get the one resource
-                this.theRec.rowReset(); // ...reset for any other row run on the Record
+                theRec.rowNext(); // ...set index for first (or any) row in the Record
+                listNodes = this.createRowLiterals(theContext, theRec); // ...get the one resource
+                theRec.rowReset(); // ...reset for any other row run on the Record
             }
         }
         //
         // Row Mode
         //
         else {
-            this.createRowLiterals();
+            listNodes = this.createRowLiterals(theContext, theRec);
         }
+
+        return listNodes;
     }
 
     /*
      *  Method createRecordLiterals() creates the object list for triple statements
      *  from this node on Records
      */
-    protected void createRecordLiterals() {
+    protected List<RDFNode> createRecordLiterals(EvaluationContext theContext, RecordModel theRec) {
         if (Util.isDebugMode()) LiteralNode.logger.info("DEBUG: createRecordLiterals...");
 
         List<RDFNode> listLiterals = new ArrayList<RDFNode>();
-        while ( this.theRec.rowNext() ) {
-            this.createRowLiterals();
-            if ( this.listNodes != null ) {
-                listLiterals.addAll(this.listNodes);
+        while ( theRec.rowNext() ) {
+            List<RDFNode> listNodes = this.createRowLiterals(theContext, theRec);
+            if ( listNodes != null ) {
+                listLiterals.addAll(listNodes);
             }
         }
         if ( listLiterals.isEmpty() ) {
             listLiterals = null;
         }
 
-        this.listNodes = listLiterals;
+        return listLiterals;
     }
 
-    abstract protected void createRowLiterals();
+    abstract protected List<RDFNode> createRowLiterals(EvaluationContext theContext, RecordModel theRec);
+
+    /*
+     *  Method resolveDatatype() for the Literal Node's datatype IRI
+     *
+     *    The datatype is constant, so it is resolved once by the compiled transform plan.
+     */
+    protected RDFDatatype resolveDatatype(EvaluationContext theContext) {
+        String strDatatype = this.nodeDatatype.normalizeResourceAsString();
+        String strExpandedDatatype = this.expandPrefixedIRI(theContext, strDatatype);
+        if ( strExpandedDatatype != null) {
+            strDatatype = strExpandedDatatype;
+        }
+        return TypeMapper.getInstance().getSafeTypeByName(strDatatype);
+    }
 
     /*
      *  Method normalizeLiteral() for Literal Node to Literal string
      */
-    protected void normalizeLiteral(Object obj) {
+    protected void normalizeLiteral(EvaluationContext theContext, Object obj, List<RDFNode> listNodes) {
         String strResult = obj.toString();
         if ( strResult == null || strResult.isEmpty() ) {
             return;
@@ -214,32 +232,34 @@ abstract public class LiteralNode extends Node {
 
         // If there is a datatype...
         if (this.nodeDatatype != null) {
-            String strDatatype = this.nodeDatatype.normalizeResourceAsString();
-            String strExpandedDatatype = this.expandPrefixedIRI(strDatatype);
-            if ( strExpandedDatatype != null) {
-                strDatatype = strExpandedDatatype;
+            RDFDatatype theDatatype = null;
+            TransformPlan thePlan = theContext.getPlan();
+            if (thePlan != null) {
+                theDatatype = thePlan.getDatatype(this);
+            }
+            if (theDatatype == null) {
+                theDatatype = this.resolveDatatype(theContext);
             }
-            RDFDatatype theDatatype = TypeMapper.getInstance().getSafeTypeByName(strDatatype);
             try {
-                literal = new LiteralImpl( NodeFactory.createLiteral(strResult, theDatatype), null );
+                literal = Util.getTermDictionary().internLiteral(strResult, theDatatype);
             }
             catch (DatatypeFormatException ex) {
-                LiteralNode.logger.info("ERROR: normalizeLiteral: Datatype not valid: " + strResult + " ^^ " + strDatatype);
+                LiteralNode.logger.info("ERROR: normalizeLiteral: Datatype not valid: " + strResult + " ^^ " + theDatatype.getURI());
             }
         }
         // Else, if there is a language...
         else if (this.strLanguage != null) {
-            literal = new LiteralImpl( NodeFactory.createLiteral(strResult, this.strLanguage), null );
+            literal = Util.getTermDictionary().internLiteral(strResult, this.strLanguage);
         }
         // Otherwise...
         else {
             // ...don't decorate the value...
-            literal = new LiteralImpl( NodeFactory.createLiteral(strResult), null );
+            literal = Util.getTermDictionary().internLiteral(strResult);
         }
 
         // If there is a valid literal...
         if (literal != null) {
-            this.listNodes.add(literal);
+            listNodes.add(literal);
         }
     }
 
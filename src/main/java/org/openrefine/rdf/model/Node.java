@@ -24,14 +24,13 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 
-import com.google.refine.model.Project;
 
 import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.utils.EvaluationContext;
 import org.openrefine.rdf.model.utils.RecordModel;
 import org.openrefine.rdf.model.vocab.VocabularyList;
 
 import org.apache.jena.iri.IRI;
-import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.RDFNode;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -345,33 +344,17 @@ abstract public class Node {
         return lnodeLiteral;
     }
 
-    @JsonIgnore
-    protected IRI baseIRI = null;
-
-    @JsonIgnore
-    protected Model theModel = null;
-
-    @JsonIgnore
-    protected Project theProject = null;
-
-    @JsonIgnore
-    public RecordModel theRec = null;
-
     @JsonIgnore
     protected String strExpression;
 
     @JsonIgnore
     protected boolean bIsIndex = false;
 
-    @JsonIgnore
-    protected List<RDFNode> listNodes = null;
-
     @JsonIgnore
     protected Util.NodeType eNodeType = null;
 
     @JsonIgnore
     public Node() {
-        theRec = new RecordModel(this);
     }
 
     @JsonIgnore
@@ -380,11 +363,6 @@ abstract public class Node {
     @JsonProperty("nodeType")
     abstract public String getNodeType();
 
-    @JsonIgnore
-    public Project getProject() {
-        return theProject;
-    }
-
     @JsonProperty("isIndex")
     public boolean isIndexNode() {
         return this.bIsIndex;
@@ -394,11 +372,11 @@ abstract public class Node {
         return eNodeType;
     }
 
-    protected String expandPrefixedIRI(String strObjectIRI) {
-        if (this.theModel == null) {
+    protected String expandPrefixedIRI(EvaluationContext theContext, String strObjectIRI) {
+        if (theContext.getModel() == null) {
             return null;
         }
-        return this.theModel.expandPrefix(strObjectIRI);
+        return theContext.getModel().expandPrefix(strObjectIRI);
 
         // String strExpanded = strObjectIRI;
         // int iIndex = strObjectIRI.indexOf(':'); // ...get index of first ':'...
@@ -415,25 +393,15 @@ abstract public class Node {
         // return strExpanded;
     }
 
-    /*
-     *  Method setObjectParameters()
-     *
-     *  Copy the parameters from the given Property resource to this Node object.
-     *
-     */
-    @JsonIgnore
-    protected void setObjectParameters(ResourceNode nodeProperty) {
-        this.baseIRI = nodeProperty.baseIRI;
-        this.theModel = nodeProperty.theModel;
-        this.theProject = nodeProperty.theProject;
-    }
-
     /*
      *  Method createObjects()
      *
      *    Creates the object list for triple statements from this node.
+     *
+     *    The evaluation state is held by the given context and the property's record model
+     *    (not by the node), so a node tree may be evaluated by several threads at once.
      */
-    abstract protected List<RDFNode> createObjects(ResourceNode nodeProperty);
+    abstract protected List<RDFNode> createObjects(EvaluationContext theContext, RecordModel recProperty);
 
     abstract public void write(JsonGenerator writer, boolean isRoot)
             throws JsonGenerationException, IOException;
@@ -26,10 +26,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.io.IOException;
 
-import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 
 import org.openrefine.rdf.model.Util.IRIParsingException;
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RecordModel;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreType;
@@ -38,7 +39,6 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonGenerationException;
 
 import org.apache.jena.iri.IRI;
-import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.impl.PropertyImpl;
@@ -82,51 +82,78 @@ abstract public class ResourceNode extends Node {
     /*
      *  Method processResultsAsArray() for results to Resources
      */
-    protected void processResultsAsArray(String strPrefix, Object results) {
+    protected void processResultsAsArray(EvaluationContext theContext, String strPrefix, Object results,
+                                            List<RDFNode> listNodes) {
         List<Object> listResult = Arrays.asList(results);
         for (Object objResult : listResult) {
             if ( objResult == null || objResult.toString().isEmpty() ) {
                 continue;
             }
-            if (strPrefix == null) {
-                if ( processResultsAsSingle(objResult) ) {
-                    continue;
-                }
+            this.resolveResult(theContext, strPrefix, objResult, listNodes);
+        }
+    }
+
+    /*
+     *  Method resolveResult() for a single result to a Resource
+     *
+     *  Resolve the result by processResultsAsSingle() (without a prefix) and normalizeResource().
+     *  The resource, or the failure, is cached by the context, so a repeated result is resolved
+     *  once.  See EvaluationContext.getIRI().
+     */
+    protected void resolveResult(EvaluationContext theContext, String strPrefix, Object objResult,
+                                    List<RDFNode> listNodes) {
+        String strKey = EvaluationContext.toIRIKey( strPrefix, objResult.toString() );
+        Resource resCached = theContext.getIRI(strKey);
+        if (resCached != null) {
+            if ( ! EvaluationContext.isBadIRI(resCached) ) {
+                listNodes.add(resCached);
             }
-            this.normalizeResource(strPrefix, objResult);
+            return;
+        }
+
+        int iSize = listNodes.size();
+        boolean bDone = false;
+        if (strPrefix == null) {
+            bDone = this.processResultsAsSingle(theContext, objResult, listNodes);
+        }
+        if ( ! bDone ) {
+            this.normalizeResource(theContext, strPrefix, objResult, listNodes);
         }
+        // NOTE: A result adds one resource at most...
+        theContext.putIRI( strKey, ( listNodes.size() > iSize ? listNodes.get(iSize).asResource() : null ) );
     }
 
     /*
      *  Method processResultsAsArray() for a single result to a Resource
      */
-    protected boolean processResultsAsSingle(Object objResult) {
+    protected boolean processResultsAsSingle(EvaluationContext theContext, Object objResult,
+                                                List<RDFNode> listNodes) {
         String strLocalPart = Util.toSpaceStrippedString(objResult);
         if ( strLocalPart == null || strLocalPart.isEmpty() ) {
             return false;
         }
         String strEmbeddedPrefix = null;
 
-        try {
-            IRI tempIRI = Util.buildIRI(strLocalPart);
-            if (tempIRI != null) {
-                // ...it parsed as an IRI...
-                // If a scheme is present, but a host is not present...
-                strEmbeddedPrefix = tempIRI.getScheme();
-                if (strEmbeddedPrefix != null && tempIRI.getRawHost() == null) {
-                    // There is no authority component:
-                    //    i.e., there was no "schema://...", just "schema:...", so
-                    //    the authority parsing that contains the host parsing was not
-                    //    performed.  The rest may parse as a path, query, fragment.
-                    // Then, the schema is a prefix and that is enough...
-                    strLocalPart = strLocalPart.substring(strEmbeddedPrefix.length() + 1);
-                    this.normalizeResource(strEmbeddedPrefix, strLocalPart);
-                    return true;
-                }
-            }
+        // No scheme: not a prefixed IRI...
+        if ( strLocalPart.indexOf(':') < 1 ) {
+            return false;
         }
-        catch (Exception ex) {
-            // ...continue: try as non-prefixed IRI...
+        // NOTE: A bad IRI is not an exception: continue as a non-prefixed IRI...
+        IRI tempIRI = Util.parseIRI(strLocalPart);
+        if (tempIRI != null) {
+            // ...it parsed as an IRI...
+            // If a scheme is present, but a host is not present...
+            strEmbeddedPrefix = tempIRI.getScheme();
+            if (strEmbeddedPrefix != null && tempIRI.getRawHost() == null) {
+                // There is no authority component:
+                //    i.e., there was no "schema://...", just "schema:...", so
+                //    the authority parsing that contains the host parsing was not
+                //    performed.  The rest may parse as a path, query, fragment.
+                // Then, the schema is a prefix and that is enough...
+                strLocalPart = strLocalPart.substring(strEmbeddedPrefix.length() + 1);
+                this.normalizeResource(theContext, strEmbeddedPrefix, strLocalPart, listNodes);
+                return true;
+            }
         }
         return false;
     }
@@ -134,7 +161,8 @@ abstract public class ResourceNode extends Node {
     /*
      *  Method normalizeResource() for Resource Node to IRI
      */
-    protected void normalizeResource(String strPrefix, Object objResult) {
+    protected void normalizeResource(EvaluationContext theContext, String strPrefix, Object objResult,
+                                        List<RDFNode> listNodes) {
         if (objResult == null) {
             return;
         }
@@ -146,7 +174,7 @@ abstract public class ResourceNode extends Node {
         String strLocalPart = strIRI; // ...for "prefix:localPart" IRI
         if (strPrefix != null) { // ...on prefix, attempt namespace...
             strIRI = strPrefix + ":" + strLocalPart;
-            strNamespace = this.theModel.getNsPrefixURI(strPrefix);
+            strNamespace = theContext.getModel().getNsPrefixURI(strPrefix);
         }
         if ( Util.isDebugMode() ) {
             String strDebug = "DEBUG: normalizeResource: Given: ";
@@ -159,164 +187,205 @@ abstract public class ResourceNode extends Node {
             ResourceNode.logger.info(strDebug);
         }
 
-        try {
-            String strResolvedIRI = Util.resolveIRI(this.baseIRI, strIRI);
-            if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: normalizeResource: Resolved IRI: " + strResolvedIRI);
-            if (strResolvedIRI != null) { // ...at least it's a good, basic IRI...
-                String strFullIRI = strResolvedIRI; // ...Default: Full IRI
-                ResourceImpl nodeResource;
-                if (strNamespace == null) { // ...and both strPrefix == null and != null
-                    nodeResource = new ResourceImpl(strFullIRI);
-                }
-                else {
-                    strFullIRI = strNamespace + strLocalPart;
-                    nodeResource = new ResourceImpl(strNamespace, strLocalPart);
-                }
-                if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: normalizeResource: Processed IRI: " + strFullIRI);
-                this.listNodes.add( nodeResource );
+        // NOTE: A bad IRI is expected data, so it is resolved without exceptions...
+        String strResolvedIRI = Util.findResolvedIRI(theContext.getBaseIRI(), strIRI);
+        if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: normalizeResource: Resolved IRI: " + strResolvedIRI);
+        if (strResolvedIRI == null) {
+            // A relative IRI without a base IRI is valid: there is just nothing to resolve it on...
+            if ( Util.checkIRI(strIRI) == Util.IRICheck.MALFORMED || theContext.getBaseIRI() != null ) {
+                ResourceNode.logger.error("ERROR: Bad IRI: " + strIRI);
+            }
+            else if ( Util.isDebugMode() ) {
+                ResourceNode.logger.info("DEBUG: normalizeResource: No Base IRI for relative IRI: " + strIRI);
             }
+            return;
+        }
+
+        // ...at least it's a good, basic IRI...
+        String strFullIRI = strResolvedIRI; // ...Default: Full IRI
+        if (strNamespace != null) { // ...and strPrefix != null
+            strFullIRI = strNamespace + strLocalPart;
+        }
+        try {
+            // Share one resource for repeated IRIs...
+            Resource nodeResource = Util.getTermDictionary().internResource(strFullIRI);
+            if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: normalizeResource: Processed IRI: " + strFullIRI);
+            listNodes.add( nodeResource );
         }
-        //catch (IRIParsingException | IllegalArgumentException ex) {
         catch (Exception ex) {
-            // An IRIParsingException from Util.resolveIRI() means a bad IRI.
             // An IllegalArgumentException from theFactory.createIRI() means a bad IRI.
-            // In either case, record error and eat the exception...
-            ResourceNode.logger.error( "ERROR: Bad IRI: " + strIRI, ex);
+            // Record error and eat the exception...
+            ResourceNode.logger.error( "ERROR: Bad IRI: " + strFullIRI, ex);
         }
     }
 
     /*
      *  Method createStatements() for Root Resource Node types on OpenRefine Rows
      */
-    public void createStatements(IRI baseIRI, Model theModel, Project theProject, int iRowIndex)
+    public void createStatements(EvaluationContext theContext, int iRowIndex)
             throws RuntimeException
     {
-        this.baseIRI = baseIRI;
-        this.theModel = theModel;
-        this.theProject = theProject;
-
-        this.theRec.setRootRow(iRowIndex);
-        this.createStatementsWorker();
-        this.theRec.clear();
+        RecordModel theRec = new RecordModel();
+        theRec.setRootRow(iRowIndex);
+        ResourceNode.selectGraph(theContext, iRowIndex, null);
+        this.createStatementsWorker(theContext, theRec);
     }
 
     /*
      *  Method createStatements() for Root Resource Node types on OpenRefine Records
      */
-    public void createStatements(IRI baseIRI, Model theModel, Project theProject, Record theRecord)
+    public void createStatements(EvaluationContext theContext, Record theRecord)
             throws RuntimeException
     {
-        this.baseIRI = baseIRI;
-        this.theModel = theModel;
-        this.theProject = theProject;
+        RecordModel theRec = new RecordModel();
+        theRec.setRootRecord(theRecord);
+        ResourceNode.selectGraph(theContext, theRecord.fromRowIndex, theRecord);
+        this.createStatementsWorker(theContext, theRec);
+    }
 
-        this.theRec.setRootRecord(theRecord);
-        this.createStatementsWorker();
-        this.theRec.clear();
+    /*
+     *  Method selectGraph() for Root Resource Node types
+     *
+     *  Set the context's graph for the row or record from the plan's graph node.  The graph
+     *  node is evaluated once per row or record, i.e., not again for each root node.  The
+     *  first resource is the graph.  When the graph node makes no resource, the statements
+     *  are in the default graph.
+     */
+    static private void selectGraph(EvaluationContext theContext, int iKey, Record theRecord) {
+        TransformPlan thePlan = theContext.getPlan();
+        ResourceNode nodeGraph = ( thePlan == null ? null : thePlan.getGraph() );
+        if (nodeGraph == null) {
+            return;
+        }
+        if ( theContext.hasGraph(iKey) ) {
+            return;
+        }
+        RecordModel theRec = new RecordModel();
+        if (theRecord == null) {
+            theRec.setRootRow(iKey);
+        }
+        else {
+            theRec.setRootRecord(theRecord);
+        }
+        org.apache.jena.graph.Node theGraph = null;
+        List<RDFNode> listGraphs = nodeGraph.createResources(theContext, theRec);
+        if ( ! ( listGraphs == null || listGraphs.isEmpty() ) ) {
+            theGraph = listGraphs.get(0).asNode();
+        }
+        if ( Util.isDebugMode() ) ResourceNode.logger.info("DEBUG: selectGraph: " + theGraph);
+        theContext.setGraph(iKey, theGraph);
     }
 
     /*
      *  Method createStatementsWorker() for Resource Node types
      *
-     *  Return: void
+     *  Return: List<RDFNode>
      *
-     *  Stores the Resources as generic Values since these are "object" elements in
+     *  Returns the Resources as generic Values since these are "object" elements in
      *    ( source, predicate, object ) triples and need to be compatible with literals.
      */
-    private void createStatementsWorker()
+    private List<RDFNode> createStatementsWorker(EvaluationContext theContext, RecordModel theRec)
             throws RuntimeException {
         if (Util.isDebugMode()) logger.info("DEBUG: createStatementsWorker...");
 
+        List<RDFNode> listNodes = null;
+
         //
         // Transition from Record to Row processing...
         //
-        if ( this.theRec.isRecordPerRow() ) {
+        if ( theRec.isRecordPerRow() ) {
             List<RDFNode> listResources = new ArrayList<RDFNode>();
-            while ( this.theRec.rowNext() ) {
-                this.createRowResources(); // ...Row only
-                if ( ! ( this.listNodes == null || this.listNodes.isEmpty() ) ) {
-                    this.createResourceStatements();
-                    listResources.addAll(this.listNodes);
+            while ( theRec.rowNext() ) {
+                listNodes = this.createRowResources(theContext, theRec); // ...Row only
+                if ( ! ( listNodes == null || listNodes.isEmpty() ) ) {
+                    this.createResourceStatements(theContext, theRec, listNodes);
+                    listResources.addAll(listNodes);
                 }
             }
             if ( listResources.isEmpty() ) {
                 listResources = null;
             }
-            this.listNodes = listResources;
+            listNodes = listResources;
         }
 
         //
         // Standard Record or Row processing...
         //
         else {
-            this.createResources(); // ...Record or Row
-            if ( this.listNodes == null || this.listNodes.isEmpty() ) {
-                this.listNodes = null;
+            listNodes = this.createResources(theContext, theRec); // ...Record or Row
+            if ( listNodes == null || listNodes.isEmpty() ) {
+                listNodes = null;
             }
             else {
-                this.createResourceStatements();
+                this.createResourceStatements(theContext, theRec, listNodes);
             }
         }
+
+        return listNodes;
     }
 
     /*
      *  Method createResources() for Resource Node types
      *
-     *  Return: void
+     *  Return: List<RDFNode>
      *
-     *  Stores the Resources as generic Values since these are "object" elements in
+     *  Returns the Resources as generic Values since these are "object" elements in
      *    ( source, predicate, object ) triples and need to be compatible with literals.
      */
-    protected void createResources() {
+    protected List<RDFNode> createResources(EvaluationContext theContext, RecordModel theRec) {
         if (Util.isDebugMode()) logger.info("DEBUG: createResources...");
 
         // TODO: Create process for Sub-Records
 
+        List<RDFNode> listNodes = null;
+
         //
         // Record Mode
         //
-        if ( this.theRec.isRecordMode() ) {
+        if ( theRec.isRecordMode() ) {
             // If a column node, the node should iterate all records in the Record group...
             if ( ! this.bIsIndex ) {
-                this.createRecordResources();
+                listNodes = this.createRecordResources(theContext, theRec);
             }
             // Otherwise, we only need to get a single "Record Number" resource for the Record group...
             else {
-                this.theRec.rowNext(); // ...set index for first (or any) row in the Record
-                this.createRowResources(); // ...get the one resource
-                this.theRec.rowReset(); // ...reset for any other row run on the Record
+                theRec.rowNext(); // ...set index for first (or any) row in the Record
+                listNodes = this.createRowResources(theContext, theRec); // ...get the one resource
+                theRec.rowReset(); // ...reset for any other row run on the Record
             }
         }
         //
         // Row Mode
         //
         else {
-            this.createRowResources();
+            listNodes = this.createRowResources(theContext, theRec);
         }
+
+        return listNodes;
     }
 
     /*
      *  Method createRecordResources() creates the object list for triple statements
      *  from this node on Records
      */
-    protected void createRecordResources() {
+    protected List<RDFNode> createRecordResources(EvaluationContext theContext, RecordModel theRec) {
         if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: createRecordResources...");
 
         List<RDFNode> listResources = new ArrayList<RDFNode>();
-        while ( this.theRec.rowNext() ) {
-            this.createRowResources();
-            if ( this.listNodes != null ) {
-                listResources.addAll(this.listNodes);
+        while ( theRec.rowNext() ) {
+            List<RDFNode> listNodes = this.createRowResources(theContext, theRec);
+            if ( listNodes != null ) {
+                listResources.addAll(listNodes);
             }
         }
         if ( listResources.isEmpty() ) {
             listResources = null;
         }
 
-        this.listNodes = listResources;
+        return listResources;
     }
 
-    abstract protected void createRowResources();
+    abstract protected List<RDFNode> createRowResources(EvaluationContext theContext, RecordModel theRec);
 
     /*
      *  Method createStatements() for Resource Node types
@@ -324,11 +393,11 @@ abstract public class ResourceNode extends Node {
      *    Given a set of source resources, create the (source, rdf:type, object) triple statements
      *    for each of the sources.
      */
-    private void createResourceStatements()
+    private void createResourceStatements(EvaluationContext theContext, RecordModel theRec, List<RDFNode> listNodes)
             throws RuntimeException {
         try {
-            this.createTypeStatements();
-            this.createPropertyStatements();
+            this.createTypeStatements(theContext, listNodes);
+            this.createPropertyStatements(theContext, theRec, listNodes);
         }
         catch (Exception ex) {
             throw new RuntimeException(ex);
@@ -336,22 +405,15 @@ abstract public class ResourceNode extends Node {
     }
 
     /*
-     *  Method createTypeStatements() for Resource Node types
+     *  Method resolveTypes() for Resource Node types
      *
-     *    Given a set of source resources, create the (source, rdf:type, object) triple statements
-     *    for each of the sources.
+     *    Resolve the node's type IRIs to resources.  The types are constant, so they are
+     *    resolved once by the compiled transform plan.  See TransformPlan.getTypes().
      */
-    private void createTypeStatements() {
-        if ( Util.isDebugMode() ) {
-            String strPropertyCount = "DEBUG: createTypeStatements: Type Count: {}";
-            int iPropertyCount = 0;
-            if (this.listTypes != null) {
-                iPropertyCount = listTypes.size();
-            }
-            ResourceNode.logger.info(strPropertyCount, iPropertyCount);
-        }
+    protected List<Resource> resolveTypes(EvaluationContext theContext) {
+        List<Resource> listTypeResources = new ArrayList<Resource>();
         if (this.listTypes == null) {
-            return;
+            return listTypeResources;
         }
 
         String strPrefix = null;
@@ -362,10 +424,6 @@ abstract public class ResourceNode extends Node {
         String strFullType;
         ResourceImpl nodeType;
 
-        //
-        // Process one set of types
-        //
-        List<RDFNode> listTypesForStmts = new ArrayList<RDFNode>();
         for ( RDFType typeItem : this.listTypes ) {
             strPrefix = typeItem.getPrefix(); // Null indicated FULL IRI, Empty indicate BaseIRI
             strType = typeItem.getLocalPart(); // ...assume FULL IRI
@@ -374,7 +432,7 @@ abstract public class ResourceNode extends Node {
             if (strPrefix != null) { // ...prefixed...
                 strLocalPart = strType;
                 strType = strPrefix + ":" + strLocalPart; // ...CIRIE
-                strNamespace = this.theModel.getNsPrefixURI(strPrefix);
+                strNamespace = theContext.getModel().getNsPrefixURI(strPrefix);
             }
             if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: Type: [" + strType + "]");
             if ( strType == null || strType.isEmpty() ) {
@@ -383,7 +441,7 @@ abstract public class ResourceNode extends Node {
 
             try {
                 // Resolve the IRI for Full IRI or CIRIE...
-                strFullType = Util.resolveIRI(this.baseIRI, strType);
+                strFullType = Util.resolveIRI(theContext.getBaseIRI(), strType);
                 if (strFullType != null) {
                     if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: Type Resource: [" + strFullType + "]");
                     if (strNamespace != null) {
@@ -392,20 +450,93 @@ abstract public class ResourceNode extends Node {
                     else { // ...on no prefix or missing namespace, treat as Full...
                         nodeType = new ResourceImpl(strFullType);
                     }
-                    listTypesForStmts.add(nodeType);
+                    listTypeResources.add(nodeType);
                 }
             }
             catch (IRIParsingException | IllegalArgumentException ex) {
                 logger.error( "ERROR: Bad Type IRI: " + strType, ex);
             }
         }
+        return listTypeResources;
+    }
+
+    /*
+     *  Method resolveProperty() for a Resource Node's Property
+     *
+     *    Resolve the property's IRI to a predicate.  The predicate is constant, so it is
+     *    resolved once by the compiled transform plan.  See TransformPlan.getPredicate().
+     *    Returns null for a missing or bad property IRI.
+     */
+    static protected org.apache.jena.rdf.model.Property resolveProperty(EvaluationContext theContext, Property propItem) {
+        String strPrefix = propItem.getPrefix(); // Null indicated FULL IRI, Empty indicate BaseIRI
+        String strProperty = propItem.getPathProperty(); // ...assume FULL IRI
+        String strLocalName = null;
+        String strNamespace = null;
+        if (strPrefix != null) { // ...prefixed...
+            strLocalName = strProperty;
+            strProperty = strPrefix + ":" + strLocalName; // ...CIRIE
+            strNamespace = theContext.getModel().getNsPrefixURI(strPrefix);
+        }
+        if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: Prop: [" + strProperty + "]");
+        if ( strProperty == null || strProperty.isEmpty() ) {
+            return null;
+        }
+
+        try {
+            // Resolve Property for Full IRI and CIRIE...
+            String strFullProperty = Util.resolveIRI(theContext.getBaseIRI(), strProperty);
+            if (strFullProperty != null) {
+                if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: Prop Resource: [" + strFullProperty + "]");
+                if (strNamespace != null) {
+                    return new PropertyImpl(strNamespace, strLocalName);
+                }
+                // ...on no prefix or missing namespace, treat as Full...
+                return new PropertyImpl(strFullProperty);
+            }
+        }
+        catch (IRIParsingException | IllegalArgumentException ex) {
+            ResourceNode.logger.error( "ERROR: Bad Property IRI: " + strProperty, ex);
+        }
+        return null;
+    }
+
+    /*
+     *  Method createTypeStatements() for Resource Node types
+     *
+     *    Given a set of source resources, create the (source, rdf:type, object) triple statements
+     *    for each of the sources.
+     */
+    private void createTypeStatements(EvaluationContext theContext, List<RDFNode> listNodes) {
+        if ( Util.isDebugMode() ) {
+            String strPropertyCount = "DEBUG: createTypeStatements: Type Count: {}";
+            int iPropertyCount = 0;
+            if (this.listTypes != null) {
+                iPropertyCount = listTypes.size();
+            }
+            ResourceNode.logger.info(strPropertyCount, iPropertyCount);
+        }
+        if (this.listTypes == null || this.listTypes.isEmpty()) {
+            return;
+        }
+
+        //
+        // Get the resolved types...
+        //
+        List<Resource> listTypesForStmts = null;
+        TransformPlan thePlan = theContext.getPlan();
+        if (thePlan != null) {
+            listTypesForStmts = thePlan.getTypes(this);
+        }
+        if (listTypesForStmts == null) {
+            listTypesForStmts = this.resolveTypes(theContext);
+        }
 
         //
         // Process statements...
         //
-        for (RDFNode theSource : this.listNodes) {
-            for (RDFNode theType : listTypesForStmts) {
-                this.theModel.add( (Resource) theSource, RDF.type, (RDFNode) theType );
+        for (RDFNode theSource : listNodes) {
+            for (Resource theType : listTypesForStmts) {
+                theContext.addStatement( (Resource) theSource, RDF.type, (RDFNode) theType );
             }
         }
     }
@@ -416,7 +547,7 @@ abstract public class ResourceNode extends Node {
      *    Given a set of source resources, create the (source, property, object) triple statements
      *    for each of the sources.
      */
-    private void createPropertyStatements() {
+    private void createPropertyStatements(EvaluationContext theContext, RecordModel theRec, List<RDFNode> listNodes) {
         if ( Util.isDebugMode() ) {
             String strPropertyCount = "DEBUG: createPropertyStatements: Property Count: {}";
             int iPropertyCount = 0;
@@ -429,26 +560,20 @@ abstract public class ResourceNode extends Node {
             return;
         }
 
-        String strPrefix = null;
-        String strProperty = null;
-
-        String strNamespace;
-        String strLocalName;
         Node nodeObject;
         List<RDFNode> listObjects;
-        String strFullProperty;
-        PropertyImpl theProperty;
+        org.apache.jena.rdf.model.Property theProperty;
 
         @JsonIgnoreType
         class PropertyObjectList {
-            private PropertyImpl nodeProp;
+            private org.apache.jena.rdf.model.Property nodeProp;
             private List<RDFNode> listObjs;
 
-            PropertyObjectList(PropertyImpl nodeProp, List<RDFNode> listObjs) {
+            PropertyObjectList(org.apache.jena.rdf.model.Property nodeProp, List<RDFNode> listObjs) {
                 this.nodeProp = nodeProp;
                 this.listObjs = listObjs;
             }
-            public PropertyImpl getProperty() {
+            public org.apache.jena.rdf.model.Property getProperty() {
                 return this.nodeProp;
             }
             public List<RDFNode> getObjects() {
@@ -456,25 +581,16 @@ abstract public class ResourceNode extends Node {
             }
         }
 
+        TransformPlan thePlan = theContext.getPlan();
+
         //
         // Process one set of properties
         //
         List<PropertyObjectList> listPropsForStmts = new ArrayList<PropertyObjectList>();
         for (Property propItem : this.listProperties) {
-            //
-            // PROPERTY
-            //
-            strPrefix = propItem.getPrefix(); // Null indicated FULL IRI, Empty indicate BaseIRI
-            strProperty = propItem.getPathProperty(); // ...assume FULL IRI
-            strLocalName = null;
-            strNamespace = null;
-            if (strPrefix != null) { // ...prefixed...
-                strLocalName = strProperty;
-                strProperty = strPrefix + ":" + strLocalName; // ...CIRIE
-                strNamespace = this.theModel.getNsPrefixURI(strPrefix);
-            }
-            if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: Prop: [" + strProperty + "]");
-            if ( strProperty == null || strProperty.isEmpty() ) {
+            // If there is no property IRI, no statement can be processed...
+            String strProperty = propItem.getPathProperty();
+            if ( propItem.getPrefix() == null && ( strProperty == null || strProperty.isEmpty() ) ) {
                 continue;
             }
 
@@ -486,45 +602,36 @@ abstract public class ResourceNode extends Node {
                 if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: Cannot create statements: no Object for Property found.");
                 continue; // ...then, no statement can be processed
             }
-            listObjects = nodeObject.createObjects(this);
+            listObjects = nodeObject.createObjects(theContext, theRec);
             if (listObjects == null) { // ...no Object List?
                 if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: Cannot create statements: no Object List created on Object for Property.");
                 continue; // ...then, no statements can be processed
             }
 
-            try {
-                // Resolve Property for Full IRI and CIRIE...
-                strFullProperty = Util.resolveIRI(this.baseIRI, strProperty);
-                if (strFullProperty != null) {
-                    if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: Prop Resource: [" + strFullProperty + "]");
-                    if (strNamespace != null) {
-                        theProperty = new PropertyImpl(strNamespace, strLocalName);
-                    }
-                    else { // ...on no prefix or missing namespace, treat as Full...
-                        theProperty = new PropertyImpl(strFullProperty);
-                    }
-                    listPropsForStmts.add( new PropertyObjectList(theProperty, listObjects) );
-                }
+            //
+            // PROPERTY
+            //
+            if ( thePlan != null && thePlan.hasPredicate(propItem) ) {
+                theProperty = thePlan.getPredicate(propItem);
             }
-            catch (IRIParsingException | IllegalArgumentException ex) {
-                logger.error( "ERROR: Bad Property IRI: " + strProperty, ex);
+            else {
+                theProperty = ResourceNode.resolveProperty(theContext, propItem);
+            }
+            if (theProperty != null) {
+                listPropsForStmts.add( new PropertyObjectList(theProperty, listObjects) );
             }
         }
 
         //
         // Process statements...
         //
-        for (RDFNode theSource : this.listNodes) {
+        for (RDFNode theSource : listNodes) {
             for ( PropertyObjectList polPropItem : listPropsForStmts )
             {
                 theProperty = polPropItem.getProperty();
                 listObjects = polPropItem.getObjects();
                 for (RDFNode theObject : listObjects) {
-                    this.theModel.add(
-                        (Resource) theSource,
-                        (org.apache.jena.rdf.model.Property) theProperty,
-                        (RDFNode) theObject
-                    );
+                    theContext.addStatement( (Resource) theSource, theProperty, (RDFNode) theObject );
                 }
             }
         }
@@ -538,22 +645,20 @@ abstract public class ResourceNode extends Node {
      *    ( source, predicate, object ) triples and need to be compatible with literals.
      */
     @Override
-    protected List<RDFNode> createObjects(ResourceNode nodeProperty)
+    protected List<RDFNode> createObjects(EvaluationContext theContext, RecordModel recProperty)
             throws RuntimeException {
         if (Util.isDebugMode()) ResourceNode.logger.info("DEBUG: createObjects...");
 
-        this.setObjectParameters(nodeProperty);
-
         // TODO: Create process for Sub-Records
 
-        this.listNodes = null;
+        RecordModel theRec = new RecordModel();
 
         //
         // Record Mode...
         //
-        if ( nodeProperty.theRec.isRecordMode() ) { // ...property is Record based,
+        if ( recProperty.isRecordMode() ) { // ...property is Record based,
             // ...set to Row Mode and process on current row as set by rowNext()...
-            this.theRec.setMode(nodeProperty, true);
+            theRec.setMode(recProperty, true);
         }
 
         //
@@ -561,15 +666,12 @@ abstract public class ResourceNode extends Node {
         //
         else {
             // ...process on current row as set by rowNext()...
-            this.theRec.setMode(nodeProperty);
+            theRec.setMode(recProperty);
         }
 
-        this.createStatementsWorker();
-        this.theRec.clear();
-
         // Return the collected resources from the statement processing as Objects
         // to the given Property...
-        return this.listNodes;
+        return this.createStatementsWorker(theContext, theRec);
     }
 
     abstract protected void writeNode(JsonGenerator writer, boolean isRoot)
@@ -0,0 +1,382 @@
+/*
+ *  Class TransformPlan
+ *
+ *  A Transform Plan class to hold the compiled, immutable execution state of
+ *  an RDF Transform.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RecordModel;
+import org.openrefine.rdf.model.vocab.Vocabulary;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.iri.IRI;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class TransformPlan
+ *
+ *  A plan is compiled from an RDF Transform's node tree once per transform revision and is
+ *  shared by every export and preview of that revision.  The plan holds:
+ *    1. the prefix to namespace map (including the default namespace for the base IRI),
+ *    2. a flat node table listing every node in the tree (depth first),
+ *    3. the ordered column names evaluated by the cell nodes (the column slots) and each
+ *       cell node's slot,
+ *    4. the resolved datatype for each datatype literal node,
+ *    5. the resolved RDF nodes for each constant resource and literal node,
+ *    6. the resolved rdf:type resources for each resource node,
+ *    7. the resolved predicate for each property,
+ *    8. whether the statements depend only on the column slot cells (cell bound),
+ *    9. the graph node naming the graph of each row's or record's statements, if any.
+ *  The node tree is still walked for each row or record, but the nodes get their constant
+ *  values, types, and predicates from the plan instead of resolving them again.
+ *
+ *  NOTE: A plan is never modified after it is compiled, so it may be shared by threads.
+ *        The node tree is not modified by the plan: it is shared with the transform and
+ *        earlier plans.  The plan's values are held in node keyed identity maps.
+ */
+public class TransformPlan {
+    static private final Logger logger = LoggerFactory.getLogger("RDFT:TransformPlan");
+
+    private final long lRevision;
+    private final IRI baseIRI;
+    private final Map<String, String> mapNamespaces;
+    private final List<ResourceNode> listRoots;
+    private final ResourceNode nodeGraph;
+    private final List<Node> listNodes;
+    private final List<String> listColumnNames;
+    private final boolean bCellBound;
+    private final Map<Node, Integer> mapColumnSlots = new IdentityHashMap<Node, Integer>();
+    private final Map<LiteralNode, RDFDatatype> mapDatatypes = new IdentityHashMap<LiteralNode, RDFDatatype>();
+    private final Map<Node, List<RDFNode>> mapConstants = new IdentityHashMap<Node, List<RDFNode>>();
+    private final Map<ResourceNode, List<Resource>> mapTypes = new IdentityHashMap<ResourceNode, List<Resource>>();
+    private final Map<Property, org.apache.jena.rdf.model.Property> mapPredicates =
+        new IdentityHashMap<Property, org.apache.jena.rdf.model.Property>();
+
+    /*
+     * Method compile()
+     *
+     *  Compile the transform's current node tree into a plan for the given revision.
+     */
+    static public TransformPlan compile(RDFTransform theTransform, long lRevision) {
+        if ( Util.isVerbose(3) || Util.isDebugMode() ) TransformPlan.logger.info("Compiling transform revision " + lRevision + "...");
+        TransformPlan thePlan = new TransformPlan(theTransform, lRevision);
+        if ( Util.isVerbose(3) || Util.isDebugMode() ) {
+            TransformPlan.logger.info("...compiled: " +
+                thePlan.listNodes.size() + " nodes, " +
+                thePlan.listColumnNames.size() + " columns, " +
+                thePlan.mapConstants.size() + " constants, " +
+                thePlan.mapPredicates.size() + " predicates");
+        }
+        return thePlan;
+    }
+
+    private TransformPlan(RDFTransform theTransform, long lRevision) {
+        this.lRevision = lRevision;
+        this.baseIRI = theTransform.getBaseIRI();
+        this.mapNamespaces = Collections.unmodifiableMap( TransformPlan.buildNamespaces(theTransform) );
+
+        List<ResourceNode> listRootNodes = new ArrayList<ResourceNode>();
+        if (theTransform.getRoots() != null) {
+            listRootNodes.addAll( theTransform.getRoots() );
+        }
+        this.listRoots = Collections.unmodifiableList(listRootNodes);
+        this.nodeGraph = theTransform.getGraph();
+
+        //
+        // Build the node table and the column slots...
+        //
+        List<Node> listTableNodes = new ArrayList<Node>();
+        List<String> listColumns = new ArrayList<String>();
+        for (ResourceNode nodeRoot : this.listRoots) {
+            this.addNode(nodeRoot, listTableNodes, listColumns);
+        }
+        // The graph node is compiled like any node: slot, constants, cell bound...
+        this.addNode(this.nodeGraph, listTableNodes, listColumns);
+        this.listNodes = Collections.unmodifiableList(listTableNodes);
+        this.listColumnNames = Collections.unmodifiableList(listColumns);
+        this.bCellBound = TransformPlan.checkCellBound(this.listNodes);
+
+        //
+        // Resolve the datatypes, types, predicates, and constants with a compile context (no project)...
+        //
+        EvaluationContext theContext = new EvaluationContext(null, this, this.createModel());
+        for (Node theNode : this.listNodes) {
+            if (theNode instanceof LiteralNode) {
+                LiteralNode nodeLiteral = (LiteralNode) theNode;
+                if ( nodeLiteral.nodeDatatype != null ) {
+                    this.mapDatatypes.put( nodeLiteral, nodeLiteral.resolveDatatype(theContext) );
+                }
+            }
+        }
+        for (Node theNode : this.listNodes) {
+            if (theNode instanceof ResourceNode) {
+                ResourceNode nodeResource = (ResourceNode) theNode;
+                this.mapTypes.put( nodeResource, Collections.unmodifiableList( nodeResource.resolveTypes(theContext) ) );
+                for ( Property prop : nodeResource.getProperties() ) {
+                    // NOTE: A null predicate records a property that did not resolve.
+                    this.mapPredicates.put( prop, ResourceNode.resolveProperty(theContext, prop) );
+                }
+            }
+        }
+        for (Node theNode : this.listNodes) {
+            List<RDFNode> listConstants = null;
+            if (theNode instanceof ConstantResourceNode) {
+                listConstants = ( (ConstantResourceNode) theNode ).createRowResources( theContext, new RecordModel() );
+            }
+            else if (theNode instanceof ConstantLiteralNode) {
+                listConstants = ( (ConstantLiteralNode) theNode ).createRowLiterals( theContext, new RecordModel() );
+            }
+            else {
+                continue;
+            }
+            if (listConstants != null) {
+                listConstants = Collections.unmodifiableList(listConstants);
+            }
+            // NOTE: A null list records a constant that did not resolve.
+            this.mapConstants.put(theNode, listConstants);
+        }
+    }
+
+    static private Map<String, String> buildNamespaces(RDFTransform theTransform) {
+        Map<String, String> mapPrefixes = new LinkedHashMap<String, String>();
+        String strBaseIRI = theTransform.getBaseIRIAsString();
+        List<Vocabulary> listVocabs = new ArrayList<Vocabulary>();
+        if (theTransform.getNamespaces() != null) {
+            listVocabs.addAll( theTransform.getNamespaces() );
+        }
+
+        // Check for the BaseIRI (default namespace) in the Prefixed Namespaces...
+        boolean bUseBaseIRI = true; // ...default: use the BaseIRI
+        for (Vocabulary vocab : listVocabs) {
+            // If the BaseIRI is in the Prefixed Namespace...
+            if ( vocab.getNamespace().equals(strBaseIRI) ) {
+                bUseBaseIRI = false; // ...don't use the BaseIRI!
+                break;
+            }
+        }
+
+        // Set Default Namespace...
+        if ( bUseBaseIRI && ! ( strBaseIRI == null || strBaseIRI.isEmpty() ) ) {
+            if ( Util.isDebugMode() ) TransformPlan.logger.info("DEBUG: Using BaseIRI " + strBaseIRI);
+            mapPrefixes.put("", strBaseIRI); // ...default namespace
+        }
+        else {
+            if ( Util.isDebugMode() ) TransformPlan.logger.info("DEBUG: Not using BaseIRI");
+        }
+
+        // Set Prefix Namespaces...
+        for (Vocabulary vocab : listVocabs) {
+            mapPrefixes.put( vocab.getPrefix(), vocab.getNamespace() );
+        }
+        return mapPrefixes;
+    }
+
+    private void addNode(Node theNode, List<Node> listTableNodes, List<String> listColumns) {
+        if (theNode == null) {
+            return;
+        }
+        listTableNodes.add(theNode);
+
+        // Assign the cell node's column slot...
+        if (theNode instanceof CellNode) {
+            String strColumnName = ( (CellNode) theNode ).getColumnName();
+            int iSlot = -1;
+            if ( ! ( strColumnName == null || strColumnName.isEmpty() ) ) {
+                iSlot = listColumns.indexOf(strColumnName);
+                if (iSlot < 0) {
+                    iSlot = listColumns.size();
+                    listColumns.add(strColumnName);
+                }
+            }
+            this.mapColumnSlots.put(theNode, iSlot);
+        }
+
+        if (theNode instanceof ResourceNode) {
+            for ( Property prop : ( (ResourceNode) theNode ).getProperties() ) {
+                this.addNode(prop.getObject(), listTableNodes, listColumns);
+            }
+        }
+    }
+
+    /*
+     * Method checkCellBound()
+     *
+     *  A plan is cell bound when no node evaluates an expression other than the plain cell
+     *  value.  Then, a row's statements depend only on the row's column slot cells (and the
+     *  row index).  Otherwise, an expression may read any cell, row, or record.
+     */
+    static private boolean checkCellBound(List<Node> listTableNodes) {
+        for (Node theNode : listTableNodes) {
+            if ( ! TransformPlan.isPlainExpression(theNode) ) {
+                return false;
+            }
+            if ( theNode instanceof LiteralNode && ! TransformPlan.isPlainExpression( ( (LiteralNode) theNode ).nodeDatatype ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static private boolean isPlainExpression(Node theNode) {
+        return ( theNode == null || theNode.strExpression == null || theNode.strExpression.equals(Util.gstrCodeValue) );
+    }
+
+    public long getRevision() {
+        return this.lRevision;
+    }
+
+    public IRI getBaseIRI() {
+        return this.baseIRI;
+    }
+
+    /*
+     * Method getNamespaces()
+     *
+     *  Get the prefix to namespace map.  The default namespace has the "" prefix.
+     */
+    public Map<String, String> getNamespaces() {
+        return this.mapNamespaces;
+    }
+
+    public List<ResourceNode> getRoots() {
+        return this.listRoots;
+    }
+
+    /*
+     * Method getGraph()
+     *
+     *  Get the graph node naming the graph of the statements.  Returns null for the default
+     *  graph.
+     */
+    public ResourceNode getGraph() {
+        return this.nodeGraph;
+    }
+
+    /*
+     * Method getNodes()
+     *
+     *  Get the node table: every node in the transform tree in depth first order.
+     */
+    public List<Node> getNodes() {
+        return this.listNodes;
+    }
+
+    /*
+     * Method getColumnNames()
+     *
+     *  Get the distinct column names used by the cell nodes.  The list index of each column
+     *  name is its column slot.
+     */
+    public List<String> getColumnNames() {
+        return this.listColumnNames;
+    }
+
+    /*
+     * Method getColumnSlot()
+     *
+     *  Get the cell node's column slot: the index of its column name in getColumnNames().
+     *  Returns -1 for a node without a column name or not in the plan.
+     */
+    public int getColumnSlot(Node theNode) {
+        Integer iSlot = this.mapColumnSlots.get(theNode);
+        return ( iSlot == null ? -1 : iSlot );
+    }
+
+    /*
+     * Method isCellBound()
+     *
+     *  Get whether the statements for a row depend only on the cells in the column slots.
+     *  See checkCellBound().
+     */
+    public boolean isCellBound() {
+        return this.bCellBound;
+    }
+
+    public RDFDatatype getDatatype(LiteralNode theNode) {
+        return this.mapDatatypes.get(theNode);
+    }
+
+    public boolean hasConstants(Node theNode) {
+        return this.mapConstants.containsKey(theNode);
+    }
+
+    /*
+     * Method getConstants()
+     *
+     *  Get the resolved RDF nodes for a constant node.  Returns null for a constant that
+     *  did not resolve.  The returned list is shared and cannot be modified.
+     */
+    public List<RDFNode> getConstants(Node theNode) {
+        return this.mapConstants.get(theNode);
+    }
+
+    /*
+     * Method getTypes()
+     *
+     *  Get the resolved rdf:type resources for a resource node.  The returned list is shared
+     *  and cannot be modified.
+     */
+    public List<Resource> getTypes(ResourceNode theNode) {
+        return this.mapTypes.get(theNode);
+    }
+
+    public boolean hasPredicate(Property theProperty) {
+        return this.mapPredicates.containsKey(theProperty);
+    }
+
+    /*
+     * Method getPredicate()
+     *
+     *  Get the resolved predicate for a property.  Returns null for a property that did not
+     *  resolve.
+     */
+    public org.apache.jena.rdf.model.Property getPredicate(Property theProperty) {
+        return this.mapPredicates.get(theProperty);
+    }
+
+    /*
+     * Method createModel()
+     *
+     *  Create a model holding the plan's namespace prefixes.
+     */
+    public Model createModel() {
+        Model theModel = ModelFactory.createDefaultModel();
+        theModel.clearNsPrefixMap();
+        theModel.enterCriticalSection(Model.WRITE);
+        theModel.setNsPrefixes(this.mapNamespaces);
+        theModel.leaveCriticalSection();
+        theModel.lock();
+        return theModel;
+    }
+}
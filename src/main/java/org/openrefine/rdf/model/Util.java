@@ -21,27 +21,30 @@
 package org.openrefine.rdf.model;
 
 import com.google.refine.expr.Evaluable;
-import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
-import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
-import com.google.refine.model.Row;
 import com.google.refine.preference.PreferenceStore;
 import com.google.refine.ProjectManager;
 
 import org.apache.jena.iri.IRI;
 import org.apache.jena.iri.IRIFactory;
-import org.apache.jena.iri.IRIException;
+import org.apache.jena.iri.Violation;
 import org.apache.jena.irix.SetupJenaIRI;
 
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.IRIResolver;
+import org.openrefine.rdf.model.utils.LRUCache;
+import org.openrefine.rdf.model.utils.TermDictionary;
+
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,11 +63,32 @@ public class Util {
         EXPRESSION
     }
 
+    /*
+     * Enum IRICheck
+     *
+     *  The result codes of the exception-free IRI check.  See checkIRI().
+     */
+    static public enum IRICheck {
+        VALID,      // ...an IRI (absolute or relative)
+        EMPTY,      // ...no IRI: null or empty
+        MALFORMED   // ...not an IRI: the IRI checker reports an error
+    }
+
     static public final IRIFactory iriFactory = SetupJenaIRI.iriCheckerFactory();
 
     static public final String WHITESPACE = "\uC2A0\\p{C}\\p{Z}";
     //static public final String WHITESPACE = "\\p{Cc}\\p{Co}\\p{Cn}\\p{Z}";
 
+    //
+    // Precompiled Patterns...
+    //      The patterns for the expressions given to replaceAll() and replaceFirst() are
+    //      compiled once and cached by expression.  The WHITESPACE helpers scan the code
+    //      points instead.  See isWhitespace().
+    //
+    static private final int iPatternCacheSize = 64;
+    static private final LRUCache<String, Pattern> cachePatterns =
+        new LRUCache<String, Pattern>(Util.iPatternCacheSize);
+
     // RDF Transform JSON Strings
     // --------------------------------------------------------------------------------
     static public final String gstrProject = "project";
@@ -73,6 +97,7 @@ public class Util {
     static public final String gstrBaseIRI = "baseIRI";
     static public final String gstrNamespaces = "namespaces";
     static public final String gstrSubjectMappings = "subjectMappings";
+    static public final String gstrGraphMapping = "graphMapping";
     static public final String gstrTypeMappings = "typeMappings";
     static public final String gstrPropertyMappings = "propertyMappings";
     static public final String gstrObjectMappings = "objectMappings";
@@ -174,6 +199,24 @@ public class Util {
 
     static private final Logger logger = LoggerFactory.getLogger("RDFT:Util" );
 
+    //
+    // Compiled Expression Cache...
+    //
+    //      Expressions are parsed once into an Evaluable and reused for every cell of every
+    //      row on every export and preview.  The cache is keyed by the expression text.
+    //
+    static private final int iExpressionCacheSize = 256;
+    static private final LRUCache<String, Evaluable> cacheExpressions =
+        new LRUCache<String, Evaluable>(Util.iExpressionCacheSize);
+
+    //
+    // Term Dictionary...
+    //      Generated resources and literals are interned so repeated values share one term
+    //      (and Node) instance instead of one per row.  See TermDictionary.
+    //
+    static private final int iTermDictionarySize = 65536;
+    static private final TermDictionary dictTerms = new TermDictionary(Util.iTermDictionarySize);
+
     //
     // Preference Setting Defaults...
     //      See setPreferencesByPreferenceStore() for preferences settable by OpenRefine.
@@ -183,6 +226,19 @@ public class Util {
             // Settable by OpenRefine Preferences...
             put("iVerbosity", 0);
             put("iExportLimit", 10737418);
+            put("iExportThreads", 1);
+            put("bExportOrdered", true);
+            put("iFlushSize", 10000);
+            put("iFlushCount", 1000);
+            put("iFlushTime", 1000);
+            put("iSortRunSize", 0);
+            put("bExportSpill", false);
+            put("iBinaryBufferSize", 1048576);
+            put("bBinaryPrefixes", true);
+            put("iCompressThreads", 1);
+            put("iShardCount", 4);
+            put("bShardBySubject", false);
+            put("strShardDirectory", "");
             put("bPreviewStream", false);
             put("bDebugMode", false);
             put("bDebugJSON", false);
@@ -201,12 +257,39 @@ public class Util {
         }
     }
 
+    /*
+     * Method resolveIRI()
+     *
+     *  Resolve the IRI as an absolute IRI or a relative IRI on the base IRI.  The common http(s)
+     *  IRIs and simple local names are resolved by the fast path (see IRIResolver).  Otherwise,
+     *  the IRI is resolved by the IRI checker.  A bad IRI is reported by an IRIParsingException.
+     */
     static public String resolveIRI(IRI baseIRI, String strIRI) throws IRIParsingException {
-        String strResolveIRI = "resolveIRI: ";
-        String strError = "ERROR: " + strResolveIRI;
+        return Util.resolveIRI(baseIRI, strIRI, true);
+    }
+
+    /*
+     * Method findResolvedIRI()
+     *
+     *  Resolve the IRI as resolveIRI() without exceptions.  Returns null for no IRI or a bad IRI.
+     *  For the hot paths where a bad IRI is expected data.
+     */
+    static public String findResolvedIRI(IRI baseIRI, String strIRI) {
+        try {
+            return Util.resolveIRI(baseIRI, strIRI, false);
+        }
+        catch (IRIParsingException ex) {
+            return null; // ...never thrown
+        }
+    }
+
+    static private String resolveIRI(IRI baseIRI, String strIRI, boolean bThrow) throws IRIParsingException {
+        // NOTE: Constant strings, so no concatenation on each call...
+        final String strResolveIRI = "resolveIRI: ";
+        final String strError = "ERROR: " + strResolveIRI;
+        final String strDEBUG = "DEBUG: " + strResolveIRI;
         String strErrMsg = null;
         String strAbsoluteIRI = null;
-        String strDEBUG = "DEBUG: " + strResolveIRI;
 
         // No IRI is not a problem (there is just nothing to resolve)...
         if (strIRI == null || strIRI.length() == 0) {
@@ -214,40 +297,38 @@ public class Util {
             return strAbsoluteIRI;
         }
 
-        // Create Absolute IRI without Base IRI...
-        try {
-            IRI absoluteIRI = Util.iriFactory.construct(strIRI);
-            if ( absoluteIRI.isAbsolute() ) {
-                strAbsoluteIRI = absoluteIRI.toString();
-            }
+        // Resolve the common IRIs without the IRI checker...
+        strAbsoluteIRI = IRIResolver.resolve( ( baseIRI == null ? null : baseIRI.toString() ), strIRI );
+        if (strAbsoluteIRI != null) {
+            if ( Util.isDebugMode() ) Util.logger.info(strDEBUG + strAbsoluteIRI);
+            return strAbsoluteIRI;
         }
-        catch (IRIException ex) {
-            strErrMsg = ex.getMessage();
+
+        // Create Absolute IRI without Base IRI...
+        IRI absoluteIRI = Util.iriFactory.create(strIRI);
+        if ( absoluteIRI.hasViolation(false) ) {
+            strErrMsg = Util.getViolation(absoluteIRI);
             // ...continue in case we can resolve as a Relative IRI...
         }
+        else if ( absoluteIRI.isAbsolute() ) {
+            strAbsoluteIRI = absoluteIRI.toString();
+        }
 
         // Not an Absolute IRI?
         if (strAbsoluteIRI == null && baseIRI != null) {
             // Create Absolute IRI with Relative IRI using Base IRI...
-            try {
-                strAbsoluteIRI = baseIRI.construct(strIRI).toString();
+            IRI resolvedIRI = baseIRI.create(strIRI);
+            // ...on a violation, continue in case it needs a little adjusting...
+            if ( resolvedIRI.hasViolation(false) && ! strIRI.startsWith("/") ) {
+                // Create Absolute IRI with adjusted Relative IRI using Base IRI...
+                strErrMsg = Util.getViolation(resolvedIRI);
+                resolvedIRI = baseIRI.create("/" + strIRI);
             }
-            catch (IRIException ex) {
-                strErrMsg = ex.getMessage();
-                // ...continue in case it needs a little adjusting...
+            if ( resolvedIRI.hasViolation(false) ) {
+                strErrMsg = Util.getViolation(resolvedIRI);
             }
-
-            // Create Absolute IRI with adjusted Relative IRI using Base IRI...
-            if (strAbsoluteIRI == null)
-            {
-                try {
-                    if ( ! strIRI.startsWith("/") ) {
-                        strAbsoluteIRI = baseIRI.construct("/" + strIRI).toString();
-                    }
-                }
-                catch (Exception ex) {
-                    strErrMsg = ex.getMessage();
-                }
+            else {
+                strAbsoluteIRI = resolvedIRI.toString();
             }
         }
 
@@ -262,13 +343,29 @@ public class Util {
         }
 
         if (strAbsoluteIRI == null && strErrMsg != null) {
-            Util.logger.error(strError + "Malformed IRI [" + strIRI + "] : " + strErrMsg);
-            throw new Util.IRIParsingException(strResolveIRI + strErrMsg);
+            if (bThrow) {
+                Util.logger.error(strError + "Malformed IRI [" + strIRI + "] : " + strErrMsg);
+                throw new Util.IRIParsingException(strResolveIRI + strErrMsg);
+            }
+            if ( Util.isVerbose(2) ) Util.logger.warn(strError + "Malformed IRI [" + strIRI + "] : " + strErrMsg);
         }
 
         return strAbsoluteIRI;
     }
 
+    /*
+     * Method getViolation()
+     *
+     *  Get the message for the first error violation of an IRI created by the IRI checker.
+     */
+    static private String getViolation(IRI theIRI) {
+        Iterator<Violation> iterViolations = theIRI.violations(false);
+        if ( iterViolations.hasNext() ) {
+            return iterViolations.next().getShortMessage();
+        }
+        return "Unknown violation";
+    }
+
     static public int findLocalPartIndex(String strIRI) {
         if ( strIRI == null || strIRI.isEmpty() ) {
             return -1;
@@ -350,7 +447,7 @@ public class Util {
         //    iIndex + 1 = the length of strQuery to the ':' inclusive
         //    Is there anything after...
         if (strIRI.length() > iIndex + 1) {
-            IRI tempIRI = Util.buildIRI(strIRI, true);
+            IRI tempIRI = Util.parseIRI(strIRI);
             if (tempIRI == null) { // ...a BAD IRI?...
                 return -2;
             }
@@ -367,7 +464,7 @@ public class Util {
         }
         // Otherwise, we have a string like "ccc:", so treat it as a possible prefix...
         // If the string contains no whitespace...
-        else if ( strIRI.length() == Util.removeAllWhitespace(strIRI).length() ) {
+        else if ( ! Util.hasWhitespace(strIRI) ) {
             return iIndex; // ...accept it
         }
         // Otherwise, not a valid IRI string, so don't accept...
@@ -408,84 +505,94 @@ public class Util {
     }
 
     static public IRI buildIRI(String strIRI, boolean bTest) {
-        String strHeader = (bTest ? "TEST: " : "ERROR: ") + "buildIRI(): ";
-
         if (strIRI == null) {
-            if ( Util.isVerbose() || Util.isDebugMode()) Util.logger.error(strHeader + "Null IRI");
+            if ( Util.isVerbose() || Util.isDebugMode()) {
+                Util.logger.error( (bTest ? "TEST: " : "ERROR: ") + "buildIRI(): Null IRI" );
+            }
             return null;
         }
 
-        IRI iriNew = null;
-        try {
-            iriNew = Util.iriFactory.construct(strIRI);
-        }
-        catch (Exception ex) {
-            if ( Util.isVerbose() || Util.isDebugMode()) Util.logger.error(strHeader + "Malformed IRI <" + strIRI + ">", ex);
+        IRI iriNew = Util.iriFactory.create(strIRI);
+        if ( iriNew.hasViolation(false) ) {
+            if ( Util.isVerbose() || Util.isDebugMode()) {
+                Util.logger.error( (bTest ? "TEST: " : "ERROR: ") + "buildIRI(): " +
+                    "Malformed IRI <" + strIRI + "> : " + Util.getViolation(iriNew) );
+            }
+            iriNew = null;
         }
 
         return iriNew;
     }
 
-    static public Object evaluateExpression(Project theProject, String strExpression, String strColumnName, int iRowIndex)
-            throws ParsingException {
-        //
-        // Evaluate the expression on the cell and return results...
-        //   NOTE: Here is where we tie the RDF Transform model to the data.
-        //
-        if ( Util.isDebugMode() ) {
-            Util.logger.info("DEBUG: evaluateExpression: " +
-                                "Exp: [" + strExpression + "] " +
-                                "Col: [" + strColumnName + "] " +
-                                "Row: [" + iRowIndex     + "]");
+    /*
+     * Method checkIRI()
+     *
+     *  Check an IRI (absolute or relative) without exceptions or logging.  The common http(s)
+     *  IRIs and simple local names are checked by the fast path (see IRIResolver).
+     */
+    static public IRICheck checkIRI(String strIRI) {
+        if ( strIRI == null || strIRI.isEmpty() ) {
+            return IRICheck.EMPTY;
         }
-
-        //
-        if ( strExpression == null ) {
-            return null;
+        if ( IRIResolver.isAbsolute(strIRI) || IRIResolver.isLocalName(strIRI) ) {
+            return IRICheck.VALID;
         }
+        return ( Util.iriFactory.create(strIRI).hasViolation(false) ? IRICheck.MALFORMED : IRICheck.VALID );
+    }
 
-        // Select the column reference (er, cell index) by given name...
-        int theColumn = -1;
-        // If a regular column (not a row/record index column)...
-        if ( ! ( strColumnName == null || strColumnName.isEmpty() ) ) {
-            try {
-                theColumn = theProject.columnModel.getColumnByName(strColumnName).getCellIndex();
-            }
-            catch (ClassCastException | NullPointerException ex) {
-                // Let it be -1...continue...
-            }
+    /*
+     * Method parseIRI()
+     *
+     *  Parse an IRI (absolute or relative) without exceptions or logging.  Returns null for no
+     *  IRI or a malformed IRI.  See buildIRI() to report a malformed IRI.
+     */
+    static public IRI parseIRI(String strIRI) {
+        if ( strIRI == null || strIRI.isEmpty() ) {
+            return null;
         }
+        IRI iriNew = Util.iriFactory.create(strIRI);
+        return ( iriNew.hasViolation(false) ? null : iriNew );
+    }
 
-        // Select the row by given row index...
-        Row theRow = null;
-        try {
-            theRow = theProject.rows.get(iRowIndex);
-        }
-        catch (IndexOutOfBoundsException ex) {
-            // Let it be null...continue...
-        }
+    /*
+     * Method evaluateExpression()
+     *
+     *  Evaluate a single expression on a project cell.  The expression bindings are created
+     *  for this one evaluation.  When evaluating many cells, use an EvaluationContext to
+     *  create the bindings once and reuse them.
+     */
+    static public Object evaluateExpression(Project theProject, String strExpression, String strColumnName, int iRowIndex)
+            throws ParsingException {
+        return new EvaluationContext(theProject).evaluateExpression(strExpression, strColumnName, iRowIndex);
+    }
 
-        // Select the data cell by row and column...
-        Cell theCell = null;
-        if (theColumn >= 0 && theRow != null) { // ...for a valid column and row...
-            theCell = theRow.getCell(theColumn); // ...get the cell
-        }
-        // Otherwise, create a pseudo-cell...
-        else {
-            theCell = new Cell(iRowIndex, null);
+    /*
+     * Method getEvaluable()
+     *
+     *  Get the compiled Evaluable for the expression from the expression cache.  On a cache
+     *  miss, the expression is parsed and cached.  Expressions that fail to parse are not
+     *  cached, so the ParsingException is reported on each use.
+     */
+    static public Evaluable getEvaluable(String strExpression)
+            throws ParsingException {
+        Evaluable eval = Util.cacheExpressions.get(strExpression);
+        if (eval == null) {
+            eval = MetaParser.parse(strExpression);
+            Util.cacheExpressions.put(strExpression, eval);
         }
+        return eval;
+    }
 
-        // Create a bindings property for this expression...
-        Properties bindings = ExpressionUtils.createBindings(theProject);
-
-        // Bind the cell for expression evaluation...
-        ExpressionUtils.bind(bindings, theRow, iRowIndex, strColumnName, theCell);
+    static public String getExpressionCacheStats() {
+        return "Expression Cache: " + Util.cacheExpressions.toString();
+    }
 
-        // Create an evaluator for this expression...
-        Evaluable eval = MetaParser.parse(strExpression);
+    static public TermDictionary getTermDictionary() {
+        return Util.dictTerms;
+    }
 
-        // Evaluate the expression on the cell for results...
-        return eval.evaluate(bindings);
+    static public String getTermDictionaryStats() {
+        return "Term Dictionary: " + Util.dictTerms.toString();
     }
 
     static public boolean isVerbose() {
@@ -504,6 +611,108 @@ public class Util {
         return (int) Util.Preferences.get("iExportLimit");
     }
 
+    //
+    // Export Threads:
+    //
+    // The number of threads used to generate statements for a stream export.
+    // NOTE: When set to 1 (or less), export serially on the request thread.
+    //
+    static public int getExportThreads() {
+        int iExportThreads = (int) Util.Preferences.get("iExportThreads");
+        return ( iExportThreads < 1 ? 1 : iExportThreads );
+    }
+
+    static public boolean isExportOrdered() {
+        return (boolean) Util.Preferences.get("bExportOrdered");
+    }
+    // ...end Export Threads
+
+    //
+    // Export Flush:
+    //
+    // The triggers for writing a batch of streamed statements to the export writer.
+    // A batch is written when it holds iFlushSize statements, when iFlushCount rows or
+    // records have been added, or when iFlushTime milliseconds have passed since the last
+    // write.  A trigger is disabled when set to 0 (or less).
+    //
+    static public int getFlushSize() {
+        return (int) Util.Preferences.get("iFlushSize");
+    }
+
+    static public int getFlushCount() {
+        return (int) Util.Preferences.get("iFlushCount");
+    }
+
+    static public int getFlushTime() {
+        return (int) Util.Preferences.get("iFlushTime");
+    }
+    // ...end Export Flush
+
+    //
+    // Export Sort Run Size:
+    //
+    // The number of statements held in memory for each sorted run of a bounded memory
+    // pretty Turtle export.  When set to 0 (or less), pretty exports build the whole
+    // graph in memory.
+    //
+    static public int getSortRunSize() {
+        return (int) Util.Preferences.get("iSortRunSize");
+    }
+
+    //
+    // Export Spill:
+    //
+    // When set, a pretty export moves its graph to a disk backed spill graph once the
+    // export limit is reached.  See SpillGraph.
+    //
+    static public boolean isExportSpill() {
+        return (boolean) Util.Preferences.get("bExportSpill");
+    }
+
+    //
+    // Binary Export:
+    //
+    // The output buffer size (bytes) of a binary (RDF Thrift, RDF Protobuf) export and whether
+    // binary terms are compressed by the transform's prefixes.  See RDFBinaryExporter.
+    //
+    static public int getBinaryBufferSize() {
+        int iSize = (int) Util.Preferences.get("iBinaryBufferSize");
+        return ( iSize > 0 ? iSize : 8192 );
+    }
+
+    static public boolean isBinaryPrefixes() {
+        return (boolean) Util.Preferences.get("bBinaryPrefixes");
+    }
+
+    //
+    // Compress Threads:
+    //
+    // The number of threads compressing a gzip export.  When set to 1 (or less), a gzip export
+    // is compressed on the exporting thread.  See RDFCompressedExporter.
+    //
+    static public int getCompressThreads() {
+        return (int) Util.Preferences.get("iCompressThreads");
+    }
+
+    //
+    // Sharded Export:
+    //
+    // The number of shard files of a sharded export, whether the statements are split by
+    // subject hash (or by row range), and the server directory for the shards (or "" to
+    // deliver the shards in the export archive).  See RDFShardedExporter.
+    //
+    static public int getShardCount() {
+        return (int) Util.Preferences.get("iShardCount");
+    }
+
+    static public boolean isShardBySubject() {
+        return (boolean) Util.Preferences.get("bShardBySubject");
+    }
+
+    static public String getShardDirectory() {
+        return (String) Util.Preferences.get("strShardDirectory");
+    }
+
     //
     // Preview Stream:
     //
@@ -628,6 +837,195 @@ public class Util {
             }
         }
 
+        //
+        // Set Export Threads...
+        //
+        // The Export Threads (iExportThreads) is used to manage the number of threads that
+        // generate statements for a stream export.  A value of 1 exports serially.  A value
+        // of 0 uses one thread per available processor.
+        //
+        obj = prefStore.get("RDFTransform.exportThreads");
+        if (obj != null) {
+            try {
+                int iExportThreads = Integer.parseInt( obj.toString() );
+                if (iExportThreads == 0) {
+                    iExportThreads = Runtime.getRuntime().availableProcessors();
+                }
+                Util.Preferences.put("iExportThreads", iExportThreads);
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+
+        //
+        // Set Export Ordered...
+        //
+        // The Export Ordered (bExportOrdered) is used to manage the statement order for a
+        // threaded stream export.  When true, statements are written in row / record order
+        // for deterministic output.  When false, statements are written as they complete.
+        //
+        obj = prefStore.get("RDFTransform.exportOrdered");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("bExportOrdered", Boolean.parseBoolean( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+
+        //
+        // Set Export Flush...
+        //
+        // The Export Flush Size (iFlushSize), Count (iFlushCount), and Time (iFlushTime) are
+        // used to manage the batches of statements written by a stream export.  A batch is
+        // written when it holds the flush size in statements, when the flush count of rows or
+        // records have been added to it, or when the flush time in milliseconds has passed
+        // since the last batch.  Large batches give the writer long contiguous runs of
+        // statements.  A value of 0 disables the trigger.
+        //
+        obj = prefStore.get("RDFTransform.exportFlushSize");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("iFlushSize", Integer.parseInt( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+        obj = prefStore.get("RDFTransform.exportFlushCount");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("iFlushCount", Integer.parseInt( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+        obj = prefStore.get("RDFTransform.exportFlushTime");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("iFlushTime", Integer.parseInt( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+
+        //
+        // Set Export Sort Run Size...
+        //
+        // The Export Sort Run Size (iSortRunSize) is used to manage the memory of a pretty
+        // Turtle export.  When set, the statements are sorted by subject in runs of this
+        // many statements, spilled to temporary files, and merged to write subject grouped
+        // Turtle.  Then, the whole graph is never held in memory.  A value of 0 builds the
+        // whole graph in memory for the prettiest output.
+        //
+        obj = prefStore.get("RDFTransform.exportSortRunSize");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("iSortRunSize", Integer.parseInt( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+
+        //
+        // Set Export Spill...
+        //
+        // The Export Spill (bExportSpill) is used to manage the memory of a pretty export in
+        // any format.  When set and the model reaches the Export Limit, the statements are
+        // moved to a graph of dictionary encoded terms and memory mapped triple indexes held
+        // in temporary files.  Otherwise, the whole graph is held in memory.
+        //
+        obj = prefStore.get("RDFTransform.exportSpill");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("bExportSpill", Boolean.parseBoolean( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+
+        //
+        // Set Binary Export...
+        //
+        // The Binary Buffer Size (iBinaryBufferSize) is the output buffer size in bytes of a binary
+        // export.  Larger buffers write the output in fewer, larger blocks.  The Binary Prefixes
+        // (bBinaryPrefixes) setting declares the transform's prefixes in a binary export so IRIs
+        // are written as prefix names.
+        //
+        obj = prefStore.get("RDFTransform.exportBinaryBufferSize");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("iBinaryBufferSize", Integer.parseInt( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+        obj = prefStore.get("RDFTransform.exportBinaryPrefixes");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("bBinaryPrefixes", Boolean.parseBoolean( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+
+        //
+        // Set Compress Threads...
+        //
+        // The Compress Threads (iCompressThreads) is the number of threads compressing a gzip
+        // export.  When set to more than 1, the output is compressed in parallel blocks written
+        // as concatenated gzip members.
+        //
+        obj = prefStore.get("RDFTransform.exportCompressThreads");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("iCompressThreads", Integer.parseInt( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+
+        //
+        // Set Sharded Export...
+        //
+        // The Shard Count (iShardCount) is the number of shard files of a sharded export, each
+        // written by its own worker.  The Shard By Subject (bShardBySubject) setting splits the
+        // statements by subject hash instead of by row range.  The Shard Directory
+        // (strShardDirectory) is a server directory for the shards.  When empty, the shards are
+        // delivered in the export archive.
+        //
+        obj = prefStore.get("RDFTransform.exportShardCount");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("iShardCount", Integer.parseInt( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+        obj = prefStore.get("RDFTransform.exportShardBySubject");
+        if (obj != null) {
+            try {
+                Util.Preferences.put("bShardBySubject", Boolean.parseBoolean( obj.toString() ) );
+            }
+            catch (Exception ex) {
+                // No problem: take default and continue...
+            }
+        }
+        obj = prefStore.get("RDFTransform.exportShardDirectory");
+        if (obj != null) {
+            Util.Preferences.put( "strShardDirectory", obj.toString().strip() );
+        }
+
         //
         // Set Preview Stream Mode...
         //
@@ -677,34 +1075,142 @@ public class Util {
         }
     }
 
+    /*
+     * Method getPattern()
+     *
+     *  Get the compiled pattern for the regular expression from the pattern cache.
+     */
+    static public Pattern getPattern(String strRegEx) {
+        Pattern thePattern = Util.cachePatterns.get(strRegEx);
+        if (thePattern == null) {
+            thePattern = Pattern.compile(strRegEx);
+            Util.cachePatterns.put(strRegEx, thePattern);
+        }
+        return thePattern;
+    }
+
     static public String replaceAll(String strUTF16, String strRegEx, String strReplace) {
+        return Util.replaceAll(strUTF16, Util.getPattern(strRegEx), strReplace);
+    }
+
+    static public String replaceAll(String strUTF16, Pattern thePattern, String strReplace) {
         //String strUTF8 = new String( strUTF16.getBytes(StandardCharsets.UTF_16), StandardCharsets.UTF_8);
         //strUTF8 = strUTF8.replaceAll(strRegEx, strReplace);
         //strUTF16 = new String( strUTF8.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_16);
-        strUTF16 = strUTF16.replaceAll(strRegEx, strReplace);
-        return strUTF16;
+        return thePattern.matcher(strUTF16).replaceAll(strReplace);
     }
 
     static public String replaceFirst(String strUTF16, String strRegEx, String strReplace) {
+        return Util.replaceFirst(strUTF16, Util.getPattern(strRegEx), strReplace);
+    }
+
+    static public String replaceFirst(String strUTF16, Pattern thePattern, String strReplace) {
         //String strUTF8 = new String( strUTF16.getBytes(StandardCharsets.UTF_16), StandardCharsets.UTF_8);
         //strUTF8 = strUTF8.replaceFirst(strRegEx, strReplace);
         //strUTF16 = new String( strUTF8.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_16);
-        strUTF16 = strUTF16.replaceFirst(strRegEx, strReplace);
-        return strUTF16;
+        return thePattern.matcher(strUTF16).replaceFirst(strReplace);
+    }
+
+    /*
+     * Method isWhitespace()
+     *
+     *  Test a code point against the WHITESPACE class: U+C2A0, Other (C), or Separator (Z).
+     *  Matches the WHITESPACE patterns, which also test the code point's general category.
+     */
+    static public boolean isWhitespace(int iCodePoint) {
+        if (iCodePoint == 0xC2A0) {
+            return true;
+        }
+        switch ( Character.getType(iCodePoint) ) {
+            case Character.CONTROL:
+            case Character.FORMAT:
+            case Character.SURROGATE:
+            case Character.PRIVATE_USE:
+            case Character.UNASSIGNED:
+            case Character.SPACE_SEPARATOR:
+            case Character.LINE_SEPARATOR:
+            case Character.PARAGRAPH_SEPARATOR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /*
+     * Method indexOfWhitespace()
+     *
+     *  Get the index of the first WHITESPACE code point.  Returns -1 when there is none.
+     */
+    static public int indexOfWhitespace(String strUTF16) {
+        int iLength = strUTF16.length();
+        int iIndex = 0;
+        while (iIndex < iLength) {
+            char c = strUTF16.charAt(iIndex);
+            // Printable ASCII is not WHITESPACE...
+            if (c > ' ' && c < 0x7F) {
+                iIndex++;
+                continue;
+            }
+            int iCodePoint = strUTF16.codePointAt(iIndex);
+            if ( Util.isWhitespace(iCodePoint) ) {
+                return iIndex;
+            }
+            iIndex += Character.charCount(iCodePoint);
+        }
+        return -1;
+    }
+
+    static public boolean hasWhitespace(String strUTF16) {
+        return ( Util.indexOfWhitespace(strUTF16) >= 0 );
     }
 
+    /*
+     * Method removeAllWhitespace()
+     *
+     *  Remove each WHITESPACE code point.  A string without WHITESPACE is returned as is.
+     */
     static public String removeAllWhitespace(String strUTF16) {
-        return Util.replaceAll(strUTF16, "[" + Util.WHITESPACE + "]+", "");
+        return Util.replaceWhitespace(strUTF16, null);
     }
 
+    /*
+     * Method replaceAllWhitespace()
+     *
+     *  Replace each WHITESPACE code point with a space.  A string without WHITESPACE is
+     *  returned as is.
+     */
     static public String replaceAllWhitespace(String strUTF16) {
-        return Util.replaceAll(strUTF16, "[" + Util.WHITESPACE + "]", " ");
+        return Util.replaceWhitespace(strUTF16, " ");
+    }
+
+    static private String replaceWhitespace(String strUTF16, String strReplace) {
+        int iIndex = Util.indexOfWhitespace(strUTF16);
+        if (iIndex < 0) {
+            return strUTF16;
+        }
+        int iLength = strUTF16.length();
+        StringBuilder sbResult = new StringBuilder(iLength);
+        sbResult.append(strUTF16, 0, iIndex);
+        while (iIndex < iLength) {
+            int iCodePoint = strUTF16.codePointAt(iIndex);
+            if ( Util.isWhitespace(iCodePoint) ) {
+                if (strReplace != null) {
+                    sbResult.append(strReplace);
+                }
+            }
+            else {
+                sbResult.appendCodePoint(iCodePoint);
+            }
+            iIndex += Character.charCount(iCodePoint);
+        }
+        return sbResult.toString();
     }
 
     static public String toSpaceStrippedString(Object obj) {
         if (obj == null) {
             return null;
         }
+        // NOTE: strip() returns the string as is when there is nothing to strip...
         return Util.removeAllWhitespace( obj.toString() ).strip();
     }
 
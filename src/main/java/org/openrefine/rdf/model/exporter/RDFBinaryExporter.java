@@ -0,0 +1,103 @@
+/*
+ *  Class RDFBinaryExporter
+ *
+ *  An exporter used to transform OpenRefine project data to a binary RDF
+ *  stream (RDF Thrift or RDF Protobuf) through a large output buffer.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.exporter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.openrefine.rdf.model.Util;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.exporters.StreamExporter;
+import com.google.refine.model.Project;
+
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.riot.system.StreamRDFWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class RDFBinaryExporter
+ *
+ *  The binary exporter is the fast interchange path to RDF loaders.  It is a stream exporter that:
+ *    1. is only an OutputStream exporter--a binary stream cannot pass through a Writer without
+ *       corruption, so no WriterExporter is offered,
+ *    2. writes the encoded rows to a large output buffer (see Util.getBinaryBufferSize()) so the
+ *       servlet stream is written in large blocks instead of per row, and
+ *    3. optionally compresses terms by the transform's prefixes (see Util.isBinaryPrefixes()).
+ *       The Jena binary writers encode an IRI matching a declared prefix as a prefix name, so
+ *       repeated namespaces are written once.  When unset, the prefixes are not declared and
+ *       every IRI is written in full for loaders that ignore binary prefix names.
+ */
+public class RDFBinaryExporter extends RDFExporter implements StreamExporter {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:RDFBinaryExporter");
+
+    public RDFBinaryExporter(RDFFormat format, String strName) {
+        super(format, strName);
+    }
+
+    public void export(Project theProject, Properties options, Engine theEngine,
+                        OutputStream outputStream)
+            throws IOException {
+        if ( Util.isDebugMode() ) RDFBinaryExporter.logger.info("DEBUG: Exporting " + this.strName + " via OutputStream");
+
+        BufferedOutputStream theBuffer = new BufferedOutputStream( outputStream, Util.getBinaryBufferSize() );
+        StreamRDF theWriter = StreamRDFWriter.getWriterStream(theBuffer, this.format);
+        if (theWriter == null) {
+            String strMsg = "ERROR: The writer is invalid! Cannot construct export.";
+            RDFBinaryExporter.logger.error(strMsg);
+            throw new IOException(strMsg);
+        }
+        if ( ! Util.isBinaryPrefixes() ) {
+            // Drop the prefixes so no term is abbreviated...
+            theWriter =
+                new StreamRDFWrapper(theWriter) {
+                    @Override
+                    public void prefix(String strPrefix, String strIRI) {
+                        // Ignore
+                    }
+                };
+        }
+        if ( Util.isDebugMode() ) RDFBinaryExporter.logger.info("DEBUG:   Acquired writer: StreamRDFWriter (buffer " + Util.getBinaryBufferSize() + ").");
+
+        try {
+            if ( Util.isDebugMode() ) RDFBinaryExporter.logger.info("DEBUG:   Starting RDF Export...");
+            theWriter.start();
+
+            this.exportStream(theProject, theEngine, theWriter);
+
+            theWriter.finish();
+            theBuffer.flush();
+            if ( Util.isDebugMode() ) RDFBinaryExporter.logger.info("DEBUG:   ...Ended RDF Export " + this.strName);
+        }
+        catch (Exception ex) {
+            if ( Util.isDebugMode() ) RDFBinaryExporter.logger.error("DEBUG: Error exporting " + this.strName, ex);
+            if ( Util.isVerbose() || Util.isDebugMode() ) ex.printStackTrace();
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+}
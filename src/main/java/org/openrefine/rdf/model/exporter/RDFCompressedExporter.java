@@ -0,0 +1,159 @@
+/*
+ *  Class RDFCompressedExporter
+ *
+ *  An exporter used to transform OpenRefine project data to an RDF stream
+ *  compressed by gzip or bzip2 as it is written.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.exporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+
+import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.utils.ParallelGZIPOutputStream;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.exporters.StreamExporter;
+import com.google.refine.model.Project;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class RDFCompressedExporter
+ *
+ *  A stream exporter that compresses the output as it is written, so a large export crosses
+ *  the wire compressed without a temporary file.  The compressor is a stream filter between
+ *  the Jena stream writer and the servlet stream:
+ *    gzip: a single member gzip or, when Util.getCompressThreads() is more than 1, a block
+ *          parallel gzip of concatenated members (see ParallelGZIPOutputStream).  Both are read
+ *          by any gzip reader.
+ *    bzip2: a bzip2 stream.  Slower, but smaller.
+ *  The content type is the compression's content type.  The client names the file by the
+ *  format's extension and the compression's extension, e.g., "nt.gz".
+ *
+ *  The exporter is only an OutputStream exporter since compressed output is binary.
+ */
+public class RDFCompressedExporter extends RDFExporter implements StreamExporter {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:RDFCompressedExporter");
+
+    static public final String strGZIP = "gzip";
+    static public final String strBZIP2 = "bzip2";
+
+    // The compressor's input block size for parallel gzip...
+    static private final int iBlockSize = 1048576;
+
+    private final String strCompression;
+
+    public RDFCompressedExporter(RDFFormat format, String strName, String strCompression) {
+        super(format, strName);
+        this.strCompression = strCompression;
+    }
+
+    @Override
+    public String getContentType() {
+        if ( RDFCompressedExporter.strBZIP2.equals(this.strCompression) ) {
+            return "application/x-bzip2";
+        }
+        return "application/gzip";
+    }
+
+    public void export(Project theProject, Properties options, Engine theEngine,
+                        OutputStream outputStream)
+            throws IOException {
+        if ( Util.isDebugMode() ) RDFCompressedExporter.logger.info("DEBUG: Exporting " + this.strName + " via OutputStream (" + this.strCompression + ")");
+
+        OutputStream theCompressor = this.createCompressor(outputStream);
+        StreamRDF theWriter = StreamRDFWriter.getWriterStream(theCompressor, this.format);
+        if (theWriter == null) {
+            String strMsg = "ERROR: The writer is invalid! Cannot construct export.";
+            RDFCompressedExporter.logger.error(strMsg);
+            this.abortCompressor(theCompressor);
+            throw new IOException(strMsg);
+        }
+        if ( Util.isDebugMode() ) RDFCompressedExporter.logger.info("DEBUG:   Acquired writer: StreamRDFWriter.");
+
+        try {
+            if ( Util.isDebugMode() ) RDFCompressedExporter.logger.info("DEBUG:   Starting RDF Export...");
+            theWriter.start();
+
+            this.exportStream(theProject, theEngine, theWriter);
+
+            theWriter.finish();
+            this.finishCompressor(theCompressor);
+            if ( Util.isDebugMode() ) RDFCompressedExporter.logger.info("DEBUG:   ...Ended RDF Export " + this.strName);
+        }
+        catch (Exception ex) {
+            // Release the compressor threads without writing the partial output...
+            this.abortCompressor(theCompressor);
+            if ( Util.isDebugMode() ) RDFCompressedExporter.logger.error("DEBUG: Error exporting " + this.strName, ex);
+            if ( Util.isVerbose() || Util.isDebugMode() ) ex.printStackTrace();
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    private OutputStream createCompressor(OutputStream outputStream)
+            throws IOException {
+        if ( RDFCompressedExporter.strBZIP2.equals(this.strCompression) ) {
+            return new BZip2CompressorOutputStream(outputStream);
+        }
+        int iThreads = Util.getCompressThreads();
+        if (iThreads > 1) {
+            return new ParallelGZIPOutputStream(outputStream, iThreads, RDFCompressedExporter.iBlockSize);
+        }
+        return new GZIPOutputStream(outputStream, 65536);
+    }
+
+    /*
+     * Method finishCompressor()
+     *
+     *  Write the compressor's trailer without closing the servlet stream.
+     */
+    private void finishCompressor(OutputStream theCompressor)
+            throws IOException {
+        if (theCompressor instanceof BZip2CompressorOutputStream) {
+            ( (BZip2CompressorOutputStream) theCompressor ).finish();
+        }
+        else if (theCompressor instanceof ParallelGZIPOutputStream) {
+            ( (ParallelGZIPOutputStream) theCompressor ).finish();
+        }
+        else if (theCompressor instanceof GZIPOutputStream) {
+            ( (GZIPOutputStream) theCompressor ).finish();
+        }
+        theCompressor.flush();
+    }
+
+    /*
+     * Method abortCompressor()
+     *
+     *  Stop a parallel compressor on an error.  The other compressors hold no threads.
+     */
+    private void abortCompressor(OutputStream theCompressor) {
+        if (theCompressor instanceof ParallelGZIPOutputStream) {
+            ( (ParallelGZIPOutputStream) theCompressor ).abort();
+        }
+    }
+}
@@ -20,11 +20,21 @@
 
 package org.openrefine.rdf.model.exporter;
 
+import com.google.refine.browsing.Engine;
 import com.google.refine.exporters.Exporter;
+import com.google.refine.model.Project;
 
+import org.openrefine.rdf.RDFTransform;
 import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.operation.ExportRDFRecordVisitor;
+import org.openrefine.rdf.model.operation.ExportRDFRowVisitor;
+import org.openrefine.rdf.model.operation.ParallelRDFExport;
+import org.openrefine.rdf.model.operation.RDFVisitor;
+import org.openrefine.rdf.model.operation.SubjectGroupingStreamRDF;
+import org.openrefine.rdf.model.operation.TripleStreamRDF;
 
 import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,4 +59,47 @@ public class RDFExporter implements Exporter  {
             return RDFFormat.TURTLE_PRETTY.getLang().getContentType().getContentTypeStr();
         }
     }
+
+    /*
+     * Method exportStream()
+     *
+     *  Transform the project's filtered rows or records to statements on the given stream
+     *  writer.  The caller starts and finishes the writer.
+     *
+     *  For the block formats, the statements are grouped by subject within each batch so the
+     *  writer abbreviates them.  See SubjectGroupingStreamRDF.
+     *
+     *  For the triple formats, the named graph statements are written as triples.  See
+     *  TripleStreamRDF.
+     */
+    protected void exportStream(Project theProject, Engine theEngine, StreamRDF theStream)
+            throws Exception {
+        RDFTransform theTransform = RDFTransform.getRDFTransform(theProject);
+        StreamRDF theWriter = TripleStreamRDF.forFormat(theStream, this.format);
+        if ( SubjectGroupingStreamRDF.isGrouped(this.format) ) {
+            theWriter = new SubjectGroupingStreamRDF(theWriter);
+        }
+
+        // Process all records/rows of data for statements...
+        int iThreads = Util.getExportThreads();
+        if (iThreads > 1) {
+            if ( Util.isDebugMode() ) RDFExporter.logger.info("DEBUG:     Process by Parallel Export...");
+            ParallelRDFExport theExport =
+                new ParallelRDFExport(theTransform, theWriter, iThreads, Util.isExportOrdered());
+            theExport.export(theProject, theEngine);
+        }
+        else {
+            RDFVisitor theVisitor = null;
+            if ( theProject.recordModel.hasRecords() ) {
+                if ( Util.isDebugMode() ) RDFExporter.logger.info("DEBUG:     Process by Record Visitor...");
+                theVisitor = new ExportRDFRecordVisitor(theTransform, theWriter);
+            }
+            else {
+                if ( Util.isDebugMode() ) RDFExporter.logger.info("DEBUG:     Process by Row Visitor...");
+                theVisitor = new ExportRDFRowVisitor(theTransform, theWriter);
+            }
+            theVisitor.buildModel(theProject, theEngine);
+        }
+        SubjectGroupingStreamRDF.endBatch(theWriter);
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ *  Class RDFPatchExporter
+ *
+ *  An exporter used to transform OpenRefine project data to an RDF Patch of
+ *  the statements changed since the last incremental export.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.exporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.operation.IncrementalRDFExport;
+import org.openrefine.rdf.model.utils.RDFPatchWriter;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.exporters.StreamExporter;
+import com.google.refine.exporters.WriterExporter;
+import com.google.refine.model.Project;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class RDFPatchExporter
+ *
+ *  An exporter used to transform OpenRefine project data *incrementally* meaning only the rows or
+ *  records changed since the last incremental export are transformed.  The export is an RDF Patch
+ *  that deletes and adds the changed statements.  The first export (or an export after the state is
+ *  removed) adds every statement.  See IncrementalRDFExport.
+ */
+public class RDFPatchExporter extends RDFExporter implements WriterExporter, StreamExporter {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:RDFPatchExporter");
+
+    public RDFPatchExporter(String strName) {
+        super(null, strName);
+    }
+
+    @Override
+    public String getContentType() {
+        return RDFPatchWriter.strCONTENT_TYPE;
+    }
+
+    public void export(Project theProject, Properties options, Engine theEngine,
+                        OutputStream outputStream)
+            throws IOException {
+        if ( Util.isDebugMode() ) RDFPatchExporter.logger.info("DEBUG: Exporting " + this.strName + " via OutputStream");
+        Writer theWriter = new BufferedWriter( new OutputStreamWriter(outputStream, StandardCharsets.UTF_8) );
+        this.export(theProject, theEngine, theWriter);
+        theWriter.flush();
+    }
+
+    public void export(Project theProject, Properties options, Engine theEngine,
+                        Writer theWriter)
+            throws IOException {
+        if ( Util.isDebugMode() ) RDFPatchExporter.logger.info("DEBUG: Exporting " + this.strName + " via Writer");
+        this.export(theProject, theEngine, theWriter);
+    }
+
+    private void export(Project theProject, Engine theEngine, Writer theWriter)
+            throws IOException {
+        RDFTransform theTransform = RDFTransform.getRDFTransform(theProject);
+        try {
+            if ( Util.isDebugMode() ) RDFPatchExporter.logger.info("DEBUG:   Starting RDF Export...");
+            IncrementalRDFExport theExport = new IncrementalRDFExport( theTransform, new RDFPatchWriter(theWriter) );
+            theExport.export(theProject, theEngine);
+            if ( Util.isDebugMode() ) RDFPatchExporter.logger.info("DEBUG:   ...Ended RDF Export " + this.strName);
+        }
+        catch (Exception ex) {
+            if ( Util.isDebugMode() ) RDFPatchExporter.logger.error("DEBUG: Error exporting " + this.strName, ex);
+            if ( Util.isVerbose() || Util.isDebugMode() ) ex.printStackTrace();
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+}
@@ -23,7 +23,6 @@ package org.openrefine.rdf.model.exporter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
-import java.nio.charset.Charset;
 import java.util.Properties;
 
 import org.openrefine.rdf.RDFTransform;
@@ -36,9 +35,11 @@ import com.google.refine.browsing.Engine;
 import com.google.refine.exporters.WriterExporter;
 import com.google.refine.model.Project;
 
-import org.apache.commons.io.output.WriterOutputStream;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFWriter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,11 +56,23 @@ import org.slf4j.LoggerFactory;
  *
  *  Use with relatively small graphs (compared to available memory) as the process could result in a
  *  critical failure.
+ *
+ *  For Turtle, a bounded memory export is available by setting the sort run size preference.  The
+ *  statements are sorted by subject in runs spilled to disk and merged to subject grouped Turtle.
+ *  See SortedTurtleWriter.
+ *
+ *  For other formats, the export spill preference moves the graph to disk backed, dictionary encoded
+ *  indexes once the export limit is reached.  The writer then reads the graph from the indexes.
+ *  See SpillGraph.
+ *
+ *  When exported via a Writer, the graph is written to the Writer as characters.  Otherwise, Jena's
+ *  UTF-8 bytes would be decoded back to characters by a WriterOutputStream.
  */
 public class RDFPrettyExporter extends RDFExporter implements WriterExporter {
     private final static Logger logger = LoggerFactory.getLogger("RDFT:RDFPrettyExporter");
 
     private OutputStream outputStream = null;
+    private Writer theOutputWriter = null;
 
     public RDFPrettyExporter(RDFFormat format, String strName) {
         super(format, strName);
@@ -70,6 +83,7 @@ public class RDFPrettyExporter extends RDFExporter implements WriterExporter {
             throws IOException {
         if ( Util.isDebugMode() ) RDFPrettyExporter.logger.info("DEBUG: Exporting " + this.strName + " via OutputStream");
         this.outputStream = outputStream;
+        this.theOutputWriter = null;
         this.export(theProject, options, theEngine);
     }
 
@@ -78,8 +92,10 @@ public class RDFPrettyExporter extends RDFExporter implements WriterExporter {
              throws IOException
     {
         if ( Util.isDebugMode() ) RDFPrettyExporter.logger.info("DEBUG: Exporting " + this.strName + " via Writer");
-        this.outputStream = new WriterOutputStream(theWriter, Charset.forName("UTF-8"));
+        this.outputStream = null;
+        this.theOutputWriter = theWriter;
         this.export(theProject, options, theEngine);
+        theWriter.flush();
     }
 
     private void export(Project theProject, Properties options, Engine theEngine)
@@ -89,6 +105,13 @@ public class RDFPrettyExporter extends RDFExporter implements WriterExporter {
         try {
             if ( Util.isDebugMode() ) RDFPrettyExporter.logger.info("DEBUG:   Starting RDF Export...");
 
+            // If a bounded memory Turtle export...
+            if ( this.isSortable() ) {
+                this.exportSorted(theProject, theEngine, theTransform);
+                if ( Util.isDebugMode() ) RDFPrettyExporter.logger.info("DEBUG:   ...Ended RDF Export " + this.strName);
+                return;
+            }
+
             // Process all records/rows of data for statements...
             RDFVisitor theVisitor = null;
             if ( theProject.recordModel.hasRecords() ) {
@@ -101,7 +124,19 @@ public class RDFPrettyExporter extends RDFExporter implements WriterExporter {
             }
             theVisitor.buildModel(theProject, theEngine);
 
-            RDFDataMgr.write(this.outputStream, theVisitor.getModel(), this.format) ;
+            // NOTE: The model may be backed by a spill graph, so close it to remove the spill files.
+            Model theModel = theVisitor.getModel();
+            try {
+                if (this.theOutputWriter != null) {
+                    RDFWriter.create().source(theModel).format(this.format).build().output(this.theOutputWriter);
+                }
+                else {
+                    RDFDataMgr.write(this.outputStream, theModel, this.format) ;
+                }
+            }
+            finally {
+                theModel.close();
+            }
             if ( Util.isDebugMode() ) RDFPrettyExporter.logger.info("DEBUG:   ...Ended RDF Export " + this.strName);
         }
         catch (Exception ex) {
@@ -110,4 +145,49 @@ public class RDFPrettyExporter extends RDFExporter implements WriterExporter {
             throw new IOException(ex.getMessage(), ex);
         }
     }
+
+    /*
+     * Method isSortable()
+     *
+     *  A Turtle export can be written in bounded memory from subject sorted runs when the
+     *  sort run size is set.
+     */
+    private boolean isSortable() {
+        return ( Util.getSortRunSize() > 0 && this.format != null &&
+                 ( this.format.getLang().equals(Lang.TURTLE) || this.format.getLang().equals(Lang.N3) ) );
+    }
+
+    /*
+     * Method exportSorted()
+     *
+     *  Stream the statements into sorted runs, then merge the runs to subject grouped Turtle.
+     */
+    private void exportSorted(Project theProject, Engine theEngine, RDFTransform theTransform)
+            throws IOException {
+        SortedTurtleWriter theSorter = new SortedTurtleWriter( Util.getSortRunSize() );
+        try {
+            theSorter.start();
+            RDFVisitor theVisitor = null;
+            if ( theProject.recordModel.hasRecords() ) {
+                if ( Util.isDebugMode() ) RDFPrettyExporter.logger.info("DEBUG:     Process by Sorted Record Visitor...");
+                theVisitor = new ExportRDFRecordVisitor(theTransform, theSorter);
+            }
+            else {
+                if ( Util.isDebugMode() ) RDFPrettyExporter.logger.info("DEBUG:     Process by Sorted Row Visitor...");
+                theVisitor = new ExportRDFRowVisitor(theTransform, theSorter);
+            }
+            theVisitor.buildModel(theProject, theEngine);
+            theSorter.finish();
+
+            if (this.theOutputWriter != null) {
+                theSorter.write(this.theOutputWriter);
+            }
+            else {
+                theSorter.write(this.outputStream);
+            }
+        }
+        finally {
+            theSorter.clear();
+        }
+    }
 }
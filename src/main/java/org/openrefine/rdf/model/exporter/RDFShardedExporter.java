@@ -0,0 +1,140 @@
+/*
+ *  Class RDFShardedExporter
+ *
+ *  An exporter used to transform OpenRefine project data to many RDF shard
+ *  files delivered as a ZIP archive or written to a server directory.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.exporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.operation.ShardedRDFExport;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.exporters.StreamExporter;
+import com.google.refine.model.Project;
+
+import org.apache.jena.riot.RDFFormat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class RDFShardedExporter
+ *
+ *  A stream exporter that splits the export over Util.getShardCount() shard files, each written
+ *  by its own worker, split by row range or by subject hash (see Util.isShardBySubject() and
+ *  ShardedRDFExport).  The response is a ZIP archive holding a manifest of the shards:
+ *    Archive: when no shard directory is set, the shards are written to a temporary directory
+ *             and added to the archive with the manifest.  The temporary files are removed.
+ *    Directory: when a shard directory is set (see Util.getShardDirectory()), the shards and
+ *             the manifest are written to a new "<project>-<time>" directory in it for loaders
+ *             on the server.  The archive holds only the manifest.  When the export fails
+ *             before the manifest is written there, the partial directory is removed.
+ */
+public class RDFShardedExporter extends RDFExporter implements StreamExporter {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:RDFShardedExporter");
+
+    public RDFShardedExporter(RDFFormat format, String strName) {
+        super(format, strName);
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/zip";
+    }
+
+    public void export(Project theProject, Properties options, Engine theEngine,
+                        OutputStream outputStream)
+            throws IOException {
+        if ( Util.isDebugMode() ) RDFShardedExporter.logger.info("DEBUG: Exporting " + this.strName + " via OutputStream");
+
+        String strShardDir = Util.getShardDirectory();
+        boolean bTemporary = ( strShardDir == null || strShardDir.isEmpty() );
+        String strName = "project-" + theProject.id;
+        File dirShards;
+        if (bTemporary) {
+            dirShards = Files.createTempDirectory("rdft-shards-").toFile();
+        }
+        else {
+            dirShards = new File( strShardDir, strName + "-" + System.currentTimeMillis() );
+            if ( ! dirShards.mkdirs() ) {
+                throw new IOException("ERROR: Cannot create shard directory: " + dirShards.getPath());
+            }
+        }
+
+        ShardedRDFExport theExport =
+            new ShardedRDFExport( RDFTransform.getRDFTransform(theProject), this.format,
+                                    Util.getShardCount(), Util.isShardBySubject() );
+        boolean bComplete = false; // ...the shard directory holds the shards and the manifest
+        try {
+            if ( Util.isDebugMode() ) RDFShardedExporter.logger.info("DEBUG:   Starting RDF Export...");
+            theExport.export(theProject, theEngine, dirShards, strName);
+
+            ZipOutputStream theZip = new ZipOutputStream(outputStream);
+            theZip.putNextEntry( new ZipEntry(ShardedRDFExport.strMANIFEST) );
+            theExport.writeManifest(theZip, this.strName);
+            theZip.closeEntry();
+            if (bTemporary) {
+                for ( File fileShard : theExport.getFiles() ) {
+                    theZip.putNextEntry( new ZipEntry( fileShard.getName() ) );
+                    Files.copy(fileShard.toPath(), theZip);
+                    theZip.closeEntry();
+                }
+            }
+            else {
+                try ( OutputStream theManifest =
+                        Files.newOutputStream( new File(dirShards, ShardedRDFExport.strMANIFEST).toPath() ) ) {
+                    theExport.writeManifest(theManifest, this.strName);
+                }
+                bComplete = true;
+                if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+                    RDFShardedExporter.logger.info("Shards written to " + dirShards.getPath());
+                }
+            }
+            // Complete the archive without closing the servlet stream...
+            theZip.finish();
+            theZip.flush();
+            if ( Util.isDebugMode() ) RDFShardedExporter.logger.info("DEBUG:   ...Ended RDF Export " + this.strName);
+        }
+        catch (Exception ex) {
+            if ( Util.isDebugMode() ) RDFShardedExporter.logger.error("DEBUG: Error exporting " + this.strName, ex);
+            if ( Util.isVerbose() || Util.isDebugMode() ) ex.printStackTrace();
+            throw new IOException(ex.getMessage(), ex);
+        }
+        finally {
+            if ( bTemporary || ! bComplete ) {
+                for ( File fileShard : theExport.getFiles() ) {
+                    fileShard.delete();
+                }
+                new File(dirShards, ShardedRDFExport.strMANIFEST).delete();
+                if ( ! dirShards.delete() && ! bTemporary ) {
+                    RDFShardedExporter.logger.warn("WARNING: Cannot delete partial shard directory: " + dirShards.getPath());
+                }
+            }
+        }
+    }
+}
@@ -26,11 +26,7 @@ import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.Properties;
 
-import org.openrefine.rdf.RDFTransform;
 import org.openrefine.rdf.model.Util;
-import org.openrefine.rdf.model.operation.ExportRDFRecordVisitor;
-import org.openrefine.rdf.model.operation.ExportRDFRowVisitor;
-import org.openrefine.rdf.model.operation.RDFVisitor;
 
 import com.google.refine.browsing.Engine;
 import com.google.refine.exporters.StreamExporter;
@@ -41,6 +37,7 @@ import org.apache.commons.io.output.WriterOutputStream;
 
 import org.apache.jena.riot.RDFFormat;
 import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
 import org.apache.jena.riot.system.StreamRDFWriter;
 
 import org.slf4j.Logger;
@@ -53,6 +50,10 @@ import org.slf4j.LoggerFactory;
  *  are processed and dumped to persistent storage sequentially until complete.  Therefore, only discreet
  *  memory and processing are perform no matter how large the project data.  Additionally, the memory can
  *  be optimized for a predetermined size to minimize the number of memory to persistent storage writes.
+ *
+ *  When exported via a Writer, the line formats (N-Triples, N-Quads) and the null format are written
+ *  to the Writer as characters.  Otherwise, Jena's UTF-8 bytes are decoded back to characters by a
+ *  WriterOutputStream, i.e., every character is transcoded twice.  See getCharacterStream().
  */
 public class RDFStreamExporter extends RDFExporter implements WriterExporter, StreamExporter {
     private final static Logger logger = LoggerFactory.getLogger("RDFT:RDFStreamExporter");
@@ -76,8 +77,37 @@ public class RDFStreamExporter extends RDFExporter implements WriterExporter, St
              throws IOException
     {
         if ( Util.isDebugMode() ) RDFStreamExporter.logger.info("DEBUG: Exporting " + this.strName + " via Writer");
+        StreamRDF theStream = this.getCharacterStream(theWriter);
+        if (theStream != null) {
+            if ( Util.isDebugMode() ) RDFStreamExporter.logger.info("DEBUG:   Acquired writer: Character StreamRDF.");
+            this.export(theProject, theEngine, theStream);
+            theWriter.flush();
+            return;
+        }
         this.outputStream = new WriterOutputStream(theWriter, Charset.forName("UTF-8"));
         this.export(theProject, options, theEngine);
+        // Write the bytes held by the decoder...
+        this.outputStream.flush();
+    }
+
+    /*
+     * Method getCharacterStream()
+     *
+     *  Get a stream writer that writes characters directly to the Writer.  Only the formats
+     *  written by a plain character writer are supported.  Otherwise, null.  Package visible
+     *  for the Writer export benchmark.
+     */
+    StreamRDF getCharacterStream(Writer theWriter) {
+        if (this.format == null) {
+            return null;
+        }
+        if ( this.format.equals(RDFFormat.RDFNULL) ) {
+            return StreamRDFLib.sinkNull();
+        }
+        if ( this.format.equals(RDFFormat.NTRIPLES_UTF8) || this.format.equals(RDFFormat.NQUADS_UTF8) ) {
+            return StreamRDFLib.writer(theWriter);
+        }
+        return null;
     }
 
     private void export(Project theProject, Properties options, Engine theEngine)
@@ -91,25 +121,23 @@ public class RDFStreamExporter extends RDFExporter implements WriterExporter, St
             throw new IOException(strMsg);
         }
         if ( Util.isDebugMode() ) RDFStreamExporter.logger.info("DEBUG:   Acquired writer: StreamRDFWriter.");
+        this.export(theProject, theEngine, theWriter);
+    }
 
-        RDFTransform theTransform = RDFTransform.getRDFTransform(theProject);
+    private void export(Project theProject, Engine theEngine, StreamRDF theWriter)
+            throws IOException
+    {
+        long lStart = System.currentTimeMillis();
         try {
             if ( Util.isDebugMode() ) RDFStreamExporter.logger.info("DEBUG:   Starting RDF Export...");
             theWriter.start();
 
-            // Process all records/rows of data for statements...
-            RDFVisitor theVisitor = null;
-            if ( theProject.recordModel.hasRecords() ) {
-                if ( Util.isDebugMode() ) RDFStreamExporter.logger.info("DEBUG:     Process by Record Visitor...");
-                theVisitor = new ExportRDFRecordVisitor(theTransform, theWriter);
-            }
-            else {
-                if ( Util.isDebugMode() ) RDFStreamExporter.logger.info("DEBUG:     Process by Row Visitor...");
-                theVisitor = new ExportRDFRowVisitor(theTransform, theWriter);
-            }
-            theVisitor.buildModel(theProject, theEngine);
+            this.exportStream(theProject, theEngine, theWriter);
 
             theWriter.finish();
+            if ( Util.isVerbose(2) ) {
+                RDFStreamExporter.logger.info("Exported " + this.strName + " in " + ( System.currentTimeMillis() - lStart ) + " ms");
+            }
             if ( Util.isDebugMode() ) RDFStreamExporter.logger.info("DEBUG:   ...Ended RDF Export " + this.strName);
         }
         catch (Exception ex) {
@@ -0,0 +1,243 @@
+/*
+ *  Class SortedTurtleWriter
+ *
+ *  A StreamRDF that sorts statements by subject in bounded memory using
+ *  sorted runs on disk and writes them as subject grouped Turtle.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.exporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.utils.SortedRuns;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.RDF;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class SortedTurtleWriter
+ *
+ *  Each statement is held as an N-Triples line of tab separated terms:
+ *      subject <TAB> predicate <TAB> object
+ *  N-Triples escapes tabs and line breaks in literals, so the tabs and line ends are the only
+ *  separators.  The lines sort by subject, then predicate, then object.
+ *
+ *  The lines are sorted in bounded memory by sorted runs (see SortedRuns).  On write(), the
+ *  runs are merged and the statements are written as Turtle with each subject and each
+ *  subject's predicates grouped:
+ *      subject predicate1 object1 , object2 ;
+ *          predicate2 object3 .
+ *  Only the run size in lines, one line per run, and the prefixes are held in memory.
+ *
+ *  IRIs are abbreviated by the stream's prefixes when the local part is a simple name.  Blank
+ *  nodes keep their N-Triples labels, so nested blank node forms, i.e., "[ ... ]", and
+ *  collections are not produced.
+ */
+public class SortedTurtleWriter extends StreamRDFBase {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:SortedTurtleWriter");
+
+    static private final char cSEP = '\t';
+    static private final String strINDENT = "    ";
+    static private final String strRDFType = "<" + RDF.type.getURI() + ">";
+    // A conservative Turtle local name: PN_LOCAL without escapes or a trailing '.'...
+    static private final Pattern patternLocalName =
+        Pattern.compile("([A-Za-z0-9_]([A-Za-z0-9_.\\-]*[A-Za-z0-9_\\-])?)?");
+
+    private final Map<String, String> mapPrefixes = new LinkedHashMap<String, String>();
+    private final SortedRuns theRuns;
+    private long lStatements = 0;
+
+    public SortedTurtleWriter(int iRunSize) {
+        this.theRuns = new SortedRuns(iRunSize, "rdft-sort-");
+    }
+
+    @Override
+    public void prefix(String strPrefix, String strIRI) {
+        this.mapPrefixes.put(strPrefix, strIRI);
+    }
+
+    @Override
+    public void triple(Triple theTriple) {
+        try {
+            this.theRuns.add(
+                NodeFmtLib.strNT( theTriple.getSubject() ) + SortedTurtleWriter.cSEP +
+                NodeFmtLib.strNT( theTriple.getPredicate() ) + SortedTurtleWriter.cSEP +
+                NodeFmtLib.strNT( theTriple.getObject() ) );
+        }
+        catch (IOException ex) {
+            throw new RuntimeException("Cannot write a sorted run: " + ex.getMessage(), ex);
+        }
+        this.lStatements++;
+    }
+
+    @Override
+    public void quad(Quad theQuad) {
+        // Turtle has no named graphs: the quad is written as its triple...
+        this.triple( theQuad.asTriple() );
+    }
+
+    public long getStatementCount() {
+        return this.lStatements;
+    }
+
+    /*
+     * Method write()
+     *
+     *  Merge the sorted runs and write the statements as Turtle.  The temporary run files are
+     *  removed when done.
+     */
+    public void write(OutputStream theOutput)
+            throws IOException {
+        Writer theWriter = new BufferedWriter( new OutputStreamWriter(theOutput, StandardCharsets.UTF_8) );
+        this.write(theWriter);
+        theWriter.flush();
+    }
+
+    public void write(Writer theWriter)
+            throws IOException {
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+            SortedTurtleWriter.logger.info("Merging " + this.lStatements + " statements from " +
+                this.theRuns.getRunCount() + " sorted runs...");
+        }
+        try {
+            this.theRuns.open();
+
+            this.writePrefixes(theWriter);
+
+            String strLine;
+            String strSubject = null;
+            String strPredicate = null;
+            while ( ( strLine = this.theRuns.next() ) != null ) {
+                int iPred = strLine.indexOf(SortedTurtleWriter.cSEP);
+                int iObj = strLine.indexOf(SortedTurtleWriter.cSEP, iPred + 1);
+                String strS = strLine.substring(0, iPred);
+                String strP = strLine.substring(iPred + 1, iObj);
+                String strO = strLine.substring(iObj + 1);
+
+                if ( ! strS.equals(strSubject) ) {
+                    if (strSubject != null) {
+                        theWriter.write(" .\n\n");
+                    }
+                    theWriter.write( this.abbreviate(strS) );
+                    theWriter.write(' ');
+                    theWriter.write( this.abbreviatePredicate(strP) );
+                    strSubject = strS;
+                    strPredicate = strP;
+                }
+                else if ( ! strP.equals(strPredicate) ) {
+                    theWriter.write(" ;\n");
+                    theWriter.write(SortedTurtleWriter.strINDENT);
+                    theWriter.write( this.abbreviatePredicate(strP) );
+                    strPredicate = strP;
+                }
+                else {
+                    theWriter.write(" ,");
+                }
+                theWriter.write(' ');
+                theWriter.write( this.abbreviateObject(strO) );
+            }
+            if (strSubject != null) {
+                theWriter.write(" .\n");
+            }
+        }
+        finally {
+            this.clear();
+        }
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) SortedTurtleWriter.logger.info("...merged.");
+    }
+
+    /*
+     * Method clear()
+     *
+     *  Remove the sorted runs.
+     */
+    public void clear() {
+        this.theRuns.close();
+    }
+
+    private void writePrefixes(Writer theWriter)
+            throws IOException {
+        if ( this.mapPrefixes.isEmpty() ) {
+            return;
+        }
+        for ( Map.Entry<String, String> entryPrefix : this.mapPrefixes.entrySet() ) {
+            theWriter.write("@prefix " + entryPrefix.getKey() + ": <" + entryPrefix.getValue() + "> .\n");
+        }
+        theWriter.write('\n');
+    }
+
+    private String abbreviatePredicate(String strTerm) {
+        if ( strTerm.equals(SortedTurtleWriter.strRDFType) ) {
+            return "a";
+        }
+        return this.abbreviate(strTerm);
+    }
+
+    private String abbreviateObject(String strTerm) {
+        // If a datatype literal, abbreviate the datatype...
+        if ( strTerm.startsWith("\"") && strTerm.endsWith(">") ) {
+            int iType = strTerm.lastIndexOf("\"^^<");
+            if (iType > 0) {
+                return strTerm.substring(0, iType + 3) + this.abbreviate( strTerm.substring(iType + 3) );
+            }
+        }
+        return this.abbreviate(strTerm);
+    }
+
+    /*
+     * Method abbreviate()
+     *
+     *  Abbreviate an N-Triples IRI term to a prefixed name using the longest matching
+     *  namespace.  Other terms are returned as given.
+     */
+    private String abbreviate(String strTerm) {
+        if ( ! ( strTerm.startsWith("<") && strTerm.endsWith(">") ) ) {
+            return strTerm;
+        }
+        String strIRI = strTerm.substring(1, strTerm.length() - 1);
+        String strBestPrefix = null;
+        int iBestLength = -1;
+        for ( Map.Entry<String, String> entryPrefix : this.mapPrefixes.entrySet() ) {
+            String strNamespace = entryPrefix.getValue();
+            if ( strNamespace.length() > iBestLength && strIRI.startsWith(strNamespace) &&
+                 SortedTurtleWriter.patternLocalName.matcher( strIRI.substring( strNamespace.length() ) ).matches() )
+            {
+                strBestPrefix = entryPrefix.getKey();
+                iBestLength = strNamespace.length();
+            }
+        }
+        if (strBestPrefix == null) {
+            return strTerm;
+        }
+        return strBestPrefix + ":" + strIRI.substring(iBestLength);
+    }
+}
@@ -51,21 +51,16 @@ import org.slf4j.LoggerFactory;
 public class RDFTransformBinder implements Binder {
     private final static Logger logger = LoggerFactory.getLogger("RDFT:RDFBinder");
 
-    private Project theProject;
-    private String strLastBoundBaseIRI;
     //private final String strBindError = "Unable to bind baseIRI.";
 
     public RDFTransformBinder() {
         super();
-        this.strLastBoundBaseIRI = null;
     }
 
     @Override
     public void initializeBindings(Properties theBindings, Project theProject) {
-        this.theProject = theProject;
         if ( Util.isVerbose(3) ) RDFTransformBinder.logger.info("Bind baseIRI...");
-        this.strLastBoundBaseIRI = RDFTransform.getRDFTransform(this.theProject).getBaseIRIAsString();
-        theBindings.put("baseIRI", this.strLastBoundBaseIRI);
+        theBindings.put("baseIRI", RDFTransform.getRDFTransform(theProject).getBaseIRIAsString());
     }
 
     @Override
@@ -75,14 +70,28 @@ public class RDFTransformBinder implements Binder {
         //
         // The baseIRI is already added by the initializeBindings() above.
         // The put() call replaces it.
+        //
+        // NOTE: This is called for every evaluated cell, so it must stay cheap.  The
+        //       project is taken from the bindings (not held by this shared binder) and
+        //       the transform is read directly from the project's overlay models without
+        //       the RDFTransform.getRDFTransform() project lock.
+
+        Object objProject = theBindings.get("project");
+        if ( ! ( objProject instanceof Project ) ) {
+            return;
+        }
+        RDFTransform theTransform =
+            (RDFTransform) ( (Project) objProject ).overlayModels.get(RDFTransform.EXTENSION);
+        if (theTransform == null) {
+            return;
+        }
 
         // Get the current baseIRI...
-        String strCurrentBaseIRI = RDFTransform.getRDFTransform(this.theProject).getBaseIRIAsString();
+        String strCurrentBaseIRI = theTransform.getBaseIRIAsString();
         // If the current baseIRI is new...
-        if ( ! this.strLastBoundBaseIRI.equals(strCurrentBaseIRI) ) {
+        if ( strCurrentBaseIRI != null && ! strCurrentBaseIRI.equals( theBindings.get("baseIRI") ) ) {
             // Replace the bound baseIRI...
             theBindings.put("baseIRI", strCurrentBaseIRI);
-            strLastBoundBaseIRI = strCurrentBaseIRI;
         }
     }
 }
@@ -21,7 +21,6 @@
 package org.openrefine.rdf.model.expr.functions;
 
 import java.util.Properties;
-import java.util.regex.Pattern;
 
 import com.google.refine.expr.EvalError;
 import com.google.refine.grel.ControlFunctionRegistry;
@@ -29,8 +28,6 @@ import com.google.refine.grel.Function;
 
 import org.openrefine.rdf.model.Util;
 
-import org.apache.jena.iri.IRI;
-
 /*
  * Class ToIRIString: Convert string to qualify as an RDF IRI component
  *
@@ -39,6 +36,45 @@ import org.apache.jena.iri.IRI;
  */
 
 public class ToIRIString implements Function {
+    // The stages: see isReplaced()...
+    static private final int iStageLeading = 2;
+    static private final int iLastStage = 7;
+
+    // Character classes by ASCII code...
+    static private final byte byteUNSAFE = 1;     // <>"{}|\^`
+    static private final byte byteSUB_DELIM = 2;  // !$&'()*+,;=
+    static private final byte byteGEN_DELIM = 4;  // ?#[]@ (not ":" and "/")
+    static private final byte byteUNRESERVED = 8; // ALPHA / DIGIT / "-" / "." / "_" / "~"
+    static private final byte byteSUPPORTED = 16; // unreserved / sub-delims / gen-delims / "%"
+
+    static private final byte[] abyteClasses = new byte[128];
+
+    static {
+        for ( char c : "<>\"{}|\\^`".toCharArray() ) {
+            ToIRIString.abyteClasses[c] = byteUNSAFE;
+        }
+        for ( char c : "!$&'()*+,;=".toCharArray() ) {
+            ToIRIString.abyteClasses[c] = byteSUB_DELIM | byteSUPPORTED;
+        }
+        for ( char c : "?#[]@".toCharArray() ) {
+            ToIRIString.abyteClasses[c] = byteGEN_DELIM | byteSUPPORTED;
+        }
+        for ( char c : "-._~".toCharArray() ) {
+            ToIRIString.abyteClasses[c] = byteUNRESERVED | byteSUPPORTED;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            ToIRIString.abyteClasses[c] = byteUNRESERVED | byteSUPPORTED;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            ToIRIString.abyteClasses[c] = byteUNRESERVED | byteSUPPORTED;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            ToIRIString.abyteClasses[c] = byteUNRESERVED | byteSUPPORTED;
+        }
+        for ( char c : ":/%".toCharArray() ) {
+            ToIRIString.abyteClasses[c] = byteSUPPORTED;
+        }
+    }
 
     public Object call(Properties bindings, Object[] args) {
         //String strBaseIRI = bindings.get("baseIRI").toString();
@@ -56,74 +92,165 @@ public class ToIRIString implements Function {
         return ToIRIString.toIRIString(strConvert);
     }
 
+    /*
+     * Method toIRIString()
+     *
+     *  Convert the string by stages until it is an IRI (absolute or relative).  Each stage is a
+     *  single pass over the code points that replaces the stage's character class and
+     *  condenses the underscores.  A stage that changes nothing is not tested again.  The
+     *  common absolute http(s) IRIs and simple local names are accepted without the IRI
+     *  checker.  See Util.checkIRI().  The empty string is the empty relative IRI, so it is
+     *  returned as is (as the IRI checker's construct() accepts it).
+     *
+     *  Returns null when the string cannot be converted.
+     */
     static public String toIRIString(String strConvert) {
-        String strUnderscore = "_";
-        int iTry = 0;
-        do {
-            // Test if it's an acceptable IRI now (absolute or relative)...
-            IRI theIRI = Util.buildIRI(strConvert, true);
-            if (theIRI == null) {
-                if (iTry > 7) {
-                    strConvert = null; // ...cannot convert to IRI
-                    break;
-                }
-                // ...continue by narrowing the conversion string...
+        boolean bTest = true;
+        for (int iStage = 0; iStage <= ToIRIString.iLastStage + 1; iStage++) {
+            if ( bTest && ToIRIString.isIRI(strConvert) ) {
+                return strConvert;
             }
-            else {
+            if (iStage > ToIRIString.iLastStage) {
                 break;
             }
+            String strNext;
+            if (iStage == ToIRIString.iStageLeading) {
+                strNext = ToIRIString.replaceLeading(strConvert);
+            }
+            else {
+                strNext = ToIRIString.replace(strConvert, iStage);
+            }
+            // NOTE: An unchanged string is returned as is...
+            bTest = ( strNext != strConvert );
+            strConvert = strNext;
+        }
+        return null; // ...cannot convert to IRI
+    }
 
-            switch (iTry) {
-                case 0:
-                    // Replace whitespace and unallowed characters with underscores...
-                    strConvert =
-                        Util.replaceAll(strConvert,
-                                "[" + Util.WHITESPACE + Pattern.quote("<>\"{}|\\^`") + "]+",
-                                strUnderscore);
-                    break;
-                case 1:
-                    // Replace any unsupported characters with underscores...
-                    strConvert =
-                        Util.replaceAll(strConvert,
-                            "[^-\\p{N}\\p{L}_\\.~:/\\?#\\[\\]@\\%!\\$&'\\(\\)\\*\\+,;=]+",
-                            strUnderscore);
-                    break;
-                case 2:
-                    // Replace (multiple) leading ":/+" or "/+" with underscores...
-                    strConvert = Util.replaceFirst(strConvert, "^(:?/+)+", strUnderscore);
-                    break;
-                case 3:
-                    // Replace sub-delim characters with underscores...
-                    strConvert =
-                        Util.replaceAll(strConvert, "[!\\$&'\\(\\)\\*\\+,;=]+", strUnderscore);
-                    break;
-                case 4:
-                    // Replace gen-delim (but not ":" and "/") characters with underscores...
-                    strConvert =
-                        Util.replaceAll(strConvert, "[\\?#\\[\\]@]+", strUnderscore);
-                    break;
-                case 5:
-                    // Replace "/" characters with underscores...
-                    strConvert =
-                        Util.replaceAll(strConvert, "/+", strUnderscore);
-                    break;
-                case 6:
-                    // Replace ":" characters with underscores...
-                    strConvert =
-                        Util.replaceAll(strConvert, ":+", strUnderscore);
-                    break;
-                default: //...should not occur but here for completeness...
-                    // Replace all but Unreserved characters with underscores...
-                    strConvert =
-                        Util.replaceAll(strConvert, "[^-\\p{N}\\p{L}_\\.~]+", strUnderscore);
-                    break;
+    static private boolean isIRI(String strConvert) {
+        if ( strConvert.isEmpty() ) {
+            return true; // ...the empty relative IRI
+        }
+        return ( Util.checkIRI(strConvert) == Util.IRICheck.VALID );
+    }
+
+    /*
+     * Method isReplaced()
+     *
+     *  Test whether the stage replaces the code point.
+     */
+    static private boolean isReplaced(int iCodePoint, int iStage) {
+        byte byteClass = ( iCodePoint < 128 ? ToIRIString.abyteClasses[iCodePoint] : 0 );
+        switch (iStage) {
+            case 0:
+                // Whitespace and unallowed characters...
+                return ( ( byteClass & byteUNSAFE ) != 0 || Util.isWhitespace(iCodePoint) );
+            case 1:
+                // Unsupported characters...
+                if (iCodePoint < 128) {
+                    return ( ( byteClass & byteSUPPORTED ) == 0 );
+                }
+                return ! ToIRIString.isLetterOrNumber(iCodePoint);
+            case 3:
+                return ( ( byteClass & byteSUB_DELIM ) != 0 );
+            case 4:
+                return ( ( byteClass & byteGEN_DELIM ) != 0 );
+            case 5:
+                return ( iCodePoint == '/' );
+            case 6:
+                return ( iCodePoint == ':' );
+            case 7:
+                // All but Unreserved characters...
+                if (iCodePoint < 128) {
+                    return ( ( byteClass & byteUNRESERVED ) == 0 );
+                }
+                return ! ToIRIString.isLetterOrNumber(iCodePoint);
+            default:
+                // Condense underscores only...
+                return false;
+        }
+    }
+
+    static private boolean isLetterOrNumber(int iCodePoint) {
+        switch ( Character.getType(iCodePoint) ) {
+            case Character.UPPERCASE_LETTER:
+            case Character.LOWERCASE_LETTER:
+            case Character.TITLECASE_LETTER:
+            case Character.MODIFIER_LETTER:
+            case Character.OTHER_LETTER:
+            case Character.DECIMAL_DIGIT_NUMBER:
+            case Character.LETTER_NUMBER:
+            case Character.OTHER_NUMBER:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /*
+     * Method replace()
+     *
+     *  Replace each run of the stage's characters and underscores with one underscore.
+     *  Returns the string as is when nothing changes.
+     */
+    static private String replace(String strConvert, int iStage) {
+        int iLength = strConvert.length();
+        StringBuilder sbResult = null;
+        boolean bUnderscore = false; // ...the last character kept is an underscore
+        int iIndex = 0;
+        while (iIndex < iLength) {
+            int iCodePoint = strConvert.codePointAt(iIndex);
+            int iCount = Character.charCount(iCodePoint);
+            boolean bReplace = ToIRIString.isReplaced(iCodePoint, iStage);
+            if ( bReplace || iCodePoint == '_' ) {
+                // Start the result on the first change...
+                if ( sbResult == null && ( bReplace || bUnderscore ) ) {
+                    sbResult = new StringBuilder(iLength);
+                    sbResult.append(strConvert, 0, iIndex);
+                }
+                if ( ! bUnderscore ) {
+                    if (sbResult != null) {
+                        sbResult.append('_');
+                    }
+                    bUnderscore = true;
+                }
             }
-            // Condense underscores...
-            strConvert = strConvert.replaceAll("__+", strUnderscore);
-            ++iTry;
-        } while (true);
+            else {
+                if (sbResult != null) {
+                    sbResult.append(strConvert, iIndex, iIndex + iCount);
+                }
+                bUnderscore = false;
+            }
+            iIndex += iCount;
+        }
+        return ( sbResult == null ? strConvert : sbResult.toString() );
+    }
 
-        return strConvert;
+    /*
+     * Method replaceLeading()
+     *
+     *  Replace (multiple) leading ":/+" or "/+" with an underscore.
+     */
+    static private String replaceLeading(String strConvert) {
+        int iLength = strConvert.length();
+        int iEnd = 0;
+        while (iEnd < iLength) {
+            int iIndex = iEnd;
+            if ( strConvert.charAt(iIndex) == ':' ) {
+                iIndex++;
+            }
+            if ( iIndex >= iLength || strConvert.charAt(iIndex) != '/' ) {
+                break;
+            }
+            while ( iIndex < iLength && strConvert.charAt(iIndex) == '/' ) {
+                iIndex++;
+            }
+            iEnd = iIndex;
+        }
+        if (iEnd == 0) {
+            return strConvert;
+        }
+        return ToIRIString.replace( "_" + strConvert.substring(iEnd), -1 );
     }
 
     @Override
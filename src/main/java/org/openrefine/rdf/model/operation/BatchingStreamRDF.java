@@ -0,0 +1,176 @@
+/*
+ *  Class BatchingStreamRDF
+ *
+ *  A StreamRDF wrapper that writes streamed statements to an export writer in
+ *  batches.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.core.Quad;
+
+/*
+ * Class BatchingStreamRDF
+ *
+ *  The statements are held in a batch and written to the wrapped writer when a flush trigger
+ *  fires:
+ *    Size: the batch holds the flush size in statements.
+ *    Count: the flush count of units (rows or records) have been added to the batch.
+ *    Time: the flush time in milliseconds has passed since the last write.
+ *  The count and time triggers are checked as each unit ends.  A trigger is disabled when
+ *  set to 0 (or less).  Quads (statements in a named graph) are batched with the triples.
+ *  Prefixes and base IRIs write any batched statements first to keep the stream order.
+ *
+ *  The batch sizes are recorded for the export metrics.  See getStats().
+ *
+ *  NOTE: A batching stream is used by one visitor, so it is not thread-safe.
+ */
+public class BatchingStreamRDF extends StreamRDFWrapper {
+    private final int iFlushSize;
+    private final int iFlushCount;
+    private final long lFlushNanos;
+
+    private final StatementBatch theBatch;
+    private int iUnits = 0;
+    private long lLastFlush = System.nanoTime();
+
+    // Metrics...
+    private long lBatches = 0;
+    private long lStatements = 0;
+    private int iMinBatch = Integer.MAX_VALUE;
+    private int iMaxBatch = 0;
+    private long lSizeFlushes = 0;
+    private long lCountFlushes = 0;
+    private long lTimeFlushes = 0;
+
+    public BatchingStreamRDF(StreamRDF theWriter, int iFlushSize, int iFlushCount, int iFlushTime) {
+        super(theWriter);
+        this.iFlushSize = iFlushSize;
+        this.iFlushCount = iFlushCount;
+        this.lFlushNanos = ( iFlushTime > 0 ? iFlushTime * 1000000L : 0L );
+        this.theBatch = new StatementBatch( iFlushSize > 0 && iFlushSize < 65536 ? iFlushSize : 1024 );
+    }
+
+    @Override
+    public void triple(Triple theTriple) {
+        this.theBatch.add(theTriple);
+        this.checkSize();
+    }
+
+    @Override
+    public void quad(Quad theQuad) {
+        this.theBatch.add(theQuad);
+        this.checkSize();
+    }
+
+    private void checkSize() {
+        if ( this.iFlushSize > 0 && this.theBatch.size() >= this.iFlushSize ) {
+            this.lSizeFlushes++;
+            this.flush();
+        }
+    }
+
+    @Override
+    public void prefix(String strPrefix, String strIRI) {
+        this.flush();
+        super.prefix(strPrefix, strIRI);
+    }
+
+    @Override
+    public void base(String strBase) {
+        this.flush();
+        super.base(strBase);
+    }
+
+    @Override
+    public void finish() {
+        this.flush();
+        super.finish();
+    }
+
+    /*
+     * Method endUnit()
+     *
+     *  End a unit (row or record) of statements and check the count and time triggers.
+     */
+    public void endUnit() {
+        this.iUnits++;
+        if ( this.theBatch.isEmpty() ) {
+            return;
+        }
+        if ( this.iFlushCount > 0 && this.iUnits >= this.iFlushCount ) {
+            this.lCountFlushes++;
+            this.flush();
+        }
+        else if ( this.lFlushNanos > 0 && System.nanoTime() - this.lLastFlush >= this.lFlushNanos ) {
+            this.lTimeFlushes++;
+            this.flush();
+        }
+    }
+
+    /*
+     * Method flush()
+     *
+     *  Write the batched statements to the wrapped writer.
+     */
+    public void flush() {
+        this.iUnits = 0;
+        this.lLastFlush = System.nanoTime();
+        int iSize = this.theBatch.size();
+        if (iSize == 0) {
+            return;
+        }
+        StreamRDF theWriter = this.get();
+        this.theBatch.writeTo(theWriter);
+        SubjectGroupingStreamRDF.endBatch(theWriter);
+        this.theBatch.clear();
+
+        this.lBatches++;
+        this.lStatements += iSize;
+        if (iSize < this.iMinBatch) {
+            this.iMinBatch = iSize;
+        }
+        if (iSize > this.iMaxBatch) {
+            this.iMaxBatch = iSize;
+        }
+    }
+
+    public long getBatchCount() {
+        return this.lBatches;
+    }
+
+    public long getStatementCount() {
+        return this.lStatements;
+    }
+
+    public String getStats() {
+        if (this.lBatches == 0) {
+            return "Export Batches: none";
+        }
+        return "Export Batches: " + this.lBatches +
+            "  Statements: " + this.lStatements +
+            "  Batch Size: min " + this.iMinBatch +
+            ", max " + this.iMaxBatch +
+            ", mean " + ( this.lStatements / this.lBatches ) +
+            "  Triggers: size " + this.lSizeFlushes +
+            ", count " + this.lCountFlushes +
+            ", time " + this.lTimeFlushes;
+    }
+}
@@ -29,7 +29,6 @@ import org.openrefine.rdf.model.Util;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 
-import org.apache.jena.iri.IRI;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.riot.system.StreamRDF;
 
@@ -44,14 +43,30 @@ public class ExportRDFRecordVisitor extends RDFRecordVisitor {
         if ( Util.isDebugMode() ) ExportRDFRecordVisitor.logger.info("DEBUG: Created...");
     }
 
+    /*
+     * Method isStreaming()
+     *
+     *  An export with a writer streams its statements directly to the writer.  An export
+     *  without a writer builds the model for the calling processor.
+     */
+    @Override
+    public boolean isStreaming() {
+        return ! this.isNoWriter();
+    }
+
     public boolean visit(Project theProject, Record theRecord) {
         try {
             if ( Util.isDebugMode() ) ExportRDFRecordVisitor.logger.info("DEBUG: Visiting Record: " + theRecord.recordIndex);
-            IRI baseIRI = this.getRDFTransform().getBaseIRI();
-            List<ResourceNode> listRoots = this.getRDFTransform().getRoots();
+            List<ResourceNode> listRoots = this.getPlan().getRoots();
             for ( ResourceNode root : listRoots ) {
+                // If streaming, the statements are written directly as triples...
+                if ( this.isStreaming() ) {
+                    root.createStatements(this.getContext(theProject), theRecord);
+                    continue;
+                }
+
                 this.theModel.enterCriticalSection(Model.WRITE);
-                root.createStatements(baseIRI, theModel, theProject, theRecord);
+                root.createStatements(this.getContext(theProject), theRecord);
                 this.theModel.leaveCriticalSection();
 
                 if ( Util.isDebugMode() ) {
@@ -68,11 +83,7 @@ public class ExportRDFRecordVisitor extends RDFRecordVisitor {
                 // Otherwise, large files would use excessive memory!
                 //
                 if ( theModel.size() > Util.getExportLimit() ) {
-                    this.flushStatements();
-                    if ( this.isNoWriter() && bLimitWarning) {
-                        this.bLimitWarning = false;
-                        ExportRDFRecordVisitor.logger.warn("WARNING:   Limit Reached: Memory may soon become exhausted!");
-                    }
+                    this.limitStatements();
                 }
             }
 
@@ -29,7 +29,6 @@ import org.openrefine.rdf.model.Util;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
-import org.apache.jena.iri.IRI;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.riot.system.StreamRDF;
 
@@ -43,14 +42,30 @@ public class ExportRDFRowVisitor extends RDFRowVisitor {
         super(theTransform, theWriter);
     }
 
+    /*
+     * Method isStreaming()
+     *
+     *  An export with a writer streams its statements directly to the writer.  An export
+     *  without a writer builds the model for the calling processor.
+     */
+    @Override
+    public boolean isStreaming() {
+        return ! this.isNoWriter();
+    }
+
     public boolean visit(Project theProject, int iRowIndex, Row theRow) {
         try {
             if ( Util.isDebugMode() ) ExportRDFRowVisitor.logger.info("DEBUG: Visiting Row: " + iRowIndex);
-            IRI baseIRI = this.getRDFTransform().getBaseIRI();
-            List<ResourceNode> listRoots = this.getRDFTransform().getRoots();
+            List<ResourceNode> listRoots = this.getPlan().getRoots();
             for ( ResourceNode root : listRoots ) {
+                // If streaming, the statements are written directly as triples...
+                if ( this.isStreaming() ) {
+                    root.createStatements(this.getContext(theProject), iRowIndex);
+                    continue;
+                }
+
                 this.theModel.enterCriticalSection(Model.WRITE);
-                root.createStatements(baseIRI, theModel, theProject, iRowIndex);
+                root.createStatements(this.getContext(theProject), iRowIndex);
                 this.theModel.leaveCriticalSection();
 
                 if ( Util.isDebugMode() ) {
@@ -67,11 +82,7 @@ public class ExportRDFRowVisitor extends RDFRowVisitor {
                 // Otherwise, large files would use excessive memory!
                 //
                 if ( theModel.size() > Util.getExportLimit() ) {
-                    this.flushStatements();
-                    if ( this.isNoWriter() && bLimitWarning) {
-                        this.bLimitWarning = false;
-                        ExportRDFRowVisitor.logger.warn("WARNING:   Limit Reached: Memory may soon become exhausted!");
-                    }
+                    this.limitStatements();
                 }
             }
 
@@ -0,0 +1,120 @@
+/*
+ *  Class ExportUnits
+ *
+ *  The filtered rows or records of a project collected for an export that
+ *  visits them outside of the engine's visitation.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.FilteredRecords;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+/*
+ * Class ExportUnits
+ *
+ *  An export unit is a row (by row index) or a record.  The units are held in the engine's
+ *  visitation order.
+ */
+class ExportUnits {
+    private final boolean bRecords;
+    private final List<Integer> listRows = new ArrayList<Integer>();
+    private final List<Record> listRecords = new ArrayList<Record>();
+
+    /*
+     * Method collect()
+     *
+     *  Collect the project's filtered rows or records.
+     */
+    static public ExportUnits collect(Project theProject, Engine theEngine) {
+        ExportUnits theUnits = new ExportUnits( theProject.recordModel.hasRecords() );
+        if (theUnits.bRecords) {
+            FilteredRecords filteredRecords = theEngine.getFilteredRecords();
+            filteredRecords.accept(theProject,
+                new RecordVisitor() {
+                    public void start(Project theProject) {}
+                    public void end(Project theProject) {}
+                    public boolean visit(Project theProject, Record theRecord) {
+                        theUnits.listRecords.add(theRecord);
+                        return false;
+                    }
+                }
+            );
+        }
+        else {
+            FilteredRows filteredRows = theEngine.getAllFilteredRows();
+            filteredRows.accept(theProject,
+                new RowVisitor() {
+                    public void start(Project theProject) {}
+                    public void end(Project theProject) {}
+                    public boolean visit(Project theProject, int iRowIndex, Row theRow) {
+                        theUnits.listRows.add(iRowIndex);
+                        return false;
+                    }
+                }
+            );
+        }
+        return theUnits;
+    }
+
+    private ExportUnits(boolean bRecords) {
+        this.bRecords = bRecords;
+    }
+
+    public boolean isRecords() {
+        return this.bRecords;
+    }
+
+    public int size() {
+        return ( this.bRecords ? this.listRecords.size() : this.listRows.size() );
+    }
+
+    public List<Integer> getRows() {
+        return this.listRows;
+    }
+
+    public List<Record> getRecords() {
+        return this.listRecords;
+    }
+
+    /*
+     * Method getKey()
+     *
+     *  Get the unit's key: the row index or the record's first row index.
+     */
+    public int getKey(int iIndex) {
+        return ( this.bRecords ? this.listRecords.get(iIndex).fromRowIndex : this.listRows.get(iIndex) );
+    }
+
+    /*
+     * Method getEnd()
+     *
+     *  Get the row index after the unit's last row.
+     */
+    public int getEnd(int iIndex) {
+        return ( this.bRecords ? this.listRecords.get(iIndex).toRowIndex : this.listRows.get(iIndex) + 1 );
+    }
+}
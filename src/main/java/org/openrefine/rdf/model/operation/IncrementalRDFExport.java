@@ -0,0 +1,613 @@
+/*
+ *  Class IncrementalRDFExport
+ *
+ *  Exports the statements changed since the last incremental export of a
+ *  project as an RDF Patch.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.TransformPlan;
+import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.utils.RDFPatchWriter;
+import org.openrefine.rdf.model.utils.SortedRuns;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.Engine;
+import com.google.refine.io.FileProjectManager;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class IncrementalRDFExport
+ *
+ *  Each export unit (a row or a record) has a content fingerprint: a hash of the unit's cell
+ *  values read by the transform.  When every node uses the plain cell value (see
+ *  TransformPlan.isCellBound()), only the cells in the transform's columns are hashed.
+ *  Otherwise, an expression may read any cell, so all the unit's cells are hashed.
+ *
+ *  The project's export state file holds the transform version (a hash of the transform's
+ *  JSON), the last patch id, and each exported unit's key (the first row index), fingerprint,
+ *  and statements (with the graph for a quad in a named graph):
+ *      RDFT-STATE 2 <version> <patch id>
+ *      U <key> <fingerprint>
+ *      T <s> <p> <o> [<g>]
+ *      ...
+ *  An export visits the filtered units in order alongside the last state.  An unchanged unit
+ *  (same key, fingerprint, and transform version) copies its statements from the last state
+ *  without evaluating the transform.  A changed unit is evaluated, and its old and new
+ *  statements give the candidate deletes and adds.  The statements of units no longer
+ *  exported are candidate deletes.
+ *
+ *  As units may share statements, the candidates are then checked against the statements
+ *  of every unit: a delete is dropped when the new state still holds it and an add is dropped
+ *  when the last state already held it.  The candidates and the state statements are held in
+ *  sorted runs (see SortedRuns) and merged, so memory is bounded by the run size even when,
+ *  e.g., a transform change makes every statement a candidate.  The run size is the sort run
+ *  size preference (see Util.getSortRunSize()) or, when unset, iDEFAULT_RUN_SIZE lines.  The
+ *  patch is written as one transaction and the new state replaces the last state only when
+ *  the export succeeds.  The exports of a project are serialized by a per-project lock, and
+ *  the new state is written to a unique temporary file in the state's directory, then moved
+ *  over the last state.
+ *
+ *  With no last state, every statement is added.  The adds are written as they are made, so
+ *  a statement shared by units may be added more than once (an RDF Patch add is idempotent).
+ *
+ *  NOTE: Blank nodes with generated labels differ on each evaluation, so the blank node
+ *        statements of a changed unit are always deleted and added.
+ */
+public class IncrementalRDFExport {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:IncrementalExport");
+
+    static private final String strSTATE_FILE = "rdf-transform-export.state.gz";
+    static private final String strSTATE_HEADER = "RDFT-STATE 2";
+    static private final String strUNIT = "U ";
+    static private final String strTRIPLE = "T ";
+    static private final int iDEFAULT_RUN_SIZE = 100000;
+
+    // The per-project export locks by project id: removed when the last export ends...
+    static private final ConcurrentMap<Long, ExportLock> mapLocks = new ConcurrentHashMap<Long, ExportLock>();
+
+    private final RDFTransform theTransform;
+    private final RDFPatchWriter thePatch;
+
+    // Metrics...
+    private long lUnits = 0;
+    private long lChanged = 0;
+    private long lDropped = 0;
+
+    /*
+     * Class ExportLock
+     *
+     *  A project's export lock and its count of exports running or waiting.  The count is
+     *  only changed in the lock map's compute(), i.e., atomically for the project id.
+     */
+    static private class ExportLock {
+        private int iExports = 0;
+    }
+
+    /*
+     * Class StateReader
+     *
+     *  Read the units of a state file in order.  The current unit's statements are the only
+     *  statements held in memory.
+     */
+    static private class StateReader implements Closeable {
+        private BufferedReader theReader = null;
+        private String strVersion = null;
+        private String strPatchID = null;
+        private String strLine = null;
+
+        private boolean bUnit = false;
+        private int iKey = -1;
+        private String strFingerprint = null;
+        private List<String> listLines = null;
+
+        StateReader(File fileState)
+                throws IOException {
+            if ( ! fileState.isFile() ) {
+                return;
+            }
+            this.theReader = IncrementalRDFExport.openState(fileState);
+            String strHeader = this.theReader.readLine();
+            String[] astrHeader = ( strHeader == null ? new String[0] : strHeader.split(" ") );
+            if ( astrHeader.length != 4 || ! strHeader.startsWith(IncrementalRDFExport.strSTATE_HEADER + " ") ) {
+                IncrementalRDFExport.logger.warn("WARNING: Ignoring unknown export state: " + fileState.getPath());
+                this.close();
+                return;
+            }
+            this.strVersion = astrHeader[2];
+            this.strPatchID = astrHeader[3];
+            this.strLine = this.theReader.readLine();
+            this.next();
+        }
+
+        boolean hasState() {
+            return (this.strVersion != null);
+        }
+
+        String getVersion() {
+            return this.strVersion;
+        }
+
+        String getPatchID() {
+            return this.strPatchID;
+        }
+
+        boolean hasUnit() {
+            return this.bUnit;
+        }
+
+        int getKey() {
+            return this.iKey;
+        }
+
+        String getFingerprint() {
+            return this.strFingerprint;
+        }
+
+        List<String> getLines() {
+            return this.listLines;
+        }
+
+        void next()
+                throws IOException {
+            this.bUnit = false;
+            if ( this.theReader == null || this.strLine == null || ! this.strLine.startsWith(IncrementalRDFExport.strUNIT) ) {
+                return;
+            }
+            String[] astrUnit = this.strLine.split(" ");
+            this.iKey = Integer.parseInt( astrUnit[1] );
+            this.strFingerprint = astrUnit[2];
+            this.listLines = new ArrayList<String>();
+            while ( ( this.strLine = this.theReader.readLine() ) != null &&
+                    this.strLine.startsWith(IncrementalRDFExport.strTRIPLE) )
+            {
+                this.listLines.add( this.strLine.substring( IncrementalRDFExport.strTRIPLE.length() ) );
+            }
+            this.bUnit = true;
+        }
+
+        @Override
+        public void close()
+                throws IOException {
+            this.bUnit = false;
+            if (this.theReader != null) {
+                this.theReader.close();
+                this.theReader = null;
+            }
+        }
+    }
+
+    public IncrementalRDFExport(RDFTransform theTransform, RDFPatchWriter thePatch) {
+        this.theTransform = theTransform;
+        this.thePatch = thePatch;
+    }
+
+    /*
+     * Method export()
+     *
+     *  Export the patch.  The project's exports run one at a time as each reads and replaces
+     *  the project's export state.  The project's lock is removed when no export holds or
+     *  waits on it.
+     */
+    public void export(Project theProject, Engine theEngine)
+            throws Exception {
+        ExportLock theLock =
+            IncrementalRDFExport.mapLocks.compute( theProject.id,
+                (Long lID, ExportLock lockExport) -> {
+                    ExportLock lockUsed = ( lockExport == null ? new ExportLock() : lockExport );
+                    lockUsed.iExports++;
+                    return lockUsed;
+                } );
+        try {
+            synchronized (theLock) {
+                this.exportLocked(theProject, theEngine);
+            }
+        }
+        finally {
+            IncrementalRDFExport.mapLocks.compute( theProject.id,
+                (Long lID, ExportLock lockExport) -> ( --lockExport.iExports == 0 ? null : lockExport ) );
+        }
+    }
+
+    private void exportLocked(Project theProject, Engine theEngine)
+            throws Exception {
+        //
+        // Collect the filtered rows or records...
+        //
+        ExportUnits theUnits = ExportUnits.collect(theProject, theEngine);
+        boolean bRecords = theUnits.isRecords();
+        int iSize = theUnits.size();
+
+        String strVersion = this.getVersion();
+        File fileState = IncrementalRDFExport.getStateFile(theProject);
+        File fileNewState =
+            Files.createTempFile( fileState.getAbsoluteFile().getParentFile().toPath(), fileState.getName() + ".", ".new" ).toFile();
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+            IncrementalRDFExport.logger.info("Incremental export of " + iSize + ( bRecords ? " records" : " rows" ) +
+                " on state " + fileState.getPath() + "...");
+        }
+
+        boolean bMoved = false;
+        try {
+            this.exportPatch(theProject, theUnits, strVersion, fileState, fileNewState);
+            IncrementalRDFExport.moveState(fileNewState, fileState);
+            bMoved = true;
+        }
+        finally {
+            if ( ! bMoved ) {
+                fileNewState.delete();
+            }
+        }
+
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+            IncrementalRDFExport.logger.info("...exported: units " + this.lUnits +
+                ", changed " + this.lChanged +
+                ", dropped " + this.lDropped +
+                ", adds " + this.thePatch.getAddCount() +
+                ", deletes " + this.thePatch.getDeleteCount());
+        }
+    }
+
+    /*
+     * Method exportPatch()
+     *
+     *  Write the patch and the new state.
+     */
+    private void exportPatch(Project theProject, ExportUnits theUnits, String strVersion, File fileState, File fileNewState)
+            throws Exception {
+        TripleCollector theCollector = new TripleCollector();
+        RDFVisitor theVisitor;
+        if ( theUnits.isRecords() ) {
+            theVisitor = new ExportRDFRecordVisitor(this.theTransform, theCollector);
+        }
+        else {
+            theVisitor = new ExportRDFRowVisitor(this.theTransform, theCollector);
+        }
+
+        int iRunSize = ( Util.getSortRunSize() > 0 ? Util.getSortRunSize() : IncrementalRDFExport.iDEFAULT_RUN_SIZE );
+        try ( SortedRuns runsAdd = new SortedRuns(iRunSize, "rdft-incr-");
+              SortedRuns runsDelete = new SortedRuns(iRunSize, "rdft-incr-") )
+        {
+            this.exportUnits(theProject, theUnits, theVisitor, theCollector, strVersion, fileState, fileNewState,
+                                runsAdd, runsDelete);
+
+            //
+            // Write the patch: the candidates not held by other units...
+            //
+            if ( ! runsDelete.isEmpty() ) {
+                try ( SortedRuns runsHeld = new SortedRuns(iRunSize, "rdft-incr-") ) {
+                    IncrementalRDFExport.readTriples(fileNewState, runsHeld);
+                    this.writeUnheld(runsDelete, runsHeld, false);
+                }
+            }
+            if ( ! runsAdd.isEmpty() ) {
+                try ( SortedRuns runsHeld = new SortedRuns(iRunSize, "rdft-incr-") ) {
+                    IncrementalRDFExport.readTriples(fileState, runsHeld);
+                    this.writeUnheld(runsAdd, runsHeld, true);
+                }
+            }
+            this.thePatch.commit();
+        }
+    }
+
+    /*
+     * Method exportUnits()
+     *
+     *  Write the new state and the patch header.  The candidate adds and deletes are added to
+     *  their sorted runs.  With no last state, the adds are written to the patch.
+     */
+    private void exportUnits(Project theProject, ExportUnits theUnits, RDFVisitor theVisitor, TripleCollector theCollector,
+                                String strVersion, File fileState, File fileNewState,
+                                SortedRuns runsAdd, SortedRuns runsDelete)
+            throws Exception {
+        boolean bRecords = theUnits.isRecords();
+        int iSize = theUnits.size();
+
+        try ( StateReader theState = new StateReader(fileState) ) {
+            boolean bHasState = theState.hasState();
+            // A transform change makes every unit a changed unit...
+            boolean bSameVersion = ( bHasState && strVersion.equals( theState.getVersion() ) );
+
+            theVisitor.start(theProject);
+            TransformPlan thePlan = theVisitor.getPlan();
+            int[] aiCells = ( thePlan.isCellBound() ? IncrementalRDFExport.getCellIndices(theProject, thePlan) : null );
+
+            String strPatchID = UUID.randomUUID().toString();
+            this.thePatch.header("id", strPatchID);
+            if (bHasState) {
+                this.thePatch.header( "prev", theState.getPatchID() );
+            }
+            this.thePatch.begin();
+            this.thePatch.prefixes( thePlan.getNamespaces() );
+
+            try ( Writer theNewState = IncrementalRDFExport.createState(fileNewState) ) {
+                theNewState.write(IncrementalRDFExport.strSTATE_HEADER + " " + strVersion + " " + strPatchID + "\n");
+
+                for (int iIndex = 0; iIndex < iSize; iIndex++) {
+                    int iKey = theUnits.getKey(iIndex);
+                    int iEnd = theUnits.getEnd(iIndex);
+                    String strFingerprint = IncrementalRDFExport.fingerprint(theProject, iKey, iEnd, aiCells);
+                    this.lUnits++;
+
+                    // The earlier units of the last state are no longer exported...
+                    while ( theState.hasUnit() && theState.getKey() < iKey ) {
+                        IncrementalRDFExport.addAll( runsDelete, theState.getLines() );
+                        this.lDropped++;
+                        theState.next();
+                    }
+
+                    // If unchanged, keep the last statements...
+                    List<String> listOld = null;
+                    if ( theState.hasUnit() && theState.getKey() == iKey ) {
+                        listOld = theState.getLines();
+                        boolean bSame = ( bSameVersion && strFingerprint.equals( theState.getFingerprint() ) );
+                        theState.next();
+                        if (bSame) {
+                            IncrementalRDFExport.writeUnit(theNewState, iKey, strFingerprint, listOld);
+                            continue;
+                        }
+                    }
+
+                    // Otherwise, evaluate the changed unit...
+                    this.lChanged++;
+                    boolean bStopped;
+                    if (bRecords) {
+                        bStopped = ( (ExportRDFRecordVisitor) theVisitor ).visit( theProject, theUnits.getRecords().get(iIndex) );
+                    }
+                    else {
+                        bStopped = ( (ExportRDFRowVisitor) theVisitor ).visit( theProject, iKey, theProject.rows.get(iKey) );
+                    }
+                    if (bStopped) {
+                        throw new IOException("Incremental export stopped at row " + iKey);
+                    }
+                    theVisitor.flushBatch();
+                    Set<String> setNew = new LinkedHashSet<String>();
+                    StatementBatch theBatch = theCollector.drainBatch();
+                    for (int iStatement = 0; iStatement < theBatch.size(); iStatement++) {
+                        setNew.add( RDFPatchWriter.toLine( theBatch.getQuad(iStatement) ) );
+                    }
+                    IncrementalRDFExport.writeUnit(theNewState, iKey, strFingerprint, setNew);
+
+                    Set<String> setOld = ( listOld == null ? new HashSet<String>() : new HashSet<String>(listOld) );
+                    for (String strLine : setOld) {
+                        if ( ! setNew.contains(strLine) ) {
+                            runsDelete.add(strLine);
+                        }
+                    }
+                    for (String strLine : setNew) {
+                        if ( ! setOld.contains(strLine) ) {
+                            if (bHasState) {
+                                runsAdd.add(strLine);
+                            }
+                            else {
+                                this.thePatch.add(strLine);
+                            }
+                        }
+                    }
+                }
+
+                // The remaining units of the last state are no longer exported...
+                while ( theState.hasUnit() ) {
+                    IncrementalRDFExport.addAll( runsDelete, theState.getLines() );
+                    this.lDropped++;
+                    theState.next();
+                }
+            }
+        }
+        finally {
+            theVisitor.end(theProject);
+        }
+    }
+
+    /*
+     * Method writeUnheld()
+     *
+     *  Merge (anti-join) the sorted candidates with the sorted held statements and write the
+     *  candidates not held to the patch as adds or deletes.
+     */
+    private void writeUnheld(SortedRuns runsCandidates, SortedRuns runsHeld, boolean bAdd)
+            throws IOException {
+        runsCandidates.open();
+        runsHeld.open();
+        String strHeld = runsHeld.next();
+        String strCandidate;
+        while ( ( strCandidate = runsCandidates.next() ) != null ) {
+            while ( strHeld != null && strHeld.compareTo(strCandidate) < 0 ) {
+                strHeld = runsHeld.next();
+            }
+            if ( strCandidate.equals(strHeld) ) {
+                continue;
+            }
+            if (bAdd) {
+                this.thePatch.add(strCandidate);
+            }
+            else {
+                this.thePatch.delete(strCandidate);
+            }
+        }
+    }
+
+    /*
+     * Method getVersion()
+     *
+     *  Get the transform version: a hash of the transform's JSON.
+     */
+    private String getVersion()
+            throws Exception {
+        String strJSON = ParsingUtilities.mapper.writeValueAsString(this.theTransform);
+        MessageDigest theDigest = MessageDigest.getInstance("SHA-256");
+        byte[] abyteHash = theDigest.digest( strJSON.getBytes(StandardCharsets.UTF_8) );
+        return String.format( "%064x", new BigInteger(1, abyteHash) );
+    }
+
+    static private int[] getCellIndices(Project theProject, TransformPlan thePlan) {
+        List<String> listColumnNames = thePlan.getColumnNames();
+        int[] aiCells = new int[ listColumnNames.size() ];
+        int iSlot = 0;
+        for (String strColumnName : listColumnNames) {
+            Column theColumn = theProject.columnModel.getColumnByName(strColumnName);
+            aiCells[iSlot++] = ( theColumn == null ? -1 : theColumn.getCellIndex() );
+        }
+        return aiCells;
+    }
+
+    /*
+     * Method fingerprint()
+     *
+     *  Hash (64 bit FNV-1a) the cell values of the unit's rows.  When the cell indices are
+     *  null, all the row's cells are hashed.
+     */
+    static private String fingerprint(Project theProject, int iStart, int iEnd, int[] aiCells) {
+        long lHash = 0xcbf29ce484222325L;
+        for (int iRowIndex = iStart; iRowIndex < iEnd && iRowIndex < theProject.rows.size(); iRowIndex++) {
+            Row theRow = theProject.rows.get(iRowIndex);
+            int iCells = ( aiCells == null ? theRow.cells.size() : aiCells.length );
+            for (int iCell = 0; iCell < iCells; iCell++) {
+                int iCellIndex = ( aiCells == null ? iCell : aiCells[iCell] );
+                Object objValue = ( iCellIndex < 0 ? null : theRow.getCellValue(iCellIndex) );
+                if (objValue != null) {
+                    String strValue = objValue.toString();
+                    for (int iChar = 0; iChar < strValue.length(); iChar++) {
+                        lHash = ( lHash ^ strValue.charAt(iChar) ) * 0x100000001b3L;
+                    }
+                }
+                // Separate the cells (and mark a null cell)...
+                lHash = ( lHash ^ ( objValue == null ? 0xFFFE : 0xFFFF ) ) * 0x100000001b3L;
+            }
+            lHash = ( lHash ^ 0xFFFD ) * 0x100000001b3L;
+        }
+        return Long.toHexString(lHash);
+    }
+
+    /*
+     * Method getStateFile()
+     *
+     *  Get the project's export state file in the project's workspace directory.
+     */
+    static private File getStateFile(Project theProject) {
+        File dirState = null;
+        if (ProjectManager.singleton instanceof FileProjectManager) {
+            dirState = ( (FileProjectManager) ProjectManager.singleton ).getProjectDir(theProject.id);
+        }
+        if ( dirState == null || ! dirState.isDirectory() ) {
+            return new File( System.getProperty("java.io.tmpdir"), theProject.id + "-" + IncrementalRDFExport.strSTATE_FILE );
+        }
+        return new File(dirState, IncrementalRDFExport.strSTATE_FILE);
+    }
+
+    /*
+     * Method moveState()
+     *
+     *  Replace the last state with the new state, atomically where the file system allows.
+     */
+    static private void moveState(File fileNewState, File fileState)
+            throws IOException {
+        try {
+            Files.move( fileNewState.toPath(), fileState.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch (AtomicMoveNotSupportedException ex) {
+            Files.move( fileNewState.toPath(), fileState.toPath(), StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+    static private BufferedReader openState(File fileState)
+            throws IOException {
+        return new BufferedReader(
+            new InputStreamReader( new GZIPInputStream( new FileInputStream(fileState), 1 << 16 ), StandardCharsets.UTF_8 ) );
+    }
+
+    static private Writer createState(File fileState)
+            throws IOException {
+        return new BufferedWriter(
+            new OutputStreamWriter( new GZIPOutputStream( new FileOutputStream(fileState), 1 << 16 ), StandardCharsets.UTF_8 ) );
+    }
+
+    static private void writeUnit(Writer theState, int iKey, String strFingerprint, Collection<String> colLines)
+            throws IOException {
+        theState.write(IncrementalRDFExport.strUNIT + iKey + " " + strFingerprint + "\n");
+        for (String strLine : colLines) {
+            theState.write(IncrementalRDFExport.strTRIPLE);
+            theState.write(strLine);
+            theState.write('\n');
+        }
+    }
+
+    static private void addAll(SortedRuns theRuns, List<String> listLines)
+            throws IOException {
+        for (String strLine : listLines) {
+            theRuns.add(strLine);
+        }
+    }
+
+    /*
+     * Method readTriples()
+     *
+     *  Add the statements of a state file to the sorted runs.  The state is ordered by unit,
+     *  so the statements are sorted by the runs.
+     */
+    static private void readTriples(File fileState, SortedRuns theRuns)
+            throws IOException {
+        if ( ! fileState.isFile() ) {
+            return;
+        }
+        try ( BufferedReader theReader = IncrementalRDFExport.openState(fileState) ) {
+            String strLine;
+            while ( ( strLine = theReader.readLine() ) != null ) {
+                if ( strLine.startsWith(IncrementalRDFExport.strTRIPLE) ) {
+                    theRuns.add( strLine.substring( IncrementalRDFExport.strTRIPLE.length() ) );
+                }
+            }
+        }
+    }
+}
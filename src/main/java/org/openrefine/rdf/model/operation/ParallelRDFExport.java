@@ -0,0 +1,247 @@
+/*
+ *  Class ParallelRDFExport
+ *
+ *  Exports the statements for a project's filtered rows or records using
+ *  a pool of threads.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.Util;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+import org.apache.jena.riot.system.StreamRDF;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class ParallelRDFExport
+ *
+ *  The filtered rows (or records) are collected and split into chunks.  Each chunk is
+ *  transformed by a worker on a fixed thread pool.  The workers share the transform's node
+ *  tree; each worker holds an export visitor (and its evaluation context) that writes to an
+ *  in-memory triple list.  The chunk triples are then merged into the writer on the calling
+ *  thread:
+ *    Ordered: chunks are written in row / record order for deterministic output.
+ *    Unordered: chunks are written as they complete.
+ *  The number of chunks in flight is bounded to limit the memory held by pending chunks.
+ */
+public class ParallelRDFExport {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:ParallelExport");
+
+    // The number of rows or records transformed by a worker in one task...
+    static private final int iChunkSize = 1000;
+    // The number of chunks in flight per thread...
+    static private final int iChunksPerThread = 4;
+
+    private final RDFTransform theTransform;
+    private final StreamRDF theWriter;
+    private final int iThreads;
+    private final boolean bOrdered;
+
+    // The first chunk that stopped the export...
+    private final AtomicInteger iStopChunk = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger iThreadCount = new AtomicInteger(0);
+
+    /*
+     * Class Worker
+     *
+     *  A worker's visitor holds the evaluation context for the shared transform.  Workers are
+     *  taken from a pool by a task, so a worker is used by only one thread at a time.
+     */
+    static private class Worker {
+        private final TripleCollector theCollector = new TripleCollector();
+        private final RDFVisitor theVisitor;
+
+        Worker(RDFTransform theTransform, boolean bRecords) {
+            if (bRecords) {
+                this.theVisitor = new ExportRDFRecordVisitor(theTransform, this.theCollector);
+            }
+            else {
+                this.theVisitor = new ExportRDFRowVisitor(theTransform, this.theCollector);
+            }
+        }
+    }
+
+    /*
+     * Class ChunkResult
+     *
+     *  The statements for a chunk.
+     */
+    static private class ChunkResult {
+        private final StatementBatch theBatch;
+
+        ChunkResult(StatementBatch theBatch) {
+            this.theBatch = theBatch;
+        }
+    }
+
+    public ParallelRDFExport(RDFTransform theTransform, StreamRDF theWriter, int iThreads, boolean bOrdered) {
+        this.theTransform = theTransform;
+        this.theWriter = theWriter;
+        this.iThreads = ( iThreads < 1 ? 1 : iThreads );
+        this.bOrdered = bOrdered;
+    }
+
+    public void export(Project theProject, Engine theEngine)
+            throws Exception {
+        //
+        // Collect the filtered rows or records...
+        //
+        ExportUnits theUnits = ExportUnits.collect(theProject, theEngine);
+        boolean bRecords = theUnits.isRecords();
+        final List<Integer> listRows = theUnits.getRows();
+        final List<Record> listRecords = theUnits.getRecords();
+        int iSize = theUnits.size();
+        int iChunks = ( iSize + ParallelRDFExport.iChunkSize - 1 ) / ParallelRDFExport.iChunkSize;
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+            ParallelRDFExport.logger.info("Exporting " + iSize + ( bRecords ? " records" : " rows" ) +
+                " in " + iChunks + " chunks on " + this.iThreads + " threads (" +
+                ( this.bOrdered ? "ordered" : "unordered" ) + ")...");
+        }
+
+        //
+        // Write the prefixes and report missing columns on the calling thread...
+        //
+        RDFVisitor thePrefixVisitor = new ExportRDFRowVisitor(this.theTransform, this.theWriter);
+        thePrefixVisitor.start(theProject);
+
+        //
+        // Create the workers...
+        //
+        int iWorkers = Math.min( this.iThreads, Math.max(iChunks, 1) );
+        BlockingQueue<Worker> queueWorkers = new ArrayBlockingQueue<Worker>(iWorkers);
+        for (int iWorker = 0; iWorker < iWorkers; iWorker++) {
+            queueWorkers.add( new Worker(this.theTransform, bRecords) );
+        }
+
+        ExecutorService theExecutor =
+            Executors.newFixedThreadPool(iWorkers,
+                (Runnable theRunnable) -> {
+                    Thread theThread = new Thread(theRunnable, "RDFT-Export-" + this.iThreadCount.incrementAndGet());
+                    theThread.setDaemon(true);
+                    return theThread;
+                }
+            );
+        CompletionService<ChunkResult> theCompletion = new ExecutorCompletionService<ChunkResult>(theExecutor);
+        Deque<Future<ChunkResult>> queuePending = new ArrayDeque<Future<ChunkResult>>();
+        int iWindow = iWorkers * ParallelRDFExport.iChunksPerThread;
+
+        try {
+            int iNextChunk = 0;
+            while (true) {
+                // Fill the window of chunks in flight up to any stopping chunk...
+                while ( iNextChunk < iChunks && iNextChunk <= this.iStopChunk.get() &&
+                        queuePending.size() < iWindow )
+                {
+                    final int iChunk = iNextChunk;
+                    Callable<ChunkResult> taskChunk =
+                        () -> this.processChunk(theProject, queueWorkers, listRows, listRecords, iChunk, iSize);
+                    // NOTE: Only unordered chunks use the completion queue.  Otherwise, the
+                    //       queue would hold every ordered chunk's results until the end.
+                    queuePending.add(
+                        this.bOrdered ? theExecutor.submit(taskChunk) : theCompletion.submit(taskChunk)
+                    );
+                    iNextChunk++;
+                }
+                if ( queuePending.isEmpty() ) {
+                    break; // ...all chunks written
+                }
+
+                // Take the next chunk in order or as completed...
+                Future<ChunkResult> futureChunk;
+                if (this.bOrdered) {
+                    futureChunk = queuePending.removeFirst();
+                }
+                else {
+                    futureChunk = theCompletion.take();
+                    queuePending.remove(futureChunk);
+                }
+
+                // Merge the chunk into the writer...
+                futureChunk.get().theBatch.writeTo(this.theWriter);
+                SubjectGroupingStreamRDF.endBatch(this.theWriter);
+            }
+        }
+        finally {
+            theExecutor.shutdownNow();
+            theExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            for (Worker theWorker : queueWorkers) {
+                theWorker.theVisitor.end(theProject);
+            }
+            thePrefixVisitor.end(theProject);
+        }
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) ParallelRDFExport.logger.info("...exported.");
+    }
+
+    private ChunkResult processChunk(Project theProject, BlockingQueue<Worker> queueWorkers,
+                                        List<Integer> listRows, List<Record> listRecords,
+                                        int iChunk, int iSize)
+            throws InterruptedException {
+        // Like the serial visitation, skip any chunk after a chunk that stopped the export...
+        if ( iChunk > this.iStopChunk.get() ) {
+            return new ChunkResult( new StatementBatch() );
+        }
+
+        int iStart = iChunk * ParallelRDFExport.iChunkSize;
+        int iEnd = Math.min(iStart + ParallelRDFExport.iChunkSize, iSize);
+        Worker theWorker = queueWorkers.take();
+        try {
+            boolean bStopped = false;
+            for (int iIndex = iStart; iIndex < iEnd && ! bStopped; iIndex++) {
+                if (theWorker.theVisitor instanceof ExportRDFRecordVisitor) {
+                    bStopped =
+                        ( (ExportRDFRecordVisitor) theWorker.theVisitor ).visit( theProject, listRecords.get(iIndex) );
+                }
+                else {
+                    int iRowIndex = listRows.get(iIndex);
+                    bStopped =
+                        ( (ExportRDFRowVisitor) theWorker.theVisitor ).visit( theProject, iRowIndex, theProject.rows.get(iRowIndex) );
+                }
+            }
+            if (bStopped) {
+                this.iStopChunk.accumulateAndGet(iChunk, Math::min);
+            }
+            // Write the worker's batched statements to its collector...
+            theWorker.theVisitor.flushBatch();
+            return new ChunkResult( theWorker.theCollector.drainBatch() );
+        }
+        finally {
+            queueWorkers.put(theWorker);
+        }
+    }
+}
@@ -20,20 +20,23 @@
 
 package org.openrefine.rdf.model.operation;
 
-import java.util.Collection;
+import java.io.IOException;
 import java.util.Map;
 
 import com.google.refine.model.Project;
 
 import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.TransformPlan;
 import org.openrefine.rdf.model.Util;
-import org.openrefine.rdf.model.vocab.Vocabulary;
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.SpillGraph;
 import com.google.refine.browsing.Engine;
 
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
 import org.slf4j.Logger;
@@ -44,62 +47,49 @@ public abstract class RDFVisitor {
 
     private final RDFTransform theTransform;
     private final StreamRDF theWriter;
+    private final TransformPlan thePlan;
     protected final Model theModel;
     protected boolean bLimitWarning = true;
+    private EvaluationContext theContext = null;
+    private BatchingStreamRDF theBatcher = null;
+    private SpillGraph theSpillGraph = null;
+    private Model theSpillModel = null;
 
     public RDFVisitor(RDFTransform theTransform, StreamRDF theWriter) {
         this.theTransform = theTransform;
         this.theWriter = theWriter;
 
-        // Initializing model...
-        this.theModel = ModelFactory.createDefaultModel();
+        // Get the compiled plan for the transform's current revision...
+        this.thePlan = theTransform.getPlan();
 
-        //
-        // Populate the namespaces in the repository...
-        //
-
-        // Prepare Namespaces...
-        String strBaseIRI = this.theTransform.getBaseIRIAsString();
-        Collection<Vocabulary> theNamespaces = this.theTransform.getNamespaces();
-
-        // Check for the BaseIRI (default namespace) in the Prefixed Namespaces...
-        boolean bUseBaseIRI = true; // ...default: use the BaseIRI
-        for (Vocabulary vocab : theNamespaces) {
-            // If the BaseIRI is in the Prefixed Namespace...
-            if ( vocab.getNamespace().equals(strBaseIRI) ) {
-                bUseBaseIRI = false; // ...don't use the BaseIRI!
-                break;
-            }
-        }
-
-        //this.theModel.begin();
-        this.theModel.clearNsPrefixMap();
-        this.theModel.enterCriticalSection(Model.WRITE);
-
-        // Set Default Namespace for repository...
-        if ( bUseBaseIRI && ! strBaseIRI.isEmpty() ) {
-            if ( Util.isDebugMode() ) RDFVisitor.logger.info("DEBUG: Using BaseIRI " + strBaseIRI);
-            this.theModel.setNsPrefix("", strBaseIRI); // ...default namespace
-        }
-        else {
-            if ( Util.isDebugMode() ) RDFVisitor.logger.info("DEBUG: Not using BaseIRI");
-        }
-
-        // Set Prefix Namespaces for repository...
-        for (Vocabulary vocab : theNamespaces) {
-            this.theModel.setNsPrefix( vocab.getPrefix(), vocab.getNamespace() );
-        }
-
-        this.theModel.leaveCriticalSection();
-        //this.theModel.commit();
-        this.theModel.lock();
+        // Initializing model with the plan's namespaces...
+        this.theModel = this.thePlan.createModel();
     }
 
     public RDFTransform getRDFTransform() {
         return this.theTransform;
     }
 
+    /*
+     * Method getPlan()
+     *
+     *  Get the transform plan compiled when the visitor was created.  The visitor runs this
+     *  plan even if the transform changes during the visitation.
+     */
+    public TransformPlan getPlan() {
+        return this.thePlan;
+    }
+
+    /*
+     * Method getModel()
+     *
+     *  Get the model holding the visitation's statements.  If the statements were spilled,
+     *  the model is backed by the spill graph.  Closing the model removes the spill files.
+     */
     public Model getModel() {
+        if (this.theSpillModel != null) {
+            return this.theSpillModel;
+        }
         return this.theModel;
     }
 
@@ -107,6 +97,60 @@ public abstract class RDFVisitor {
         return (this.theWriter == null);
     }
 
+    /*
+     * Method isStreaming()
+     *
+     *  When streaming, the transform nodes write their statements to the writer directly as
+     *  triples.  Otherwise, the statements are added to the model and written to any writer
+     *  by flushStatements().
+     */
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /*
+     * Method getContext()
+     *
+     *  Get the expression evaluation context for the visitation.  The context (and its
+     *  expression bindings) is created once per visitation and reused for every row or record.
+     *  The context holds all evaluation state, so the transform's nodes may be shared by
+     *  visitors on other threads.
+     */
+    protected EvaluationContext getContext(Project theProject) {
+        if ( this.theContext == null || this.theContext.getProject() != theProject ) {
+            this.theContext = this.createContext(theProject);
+        }
+        return this.theContext;
+    }
+
+    private EvaluationContext createContext(Project theProject) {
+        EvaluationContext theNewContext = new EvaluationContext(theProject, this.thePlan, this.theModel);
+        if ( this.isStreaming() ) {
+            // Batch the streamed statements for the writer...
+            if (this.theBatcher == null) {
+                this.theBatcher =
+                    new BatchingStreamRDF(this.theWriter,
+                        Util.getFlushSize(), Util.getFlushCount(), Util.getFlushTime() );
+            }
+            theNewContext.setStream(this.theBatcher);
+        }
+        else if (this.theSpillGraph != null) {
+            theNewContext.setStream( new TripleStreamRDF( StreamRDFLib.graph(this.theSpillGraph) ) );
+        }
+        return theNewContext;
+    }
+
+    /*
+     * Method flushBatch()
+     *
+     *  Write any batched statements to the writer regardless of the flush triggers.
+     */
+    public void flushBatch() {
+        if (this.theBatcher != null) {
+            this.theBatcher.flush();
+        }
+    }
+
     abstract public void buildModel(Project theProject, Engine theEngine);
 
     /**
@@ -117,6 +161,14 @@ public abstract class RDFVisitor {
     public void start(Project theProject) {
         if ( Util.isVerbose(3) ) RDFVisitor.logger.info("Starting Visitation...");
 
+        // Create the evaluation context for the visitation...
+        //   NOTE: This resolves the transform's columns and reports any missing columns
+        //         before any row or record is visited.
+        this.theContext = this.createContext(theProject);
+        for ( String strColumnName : this.theContext.getMissingColumns() ) {
+            RDFVisitor.logger.warn("WARNING: Column not found in project: " + strColumnName);
+        }
+
         // If we do NOT have a writer, let the calling processor control all model activity...
         if ( this.theWriter == null ) {
             return;
@@ -146,12 +198,23 @@ public abstract class RDFVisitor {
      */
     public void end(Project theProject) {
         if ( Util.isVerbose(3) ) RDFVisitor.logger.info("...Ending Visitation");
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFVisitor.logger.info( Util.getExpressionCacheStats() );
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFVisitor.logger.info( Util.getTermDictionaryStats() );
+        if ( this.theContext != null && ( Util.isVerbose(2) || Util.isDebugMode() ) ) {
+            RDFVisitor.logger.info( this.theContext.getIRICacheStats() );
+        }
 
         // If we do NOT have a writer, let the calling processor control all model activity...
         if ( this.theWriter == null ) {
             return;
         }
 
+        // Write any remaining batched statements...
+        if (this.theBatcher != null) {
+            this.theBatcher.flush();
+            if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFVisitor.logger.info( this.theBatcher.getStats() );
+        }
+
         // Close the model automatically...
         try {
             this.theModel.close();
@@ -163,11 +226,88 @@ public abstract class RDFVisitor {
         }
     }
 
+    /*
+     * Method limitStatements()
+     *
+     *  Manage the model when it reaches the export limit.  With a writer, the statements are
+     *  flushed to the writer.  Without a writer, the statements are spilled to a spill graph
+     *  when the export spill preference is set.  Otherwise, memory may soon be exhausted.
+     */
+    protected void limitStatements() {
+        if ( this.theWriter != null ) {
+            this.flushStatements();
+            return;
+        }
+        if ( Util.isExportSpill() ) {
+            this.spillStatements();
+            return;
+        }
+        if (this.bLimitWarning) {
+            this.bLimitWarning = false;
+            RDFVisitor.logger.warn("WARNING:   Limit Reached: Memory may soon become exhausted!");
+        }
+    }
+
+    /*
+     * Method spillStatements()
+     *
+     *  Move the model's statements to the spill graph and send all later statements directly
+     *  to the spill graph.  The model then stays empty.
+     */
+    private void spillStatements() {
+        if (this.theSpillGraph == null) {
+            try {
+                this.theSpillGraph = new SpillGraph();
+            }
+            catch (IOException ex) {
+                RDFVisitor.logger.error("ERROR: Creating Spill Graph: " + ex.getMessage(), ex);
+                if ( Util.isVerbose() || Util.isDebugMode() ) ex.printStackTrace();
+                throw new RuntimeException(ex.getMessage(), ex);
+            }
+            this.theSpillModel = ModelFactory.createModelForGraph(this.theSpillGraph);
+            this.theSpillModel.setNsPrefixes( this.thePlan.getNamespaces() );
+            if (this.theContext != null) {
+                this.theContext.setStream( new TripleStreamRDF( StreamRDFLib.graph(this.theSpillGraph) ) );
+            }
+            if ( Util.isVerbose(2) || Util.isDebugMode() ) RDFVisitor.logger.info("Limit Reached: Spilling statements to disk...");
+        }
+
+        this.theModel.enterCriticalSection(Model.READ);
+        ExtendedIterator<Triple> stmtIter = this.theModel.getGraph().find();
+        try {
+            while ( stmtIter.hasNext() ) {
+                this.theSpillGraph.add( stmtIter.next() );
+            }
+        }
+        finally {
+            stmtIter.close();
+        }
+        this.theModel.leaveCriticalSection();
+
+        this.theModel.enterCriticalSection(Model.WRITE);
+        this.theModel.removeAll();
+        this.theModel.leaveCriticalSection();
+    }
+
+    /*
+     * Method flushStatements()
+     *
+     *  Write the model's statements to the writer and clear the model.  When streaming, the
+     *  statements are already batched for the writer, so the call ends a row or record and
+     *  the batch is written when a flush trigger fires.  See BatchingStreamRDF.
+     */
     protected void flushStatements() {
         if ( this.theWriter == null ) {
             return;
         }
-        // TODO: Code for future context upgrade (quads)
+        if ( this.isStreaming() ) {
+            if (this.theBatcher != null) {
+                this.theBatcher.endUnit();
+            }
+            return;
+        }
+        // NOTE: A model holds one graph, so the statements are written to the default graph.
+        //       Named graph statements are streamed as quads.  See EvaluationContext.addStatement().
 
         // Export statements...
         this.theModel.enterCriticalSection(Model.READ);
@@ -181,6 +321,7 @@ public abstract class RDFVisitor {
             stmtIter.close();
         }
         this.theModel.leaveCriticalSection();
+        SubjectGroupingStreamRDF.endBatch(this.theWriter);
 
         // Remove the exported statements from the model...
         this.theModel.enterCriticalSection(Model.WRITE);
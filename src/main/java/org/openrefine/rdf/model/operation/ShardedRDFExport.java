@@ -0,0 +1,460 @@
+/*
+ *  Class ShardedRDFExport
+ *
+ *  Exports the transform's statements to many shard files, each written by its
+ *  own worker, and writes a manifest of the shards.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.Util;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.sparql.core.Quad;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class ShardedRDFExport
+ *
+ *  The filtered rows (or records) are collected and the statements are split over a number of
+ *  shard files so bulk loaders may read the shards in parallel.  The split is either:
+ *    Row Range: shard N holds the statements of the Nth contiguous range of rows or records.
+ *               Each shard's worker transforms its range and writes its shard.
+ *    Subject Hash: shard N holds the statements with a subject hashing to N, so all of a
+ *               subject's statements are in one shard.  A generator per range transforms
+ *               its range and routes the statements in batches to the shard queues.  Each
+ *               shard's worker writes its queued statements.
+ *  Each shard is a complete file of the format with the transform's prefixes.
+ *
+ *  The manifest (see writeManifest()) lists each shard's file and statement count.
+ */
+public class ShardedRDFExport {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:ShardedExport");
+
+    static public final String strMANIFEST = "manifest.json";
+
+    // The statements routed to a shard queue at once...
+    static private final int iBatchSize = 1000;
+    // The batches queued per shard...
+    static private final int iQueueSize = 16;
+    // The end of a shard queue...
+    static private final StatementBatch batchEND = new StatementBatch(0);
+
+    private final RDFTransform theTransform;
+    private final RDFFormat theFormat;
+    private final int iShards;
+    private final boolean bBySubject;
+
+    private final List<File> listFiles = new ArrayList<File>();
+    private final long[] alTriples;
+    private final AtomicBoolean bFailed = new AtomicBoolean(false);
+    private final AtomicInteger iThreadCount = new AtomicInteger(0);
+
+    /*
+     * Class CountingStreamRDF
+     *
+     *  Counts the statements written to a shard.  The shard's writer is the format's writer,
+     *  so a triple format writes the quads as triples.  See TripleStreamRDF.
+     */
+    static private class CountingStreamRDF extends StreamRDFWrapper {
+        private long lTriples = 0;
+
+        CountingStreamRDF(StreamRDF theWriter) {
+            super(theWriter);
+        }
+
+        @Override
+        public void triple(Triple theTriple) {
+            this.lTriples++;
+            super.triple(theTriple);
+        }
+
+        @Override
+        public void quad(Quad theQuad) {
+            this.lTriples++;
+            super.quad(theQuad);
+        }
+    }
+
+    /*
+     * Class ShardRouter
+     *
+     *  Routes a generator's statements to the shard queues by subject hash.  Prefixes are written
+     *  by the shard workers, so they are ignored here.
+     */
+    private class ShardRouter extends StreamRDFBase {
+        private final List<BlockingQueue<StatementBatch>> listQueues;
+        private final List<StatementBatch> listBatches = new ArrayList<StatementBatch>();
+
+        ShardRouter(List<BlockingQueue<StatementBatch>> listQueues) {
+            this.listQueues = listQueues;
+            for (int iShard = 0; iShard < listQueues.size(); iShard++) {
+                this.listBatches.add( new StatementBatch(ShardedRDFExport.iBatchSize) );
+            }
+        }
+
+        @Override
+        public void triple(Triple theTriple) {
+            int iShard = this.getShard( theTriple.getSubject() );
+            StatementBatch theBatch = this.listBatches.get(iShard);
+            theBatch.add(theTriple);
+            if (theBatch.size() >= ShardedRDFExport.iBatchSize) {
+                this.send(iShard);
+            }
+        }
+
+        @Override
+        public void quad(Quad theQuad) {
+            int iShard = this.getShard( theQuad.getSubject() );
+            StatementBatch theBatch = this.listBatches.get(iShard);
+            theBatch.add(theQuad);
+            if (theBatch.size() >= ShardedRDFExport.iBatchSize) {
+                this.send(iShard);
+            }
+        }
+
+        private int getShard(Node theSubject) {
+            return Math.floorMod( theSubject.hashCode(), this.listQueues.size() );
+        }
+
+        @Override
+        public void finish() {
+            for (int iShard = 0; iShard < this.listQueues.size(); iShard++) {
+                if ( ! this.listBatches.get(iShard).isEmpty() ) {
+                    this.send(iShard);
+                }
+            }
+        }
+
+        private void send(int iShard) {
+            StatementBatch theBatch = this.listBatches.get(iShard);
+            this.listBatches.set( iShard, new StatementBatch(ShardedRDFExport.iBatchSize) );
+            try {
+                ShardedRDFExport.this.put( this.listQueues.get(iShard), theBatch );
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Shard routing interrupted", ex);
+            }
+        }
+    }
+
+    public ShardedRDFExport(RDFTransform theTransform, RDFFormat theFormat, int iShards, boolean bBySubject) {
+        this.theTransform = theTransform;
+        this.theFormat = theFormat;
+        this.iShards = ( iShards < 1 ? 1 : iShards );
+        this.bBySubject = bBySubject;
+        this.alTriples = new long[this.iShards];
+    }
+
+    /*
+     * Method export()
+     *
+     *  Write the shard files to the directory as "<strName>-<N>.<ext>".  The shard files are
+     *  listed by getFiles().
+     */
+    public void export(Project theProject, Engine theEngine, File dirShards, String strName)
+            throws Exception {
+        ExportUnits theUnits = ExportUnits.collect(theProject, theEngine);
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+            ShardedRDFExport.logger.info("Sharded export of " + theUnits.size() + ( theUnits.isRecords() ? " records" : " rows" ) +
+                " to " + this.iShards + " shards by " + ( this.bBySubject ? "subject hash" : "row range" ) + "...");
+        }
+
+        String strExtension = this.theFormat.getLang().getFileExtensions().get(0);
+        for (int iShard = 0; iShard < this.iShards; iShard++) {
+            this.listFiles.add( new File( dirShards, String.format("%s-%05d.%s", strName, iShard, strExtension) ) );
+        }
+
+        int iThreads = ( this.bBySubject ? this.iShards * 2 : this.iShards );
+        ExecutorService theExecutor =
+            Executors.newFixedThreadPool(iThreads,
+                (Runnable theRunnable) -> {
+                    Thread theThread = new Thread(theRunnable, "RDFT-Shard-" + this.iThreadCount.incrementAndGet());
+                    theThread.setDaemon(true);
+                    return theThread;
+                }
+            );
+        try {
+            if (this.bBySubject) {
+                this.exportBySubject(theProject, theUnits, theExecutor);
+            }
+            else {
+                this.exportByRange(theProject, theUnits, theExecutor);
+            }
+        }
+        finally {
+            theExecutor.shutdownNow();
+            theExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) ShardedRDFExport.logger.info("...exported " + this.getTripleCount() + " statements.");
+    }
+
+    private void exportByRange(Project theProject, ExportUnits theUnits, ExecutorService theExecutor)
+            throws Exception {
+        List<Future<Void>> listFutures = new ArrayList<Future<Void>>();
+        for (int iShard = 0; iShard < this.iShards; iShard++) {
+            final int iThisShard = iShard;
+            Callable<Void> taskShard =
+                () -> {
+                    try ( OutputStream theOutput = this.openShard(iThisShard) ) {
+                        CountingStreamRDF theCounter = this.startShard(theOutput);
+                        this.generate( theProject, theUnits, iThisShard, theCounter );
+                        theCounter.finish();
+                        this.alTriples[iThisShard] = theCounter.lTriples;
+                    }
+                    catch (Exception ex) {
+                        // Stop the other shards' workers...
+                        this.bFailed.set(true);
+                        throw ex;
+                    }
+                    return null;
+                };
+            listFutures.add( theExecutor.submit(taskShard) );
+        }
+        this.await(listFutures);
+    }
+
+    private void exportBySubject(Project theProject, ExportUnits theUnits, ExecutorService theExecutor)
+            throws Exception {
+        List<BlockingQueue<StatementBatch>> listQueues = new ArrayList<BlockingQueue<StatementBatch>>();
+        for (int iShard = 0; iShard < this.iShards; iShard++) {
+            listQueues.add( new ArrayBlockingQueue<StatementBatch>(ShardedRDFExport.iQueueSize) );
+        }
+
+        // Start the shard workers...
+        List<Future<Void>> listWriters = new ArrayList<Future<Void>>();
+        for (int iShard = 0; iShard < this.iShards; iShard++) {
+            final int iThisShard = iShard;
+            final BlockingQueue<StatementBatch> queueShard = listQueues.get(iShard);
+            Callable<Void> taskShard =
+                () -> {
+                    try ( OutputStream theOutput = this.openShard(iThisShard) ) {
+                        CountingStreamRDF theCounter = this.startShard(theOutput);
+                        while (true) {
+                            StatementBatch theBatch = queueShard.poll(100, TimeUnit.MILLISECONDS);
+                            if (theBatch == null) {
+                                if ( this.bFailed.get() ) {
+                                    throw new IOException("Shard " + iThisShard + " stopped: export failed");
+                                }
+                                continue;
+                            }
+                            if (theBatch == ShardedRDFExport.batchEND) {
+                                break;
+                            }
+                            theBatch.writeTo(theCounter);
+                        }
+                        theCounter.finish();
+                        this.alTriples[iThisShard] = theCounter.lTriples;
+                    }
+                    catch (Exception ex) {
+                        this.bFailed.set(true);
+                        throw ex;
+                    }
+                    return null;
+                };
+            listWriters.add( theExecutor.submit(taskShard) );
+        }
+
+        // Start the generators...
+        List<Future<Void>> listGenerators = new ArrayList<Future<Void>>();
+        for (int iRange = 0; iRange < this.iShards; iRange++) {
+            final int iThisRange = iRange;
+            Callable<Void> taskRange =
+                () -> {
+                    try {
+                        ShardRouter theRouter = new ShardRouter(listQueues);
+                        this.generate(theProject, theUnits, iThisRange, theRouter);
+                        theRouter.finish();
+                    }
+                    catch (Exception ex) {
+                        this.bFailed.set(true);
+                        throw ex;
+                    }
+                    return null;
+                };
+            listGenerators.add( theExecutor.submit(taskRange) );
+        }
+        this.await(listGenerators);
+
+        // End the shard queues...
+        for (BlockingQueue<StatementBatch> queueShard : listQueues) {
+            this.put(queueShard, ShardedRDFExport.batchEND);
+        }
+        this.await(listWriters);
+    }
+
+    /*
+     * Method generate()
+     *
+     *  Transform a range of the rows or records to the writer.
+     */
+    private void generate(Project theProject, ExportUnits theUnits, int iRange, StreamRDF theWriter) {
+        int iSize = theUnits.size();
+        int iStart = (int) ( (long) iSize * iRange / this.iShards );
+        int iEnd = (int) ( (long) iSize * (iRange + 1) / this.iShards );
+
+        RDFVisitor theVisitor;
+        if ( theUnits.isRecords() ) {
+            theVisitor = new ExportRDFRecordVisitor(this.theTransform, theWriter);
+        }
+        else {
+            theVisitor = new ExportRDFRowVisitor(this.theTransform, theWriter);
+        }
+        theVisitor.start(theProject);
+        try {
+            boolean bStopped = false;
+            for (int iIndex = iStart; iIndex < iEnd && ! bStopped; iIndex++) {
+                if ( this.bFailed.get() ) {
+                    throw new RuntimeException("Range " + iRange + " stopped: export failed");
+                }
+                if ( theUnits.isRecords() ) {
+                    bStopped =
+                        ( (ExportRDFRecordVisitor) theVisitor ).visit( theProject, theUnits.getRecords().get(iIndex) );
+                }
+                else {
+                    int iRowIndex = theUnits.getRows().get(iIndex);
+                    bStopped =
+                        ( (ExportRDFRowVisitor) theVisitor ).visit( theProject, iRowIndex, theProject.rows.get(iRowIndex) );
+                }
+            }
+        }
+        finally {
+            theVisitor.end(theProject);
+        }
+    }
+
+    private OutputStream openShard(int iShard)
+            throws IOException {
+        return new BufferedOutputStream( new FileOutputStream( this.listFiles.get(iShard) ), 65536 );
+    }
+
+    private CountingStreamRDF startShard(OutputStream theOutput)
+            throws IOException {
+        StreamRDF theWriter = StreamRDFWriter.getWriterStream(theOutput, this.theFormat);
+        if (theWriter == null) {
+            throw new IOException("ERROR: The writer is invalid! Cannot construct shard.");
+        }
+        CountingStreamRDF theCounter = new CountingStreamRDF( TripleStreamRDF.forFormat(theWriter, this.theFormat) );
+        theCounter.start();
+        if (this.bBySubject) {
+            for ( Map.Entry<String, String> entryPrefix : this.theTransform.getPlan().getNamespaces().entrySet() ) {
+                theCounter.prefix( entryPrefix.getKey(), entryPrefix.getValue() );
+            }
+        }
+        return theCounter;
+    }
+
+    private void put(BlockingQueue<StatementBatch> queueShard, StatementBatch theBatch)
+            throws InterruptedException {
+        while ( ! queueShard.offer(theBatch, 100, TimeUnit.MILLISECONDS) ) {
+            if ( this.bFailed.get() ) {
+                throw new RuntimeException("Shard queue stopped: export failed");
+            }
+        }
+    }
+
+    private void await(List<Future<Void>> listFutures)
+            throws Exception {
+        for (Future<Void> theFuture : listFutures) {
+            try {
+                theFuture.get();
+            }
+            catch (ExecutionException ex) {
+                this.bFailed.set(true);
+                Throwable theCause = ex.getCause();
+                if (theCause instanceof Exception) {
+                    throw (Exception) theCause;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    public List<File> getFiles() {
+        return this.listFiles;
+    }
+
+    public long getTripleCount() {
+        long lTotal = 0;
+        for (long lTriples : this.alTriples) {
+            lTotal += lTriples;
+        }
+        return lTotal;
+    }
+
+    /*
+     * Method writeManifest()
+     *
+     *  Write the manifest as JSON:
+     *      { "format" : "...", "split" : "rows" | "subject", "triples" : N,
+     *        "shards" : [ { "file" : "...", "triples" : N }, ... ] }
+     */
+    public void writeManifest(OutputStream theOutput, String strFormatName)
+            throws IOException {
+        JsonGenerator jsonWriter = ParsingUtilities.mapper.getFactory().createGenerator(theOutput, JsonEncoding.UTF8);
+        jsonWriter.writeStartObject();
+        jsonWriter.writeStringField("format", strFormatName);
+        jsonWriter.writeStringField("split", this.bBySubject ? "subject" : "rows");
+        jsonWriter.writeNumberField( "triples", this.getTripleCount() );
+        jsonWriter.writeArrayFieldStart("shards");
+        for (int iShard = 0; iShard < this.iShards; iShard++) {
+            jsonWriter.writeStartObject();
+            jsonWriter.writeStringField( "file", this.listFiles.get(iShard).getName() );
+            jsonWriter.writeNumberField( "triples", this.alTriples[iShard] );
+            jsonWriter.writeEndObject();
+        }
+        jsonWriter.writeEndArray();
+        jsonWriter.writeEndObject();
+        jsonWriter.flush();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Class StatementBatch
+ *
+ *  A list of statements held for an export writer: triples and quads (triples
+ *  in a named graph) in stream order.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.sparql.core.Quad;
+
+/*
+ * Class StatementBatch
+ *
+ *  A quad is held as its triple and its graph.  The graph list is created on the first quad
+ *  and holds null for each triple, so a batch of only triples holds no graph list.
+ */
+class StatementBatch {
+    private final List<Triple> listTriples;
+    private List<Node> listGraphs = null;
+
+    StatementBatch() {
+        this.listTriples = new ArrayList<Triple>();
+    }
+
+    StatementBatch(int iCapacity) {
+        this.listTriples = new ArrayList<Triple>(iCapacity);
+    }
+
+    public void add(Triple theTriple) {
+        this.listTriples.add(theTriple);
+        if (this.listGraphs != null) {
+            this.listGraphs.add(null);
+        }
+    }
+
+    public void add(Quad theQuad) {
+        if (this.listGraphs == null) {
+            this.listGraphs = new ArrayList<Node>( this.listTriples.size() + 16 );
+            for (int iIndex = 0; iIndex < this.listTriples.size(); iIndex++) {
+                this.listGraphs.add(null);
+            }
+        }
+        this.listTriples.add( theQuad.asTriple() );
+        this.listGraphs.add( theQuad.getGraph() );
+    }
+
+    public int size() {
+        return this.listTriples.size();
+    }
+
+    public boolean isEmpty() {
+        return this.listTriples.isEmpty();
+    }
+
+    public Triple getTriple(int iIndex) {
+        return this.listTriples.get(iIndex);
+    }
+
+    /*
+     * Method getGraph()
+     *
+     *  Get the statement's graph.  Returns null for a triple.
+     */
+    public Node getGraph(int iIndex) {
+        return ( this.listGraphs == null ? null : this.listGraphs.get(iIndex) );
+    }
+
+    /*
+     * Method getQuad()
+     *
+     *  Get the statement as a quad.  A triple is given in the default graph.
+     */
+    public Quad getQuad(int iIndex) {
+        Node theGraph = this.getGraph(iIndex);
+        return Quad.create( ( theGraph == null ? Quad.defaultGraphNodeGenerated : theGraph ), this.listTriples.get(iIndex) );
+    }
+
+    /*
+     * Method writeTo()
+     *
+     *  Write the statements to the writer in order: triples as triples, quads as quads.
+     */
+    public void writeTo(StreamRDF theWriter) {
+        int iSize = this.listTriples.size();
+        if (this.listGraphs == null) {
+            for (int iIndex = 0; iIndex < iSize; iIndex++) {
+                theWriter.triple( this.listTriples.get(iIndex) );
+            }
+            return;
+        }
+        for (int iIndex = 0; iIndex < iSize; iIndex++) {
+            Node theGraph = this.listGraphs.get(iIndex);
+            if (theGraph == null) {
+                theWriter.triple( this.listTriples.get(iIndex) );
+            }
+            else {
+                theWriter.quad( Quad.create( theGraph, this.listTriples.get(iIndex) ) );
+            }
+        }
+    }
+
+    public void clear() {
+        this.listTriples.clear();
+        this.listGraphs = null;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *  Class SubjectGroupingStreamRDF
+ *
+ *  A StreamRDF wrapper that groups each batch of statements by subject and
+ *  predicate for the block writers.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.core.Quad;
+
+/*
+ * Class SubjectGroupingStreamRDF
+ *
+ *  The Turtle and TriG block writers abbreviate consecutive statements: the same subject with
+ *  ";" and the same subject and predicate with ",".  The transform writes a row's statements
+ *  node by node, so a subject's statements are rarely consecutive.  The grouping stream holds
+ *  a batch of statements and writes them grouped by subject, then by predicate, each in first
+ *  seen order, so the block writers abbreviate them.  Quads are first grouped by graph (the
+ *  triples are the null graph) so the TriG block writer writes each graph once per batch.
+ *
+ *  A batch ends when endBatch() is called on the stream: by BatchingStreamRDF as it writes a
+ *  batch, by RDFVisitor as it writes a row or record model, and by ParallelRDFExport as it
+ *  writes a chunk.  Prefixes, base IRIs, and finish() end the batch first to keep the stream
+ *  order.  Only one batch is held, so memory is bounded by the batch size.
+ *
+ *  NOTE: A grouping stream is used by one thread, so it is not thread-safe.
+ */
+public class SubjectGroupingStreamRDF extends StreamRDFWrapper {
+    private Map<Node, Map<Node, List<Triple>>> mapGraphs = new LinkedHashMap<Node, Map<Node, List<Triple>>>();
+    private int iSize = 0;
+
+    public SubjectGroupingStreamRDF(StreamRDF theWriter) {
+        super(theWriter);
+    }
+
+    /*
+     * Method isGrouped()
+     *
+     *  The block formats abbreviate grouped statements.
+     */
+    static public boolean isGrouped(RDFFormat theFormat) {
+        return ( RDFFormat.TURTLE_BLOCKS.equals(theFormat) || RDFFormat.TRIG_BLOCKS.equals(theFormat) );
+    }
+
+    /*
+     * Method endBatch()
+     *
+     *  End the current batch on a writer if the writer groups statements.
+     */
+    static public void endBatch(StreamRDF theWriter) {
+        if (theWriter instanceof SubjectGroupingStreamRDF) {
+            ( (SubjectGroupingStreamRDF) theWriter ).flush();
+        }
+    }
+
+    @Override
+    public void triple(Triple theTriple) {
+        this.add(null, theTriple);
+    }
+
+    @Override
+    public void quad(Quad theQuad) {
+        this.add( theQuad.getGraph(), theQuad.asTriple() );
+    }
+
+    private void add(Node theGraph, Triple theTriple) {
+        this.mapGraphs
+            .computeIfAbsent( theGraph, (Node nodeKey) -> new LinkedHashMap<Node, List<Triple>>() )
+            .computeIfAbsent( theTriple.getSubject(), (Node nodeKey) -> new ArrayList<Triple>(4) )
+            .add(theTriple);
+        this.iSize++;
+    }
+
+    @Override
+    public void prefix(String strPrefix, String strIRI) {
+        this.flush();
+        super.prefix(strPrefix, strIRI);
+    }
+
+    @Override
+    public void base(String strBase) {
+        this.flush();
+        super.base(strBase);
+    }
+
+    @Override
+    public void finish() {
+        this.flush();
+        super.finish();
+    }
+
+    /*
+     * Method flush()
+     *
+     *  Write the batch grouped by graph, subject, and predicate.
+     */
+    public void flush() {
+        if (this.iSize == 0) {
+            return;
+        }
+        StreamRDF theWriter = this.get();
+        for ( Map.Entry<Node, Map<Node, List<Triple>>> entryGraph : this.mapGraphs.entrySet() ) {
+            Node theGraph = entryGraph.getKey();
+            for ( List<Triple> listSubject : entryGraph.getValue().values() ) {
+                if ( listSubject.size() < 3 ) {
+                    // Two statements or less need no predicate grouping: ordered or not, the
+                    // predicates are either the same and consecutive or different...
+                    for (Triple theTriple : listSubject) {
+                        this.write(theWriter, theGraph, theTriple);
+                    }
+                    continue;
+                }
+                Map<Node, List<Triple>> mapPredicates = new LinkedHashMap<Node, List<Triple>>();
+                for (Triple theTriple : listSubject) {
+                    mapPredicates
+                        .computeIfAbsent( theTriple.getPredicate(), (Node nodeKey) -> new ArrayList<Triple>(2) )
+                        .add(theTriple);
+                }
+                for ( List<Triple> listPredicate : mapPredicates.values() ) {
+                    for (Triple theTriple : listPredicate) {
+                        this.write(theWriter, theGraph, theTriple);
+                    }
+                }
+            }
+        }
+        this.mapGraphs = new LinkedHashMap<Node, Map<Node, List<Triple>>>();
+        this.iSize = 0;
+    }
+
+    private void write(StreamRDF theWriter, Node theGraph, Triple theTriple) {
+        if (theGraph == null) {
+            theWriter.triple(theTriple);
+        }
+        else {
+            theWriter.quad( Quad.create(theGraph, theTriple) );
+        }
+    }
+}
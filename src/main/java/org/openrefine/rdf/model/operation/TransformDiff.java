@@ -0,0 +1,286 @@
+/*
+ *  Class TransformDiff
+ *
+ *  Computes the statements added and deleted by a change from one RDF
+ *  Transform to another on the current project data as an RDF Patch.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.openrefine.rdf.RDFTransform;
+import org.openrefine.rdf.model.ResourceNode;
+import org.openrefine.rdf.model.TransformPlan;
+import org.openrefine.rdf.model.Util;
+import org.openrefine.rdf.model.utils.EvaluationContext;
+import org.openrefine.rdf.model.utils.RDFPatchWriter;
+import org.openrefine.rdf.model.utils.SortedRuns;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class TransformDiff
+ *
+ *  The difference is computed incrementally by root node.  When the base IRI and namespaces
+ *  are unchanged, a root node with the same JSON in both transforms creates the same
+ *  statements in both, so only the changed root nodes are evaluated on each row or record:
+ *  the old transform's changed roots for the old statements and the new transform's changed
+ *  roots for the new statements.  Statements made only by the old roots are deletes and
+ *  statements made only by the new roots are adds.  When the base IRI, namespaces, or graph
+ *  mapping change, every root node is changed.
+ *
+ *  An unchanged root may make a statement deleted from a changed root, so the unchanged
+ *  roots are then evaluated to drop those deletes.  This second pass runs only when there
+ *  are deletes and unchanged roots.  An unchanged root may also make an added statement, but
+ *  an RDF Patch add is idempotent, so the add is kept.
+ *
+ *  The statements are compared in bounded memory by sorted runs (see SortedRuns):
+ *  each statement line of the changed roots is held with its flag (old or new) up to the run
+ *  size, then sorted and spilled to a temporary file.  The merged runs give each statement's
+ *  flags in order, so the adds are written as they are resolved.  The deletes are written as
+ *  resolved too, unless the unchanged roots must drop them: then the deletes and the unchanged
+ *  roots' statements are held in sorted runs and merged, writing the remaining deletes.  The
+ *  run size is the sort run size preference (see Util.getSortRunSize()) or, when unset,
+ *  iDEFAULT_RUN_SIZE lines.  The temporary files grow with the output of the changed roots.
+ *
+ *  NOTE: Blank nodes with generated labels differ on each evaluation, so the blank node
+ *        statements of a changed root are always deleted and added.
+ *  NOTE: Statements are compared with their graphs (see RDFPatchWriter.toLine()), so a graph
+ *        mapping change deletes and adds every statement of a changed root.
+ */
+public class TransformDiff {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:TransformDiff");
+
+    static private final byte byteOLD = 1;
+    static private final byte byteNEW = 2;
+    static private final char cSEP = '\t'; // ...escaped in N-Triples terms, so not in a statement line
+    static private final int iDEFAULT_RUN_SIZE = 100000;
+
+    private final RDFTransform theOldTransform;
+    private final RDFTransform theNewTransform;
+
+    /*
+     * Constructor
+     *
+     *  The old transform may be null, i.e., no transform: every new statement is added.
+     */
+    public TransformDiff(RDFTransform theOldTransform, RDFTransform theNewTransform) {
+        this.theOldTransform = theOldTransform;
+        this.theNewTransform = theNewTransform;
+    }
+
+    public void write(Project theProject, Engine theEngine, RDFPatchWriter thePatch)
+            throws Exception {
+        TransformPlan theNewPlan = this.theNewTransform.getPlan();
+        TransformPlan theOldPlan = ( this.theOldTransform == null ? null : this.theOldTransform.getPlan() );
+
+        //
+        // Split the roots into changed and unchanged roots...
+        //
+        List<ResourceNode> listOldChanged = new ArrayList<ResourceNode>();
+        List<ResourceNode> listNewChanged = new ArrayList<ResourceNode>();
+        List<ResourceNode> listUnchanged = new ArrayList<ResourceNode>();
+        boolean bSameContext =
+            ( theOldPlan != null &&
+              theOldPlan.getNamespaces().equals( theNewPlan.getNamespaces() ) &&
+              Objects.equals(
+                ( theOldPlan.getBaseIRI() == null ? null : theOldPlan.getBaseIRI().toString() ),
+                ( theNewPlan.getBaseIRI() == null ? null : theNewPlan.getBaseIRI().toString() ) ) &&
+              Objects.equals( TransformDiff.toJSON( theOldPlan.getGraph() ), TransformDiff.toJSON( theNewPlan.getGraph() ) ) );
+        if (bSameContext) {
+            Map<String, List<ResourceNode>> mapOldRoots = new HashMap<String, List<ResourceNode>>();
+            for ( ResourceNode nodeRoot : theOldPlan.getRoots() ) {
+                mapOldRoots.computeIfAbsent( TransformDiff.toJSON(nodeRoot), (String strKey) -> new ArrayList<ResourceNode>() )
+                    .add(nodeRoot);
+            }
+            for ( ResourceNode nodeRoot : theNewPlan.getRoots() ) {
+                List<ResourceNode> listSame = mapOldRoots.get( TransformDiff.toJSON(nodeRoot) );
+                if ( listSame == null || listSame.isEmpty() ) {
+                    listNewChanged.add(nodeRoot);
+                }
+                else {
+                    listSame.remove(0);
+                    listUnchanged.add(nodeRoot);
+                }
+            }
+            for ( List<ResourceNode> listRoots : mapOldRoots.values() ) {
+                listOldChanged.addAll(listRoots);
+            }
+        }
+        else {
+            if (theOldPlan != null) {
+                listOldChanged.addAll( theOldPlan.getRoots() );
+            }
+            listNewChanged.addAll( theNewPlan.getRoots() );
+        }
+
+        ExportUnits theUnits = ExportUnits.collect(theProject, theEngine);
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+            TransformDiff.logger.info("Transform diff on " + theUnits.size() + ( theUnits.isRecords() ? " records" : " rows" ) +
+                ": roots old changed " + listOldChanged.size() +
+                ", new changed " + listNewChanged.size() +
+                ", unchanged " + listUnchanged.size() + "...");
+        }
+
+        TripleCollector theCollector = new TripleCollector();
+        EvaluationContext theOldContext = null;
+        if (theOldPlan != null) {
+            theOldContext = new EvaluationContext( theProject, theOldPlan, theOldPlan.createModel() );
+            theOldContext.setStream(theCollector);
+        }
+        EvaluationContext theNewContext = new EvaluationContext( theProject, theNewPlan, theNewPlan.createModel() );
+        theNewContext.setStream(theCollector);
+        for ( String strColumnName : theNewContext.getMissingColumns() ) {
+            TransformDiff.logger.warn("WARNING: Column not found in project: " + strColumnName);
+        }
+
+        int iRunSize = ( Util.getSortRunSize() > 0 ? Util.getSortRunSize() : TransformDiff.iDEFAULT_RUN_SIZE );
+        boolean bFilterDeletes = ! listUnchanged.isEmpty();
+
+        thePatch.header( "id", UUID.randomUUID().toString() );
+        thePatch.begin();
+        thePatch.prefixes( theNewPlan.getNamespaces() );
+
+        try ( SortedRuns runsFlagged = new SortedRuns(iRunSize, "rdft-diff-");
+              SortedRuns runsDeletes = new SortedRuns(iRunSize, "rdft-diff-") )
+        {
+            //
+            // Flag the statements made by the changed roots...
+            //
+            for (int iIndex = 0; iIndex < theUnits.size(); iIndex++) {
+                if (theOldContext != null) {
+                    TransformDiff.createStatements(theOldContext, listOldChanged, theUnits, iIndex);
+                    TransformDiff.flag( runsFlagged, theCollector.drainBatch(), TransformDiff.byteOLD );
+                }
+                TransformDiff.createStatements(theNewContext, listNewChanged, theUnits, iIndex);
+                TransformDiff.flag( runsFlagged, theCollector.drainBatch(), TransformDiff.byteNEW );
+            }
+
+            //
+            // Resolve the flags by statement: write the adds and the deletes...
+            //
+            runsFlagged.open();
+            String strFlagged = runsFlagged.next();
+            while (strFlagged != null) {
+                int iLength = strFlagged.length() - 2;
+                String strLine = strFlagged.substring(0, iLength);
+                byte byteFlags = 0;
+                do {
+                    byteFlags |= (byte) ( strFlagged.charAt(iLength + 1) - '0' );
+                    strFlagged = runsFlagged.next();
+                } while ( strFlagged != null && strFlagged.length() == iLength + 2 &&
+                          strFlagged.startsWith(strLine) );
+
+                if (byteFlags == TransformDiff.byteNEW) {
+                    thePatch.add(strLine);
+                }
+                else if (byteFlags == TransformDiff.byteOLD) {
+                    if (bFilterDeletes) {
+                        runsDeletes.add(strLine);
+                    }
+                    else {
+                        thePatch.delete(strLine);
+                    }
+                }
+            }
+
+            //
+            // Drop the deletes made by the unchanged roots...
+            //
+            if ( bFilterDeletes && ! runsDeletes.isEmpty() ) {
+                try ( SortedRuns runsKept = new SortedRuns(iRunSize, "rdft-diff-") ) {
+                    for (int iIndex = 0; iIndex < theUnits.size(); iIndex++) {
+                        TransformDiff.createStatements(theNewContext, listUnchanged, theUnits, iIndex);
+                        StatementBatch theBatch = theCollector.drainBatch();
+                        for (int iStatement = 0; iStatement < theBatch.size(); iStatement++) {
+                            runsKept.add( RDFPatchWriter.toLine( theBatch.getQuad(iStatement) ) );
+                        }
+                    }
+                    runsDeletes.open();
+                    runsKept.open();
+                    String strKept = runsKept.next();
+                    String strDelete;
+                    while ( ( strDelete = runsDeletes.next() ) != null ) {
+                        while ( strKept != null && strKept.compareTo(strDelete) < 0 ) {
+                            strKept = runsKept.next();
+                        }
+                        if ( ! strDelete.equals(strKept) ) {
+                            thePatch.delete(strDelete);
+                        }
+                    }
+                }
+            }
+        }
+        thePatch.commit();
+
+        if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+            TransformDiff.logger.info("...diff: adds " + thePatch.getAddCount() + ", deletes " + thePatch.getDeleteCount());
+        }
+    }
+
+    static private void createStatements(EvaluationContext theContext, List<ResourceNode> listRoots,
+                                            ExportUnits theUnits, int iIndex) {
+        for (ResourceNode nodeRoot : listRoots) {
+            if ( theUnits.isRecords() ) {
+                nodeRoot.createStatements( theContext, theUnits.getRecords().get(iIndex) );
+            }
+            else {
+                nodeRoot.createStatements( theContext, theUnits.getRows().get(iIndex) );
+            }
+        }
+    }
+
+    /*
+     * Method flag()
+     *
+     *  Add the statement lines with the flag: "<statement line> <TAB> <flag digit>".
+     */
+    static private void flag(SortedRuns runsFlagged, StatementBatch theBatch, byte byteFlag)
+            throws IOException {
+        String strFlag = String.valueOf(TransformDiff.cSEP) + (char) ('0' + byteFlag);
+        for (int iStatement = 0; iStatement < theBatch.size(); iStatement++) {
+            runsFlagged.add( RDFPatchWriter.toLine( theBatch.getQuad(iStatement) ) + strFlag );
+        }
+    }
+
+    static private String toJSON(ResourceNode nodeRoot)
+            throws Exception {
+        if (nodeRoot == null) {
+            return null;
+        }
+        StringWriter theWriter = new StringWriter();
+        JsonGenerator jsonWriter = ParsingUtilities.mapper.getFactory().createGenerator(theWriter);
+        nodeRoot.write(jsonWriter, true);
+        jsonWriter.close();
+        return theWriter.toString();
+    }
+}
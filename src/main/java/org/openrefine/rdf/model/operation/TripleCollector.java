@@ -0,0 +1,52 @@
+/*
+ *  Class TripleCollector
+ *
+ *  A StreamRDF that holds the triples written by an export visitor until
+ *  they are drained.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.Quad;
+
+/*
+ * Class TripleCollector
+ *
+ *  Holds the statements for a chunk, row, or record.  Prefixes are written by the caller, so
+ *  they are ignored here.  Quads are held with their graphs.
+ */
+class TripleCollector extends StreamRDFBase {
+    private StatementBatch theBatch = new StatementBatch();
+
+    @Override
+    public void triple(Triple theTriple) {
+        this.theBatch.add(theTriple);
+    }
+
+    @Override
+    public void quad(Quad theQuad) {
+        this.theBatch.add(theQuad);
+    }
+
+    public StatementBatch drainBatch() {
+        StatementBatch theDrained = this.theBatch;
+        this.theBatch = new StatementBatch();
+        return theDrained;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Class TripleStreamRDF
+ *
+ *  A StreamRDF wrapper that writes quads as triples for a writer of a triple
+ *  format or a graph.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.operation;
+
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.core.Quad;
+
+/*
+ * Class TripleStreamRDF
+ *
+ *  When the transform assigns named graphs, the statements are streamed as quads.  A triple
+ *  format (N-Triples, Turtle, ...) or a graph has no named graphs, so each quad is written as
+ *  its triple.  Otherwise, the triple writers would drop or misformat the quads.
+ */
+public class TripleStreamRDF extends StreamRDFWrapper {
+
+    public TripleStreamRDF(StreamRDF theWriter) {
+        super(theWriter);
+    }
+
+    /*
+     * Method forFormat()
+     *
+     *  Wrap the writer of a triple format.  The writer of a quad format is returned as is.
+     */
+    static public StreamRDF forFormat(StreamRDF theWriter, RDFFormat theFormat) {
+        if ( theFormat == null || RDFLanguages.isQuads( theFormat.getLang() ) ) {
+            return theWriter;
+        }
+        return new TripleStreamRDF(theWriter);
+    }
+
+    @Override
+    public void quad(Quad theQuad) {
+        this.get().triple( theQuad.asTriple() );
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ *  Class EvaluationContext
+ *
+ *  An Evaluation Context utility class to hold the expression bindings used
+ *  to evaluate RDF Transform expressions on a project's data.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.openrefine.rdf.model.TransformPlan;
+import org.openrefine.rdf.model.Util;
+
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.iri.IRI;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.sparql.core.Quad;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class EvaluationContext
+ *
+ *  The bindings for expression evaluation are created once per context, i.e., once per
+ *  export, preview, or worker thread.  Each evaluation only rebinds the row, cell, and
+ *  column for the evaluated cell.
+ *
+ *  When created for a transform plan, the plan's column names are resolved to project
+ *  cell indices once.  Cell nodes then look up their cell index by column slot for each
+ *  row.  Missing columns are known when the context is created, i.e., before any row
+ *  is visited.
+ *
+ *  The context also holds the transform plan and the model or stream receiving the
+ *  statements, so the transform's node tree holds no evaluation state and may be shared
+ *  between contexts.  The graph selected for the current row or record is held with the
+ *  row or record key, so the plan's graph node is evaluated once per row or record.
+ *
+ *  The context caches the resources resolved from the resource node results keyed on the
+ *  prefix and result (the base IRI and namespaces are the plan's).  Failures are cached too,
+ *  so a repeated value, good or bad, is resolved once per context.
+ *
+ *  NOTE: The bindings are updated on each evaluation, so a context must not be shared
+ *        between threads.
+ */
+public class EvaluationContext {
+    static private final Logger logger = LoggerFactory.getLogger("RDFT:EvalContext");
+
+    static private final int iIRICacheSize = 8192;
+    // The cached result of a value that did not resolve to an IRI...
+    static private final Resource resBadIRI = ResourceFactory.createResource();
+
+    private final Project theProject;
+    private final Properties theBindings;
+    private TransformPlan thePlan = null;
+    private Model theModel = null;
+    private StreamRDF theStream = null;
+    private int iGraphKey = -1;
+    private Node theGraph = null;
+    private int[] aiCellIndices = new int[0];
+    private final List<String> listMissingColumns = new ArrayList<String>();
+    private final LRUCache<String, Resource> cacheIRIs = new LRUCache<String, Resource>(EvaluationContext.iIRICacheSize);
+    private long lBadIRIs = 0;
+    private long lBadIRIHits = 0;
+
+    public EvaluationContext(Project theProject) {
+        this.theProject = theProject;
+        // Create the bindings properties for all expressions in this context...
+        //   NOTE: A plan compiles its constants without a project, so no expressions are bound.
+        this.theBindings = ( theProject == null ? null : ExpressionUtils.createBindings(theProject) );
+    }
+
+    public EvaluationContext(Project theProject, TransformPlan thePlan, Model theModel) {
+        this(theProject);
+        this.thePlan = thePlan;
+        this.theModel = theModel;
+        if (theProject != null) {
+            this.bindColumns( thePlan.getColumnNames() );
+        }
+    }
+
+    public Project getProject() {
+        return this.theProject;
+    }
+
+    /*
+     * Method getPlan()
+     *
+     *  Get the compiled transform plan.  Returns null for a context created without a plan.
+     */
+    public TransformPlan getPlan() {
+        return this.thePlan;
+    }
+
+    public IRI getBaseIRI() {
+        if (this.thePlan == null) {
+            return null;
+        }
+        return this.thePlan.getBaseIRI();
+    }
+
+    /*
+     * Method getModel()
+     *
+     *  Get the model that receives the statements created by the transform nodes.
+     */
+    public Model getModel() {
+        return this.theModel;
+    }
+
+    /*
+     * Method setStream()
+     *
+     *  Set a stream to receive the statements as triples directly.  The model then only
+     *  serves the namespace prefixes.
+     */
+    public void setStream(StreamRDF theStream) {
+        this.theStream = theStream;
+    }
+
+    public StreamRDF getStream() {
+        return this.theStream;
+    }
+
+    /*
+     * Method setGraph()
+     *
+     *  Set the graph for the statements of the row or record keyed by its (first) row index.
+     *  A null graph is the default graph.
+     */
+    public void setGraph(int iKey, Node theGraph) {
+        this.iGraphKey = iKey;
+        this.theGraph = theGraph;
+    }
+
+    public boolean hasGraph(int iKey) {
+        return ( iKey >= 0 && this.iGraphKey == iKey );
+    }
+
+    public Node getGraph() {
+        return this.theGraph;
+    }
+
+    /*
+     * Method addStatement()
+     *
+     *  Add a statement created by the transform nodes to the stream, if set, or the model.
+     *  A stream receives the statement as a quad in the current graph, if any.  The model
+     *  holds a single graph, so the graph is not used.
+     */
+    public void addStatement(Resource theSubject, Property theProperty, RDFNode theObject) {
+        if (this.theStream != null) {
+            Triple theTriple = Triple.create( theSubject.asNode(), theProperty.asNode(), theObject.asNode() );
+            if (this.theGraph == null) {
+                this.theStream.triple(theTriple);
+            }
+            else {
+                this.theStream.quad( Quad.create(this.theGraph, theTriple) );
+            }
+        }
+        else {
+            this.theModel.add(theSubject, theProperty, theObject);
+        }
+    }
+
+    /*
+     * Method toIRIKey()
+     *
+     *  Get the IRI cache key for a prefix (or null) and result value.
+     */
+    static public String toIRIKey(String strPrefix, String strValue) {
+        if (strPrefix == null) {
+            return '\u0001' + strValue;
+        }
+        return strPrefix + '\u0000' + strValue;
+    }
+
+    static public boolean isBadIRI(Resource theResource) {
+        return ( theResource == EvaluationContext.resBadIRI );
+    }
+
+    /*
+     * Method getIRI()
+     *
+     *  Get the cached resource for the key.  Returns null on a miss.  A cached failure is
+     *  returned as a bad IRI resource.  See isBadIRI().
+     */
+    public Resource getIRI(String strKey) {
+        Resource theResource = this.cacheIRIs.get(strKey);
+        if ( EvaluationContext.isBadIRI(theResource) ) {
+            this.lBadIRIHits++;
+        }
+        return theResource;
+    }
+
+    /*
+     * Method putIRI()
+     *
+     *  Cache the resource for the key.  A null resource caches a failure.
+     */
+    public void putIRI(String strKey, Resource theResource) {
+        if (theResource == null) {
+            theResource = EvaluationContext.resBadIRI;
+            this.lBadIRIs++;
+        }
+        this.cacheIRIs.put(strKey, theResource);
+    }
+
+    public String getIRICacheStats() {
+        return "IRI Cache: " + this.cacheIRIs.toString() +
+            " failures: { resolved:" + this.lBadIRIs + ", hits:" + this.lBadIRIHits + " }";
+    }
+
+    /*
+     * Method bindColumns()
+     *
+     *  Resolve the given column names to the project's cell indices.  The list index of each
+     *  column name is its column slot.  A missing column resolves to -1 and is returned in
+     *  the missing column list.
+     */
+    public List<String> bindColumns(List<String> listColumnNames) {
+        this.aiCellIndices = new int[ listColumnNames.size() ];
+        this.listMissingColumns.clear();
+        int iSlot = 0;
+        for (String strColumnName : listColumnNames) {
+            this.aiCellIndices[iSlot] = this.findCellIndex(strColumnName);
+            if ( this.aiCellIndices[iSlot] < 0 ) {
+                this.listMissingColumns.add(strColumnName);
+            }
+            iSlot++;
+        }
+        return this.listMissingColumns;
+    }
+
+    public List<String> getMissingColumns() {
+        return this.listMissingColumns;
+    }
+
+    /*
+     * Method getColumnSlot()
+     *
+     *  Get the plan's column slot for the cell node.  Returns -1 for a context created without
+     *  a plan or a node without a slot.  See TransformPlan.getColumnSlot().
+     */
+    public int getColumnSlot(org.openrefine.rdf.model.Node theNode) {
+        if (this.thePlan == null) {
+            return -1;
+        }
+        return this.thePlan.getColumnSlot(theNode);
+    }
+
+    /*
+     * Method getCellIndex()
+     *
+     *  Get the project cell index bound to the column slot.  Returns -1 for an unbound slot.
+     */
+    public int getCellIndex(int iColumnSlot) {
+        if ( iColumnSlot < 0 || iColumnSlot >= this.aiCellIndices.length ) {
+            return -1;
+        }
+        return this.aiCellIndices[iColumnSlot];
+    }
+
+    private int findCellIndex(String strColumnName) {
+        // If a regular column (not a row/record index column)...
+        if ( strColumnName == null || strColumnName.isEmpty() || this.theProject == null ) {
+            return -1;
+        }
+        Column theColumn = this.theProject.columnModel.getColumnByName(strColumnName);
+        if (theColumn == null) {
+            return -1;
+        }
+        return theColumn.getCellIndex();
+    }
+
+    /*
+     * Method evaluateExpression()
+     *
+     *  Evaluate the expression on the cell for the column slot bound by bindColumns().
+     */
+    public Object evaluateExpression(String strExpression, String strColumnName, int iColumnSlot, int iRowIndex)
+            throws ParsingException {
+        int iCellIndex = -1;
+        if ( iColumnSlot >= 0 ) {
+            iCellIndex = this.getCellIndex(iColumnSlot);
+        }
+        // Otherwise, the column is unbound, so resolve it by name...
+        else if ( ! ( strColumnName == null || strColumnName.isEmpty() ) ) {
+            iCellIndex = this.findCellIndex(strColumnName);
+        }
+        return this.evaluate(strExpression, strColumnName, iCellIndex, iRowIndex);
+    }
+
+    /*
+     * Method evaluateExpression()
+     *
+     *  Evaluate the expression on the cell for the column name.
+     */
+    public Object evaluateExpression(String strExpression, String strColumnName, int iRowIndex)
+            throws ParsingException {
+        return this.evaluate(strExpression, strColumnName, this.findCellIndex(strColumnName), iRowIndex);
+    }
+
+    private Object evaluate(String strExpression, String strColumnName, int iCellIndex, int iRowIndex)
+            throws ParsingException {
+        //
+        // Evaluate the expression on the cell and return results...
+        //   NOTE: Here is where we tie the RDF Transform model to the data.
+        //
+        if ( Util.isDebugMode() ) {
+            EvaluationContext.logger.info("DEBUG: evaluateExpression: " +
+                                "Exp: [" + strExpression + "] " +
+                                "Col: [" + strColumnName + "] " +
+                                "Row: [" + iRowIndex     + "]");
+        }
+
+        //
+        if ( strExpression == null || this.theProject == null ) {
+            return null;
+        }
+
+        // Select the row by given row index...
+        Row theRow = null;
+        if ( iRowIndex >= 0 && iRowIndex < this.theProject.rows.size() ) {
+            theRow = this.theProject.rows.get(iRowIndex);
+        }
+
+        // Select the data cell by row and column...
+        Cell theCell = null;
+        if (iCellIndex >= 0 && theRow != null) { // ...for a valid column and row...
+            theCell = theRow.getCell(iCellIndex); // ...get the cell
+        }
+        // Otherwise, create a pseudo-cell...
+        else {
+            theCell = new Cell(iRowIndex, null);
+        }
+
+        // Rebind the cell for expression evaluation...
+        //   NOTE: bind() sets "columnName" only when given, so clear the last node's column
+        //         name for the reused bindings.
+        if (strColumnName == null) {
+            this.theBindings.remove("columnName");
+        }
+        ExpressionUtils.bind(this.theBindings, theRow, iRowIndex, strColumnName, theCell);
+
+        // Get the compiled evaluator for this expression...
+        Evaluable eval = Util.getEvaluable(strExpression);
+
+        // Evaluate the expression on the cell for results...
+        return eval.evaluate(this.theBindings);
+    }
+}
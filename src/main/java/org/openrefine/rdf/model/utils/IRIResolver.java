@@ -0,0 +1,223 @@
+/*
+ *  Class IRIResolver
+ *
+ *  A lightweight IRI resolver for the common http(s) IRIs and simple relative
+ *  local names.  Other IRIs are left to the Jena IRI checker.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+/*
+ * Class IRIResolver
+ *
+ *  The fast path accepts only IRIs that are valid by RFC 3987 without any check the Jena IRI
+ *  checker may report:
+ *    Absolute: "http://" or "https://", a lower case DNS host (no user, no port), and a path,
+ *              query, and fragment of ASCII unreserved, sub-delimiter, ':', '@', '/', and '?'
+ *              characters.  Percent encodings, dot segments, and non-ASCII characters are
+ *              left to the checker.
+ *    Relative: a simple local name of ASCII unreserved characters (not "." or "..") resolved
+ *              on such an absolute base IRI.  By RFC 3986 Section 5.2, the name replaces the
+ *              last segment of the base path and the base query and fragment are dropped.
+ *  An accepted IRI is returned as given, i.e., as the Jena IRI's string.  Otherwise, null is
+ *  returned and the caller resolves the IRI with Jena.
+ *
+ *  NOTE: The fast path is a strict subset of the checker's valid IRIs, so a false return
+ *        only costs the slow path.
+ */
+public class IRIResolver {
+    // Character classes by ASCII code...
+    static private final byte byteUNRESERVED = 1; // ALPHA / DIGIT / "-" / "." / "_" / "~"
+    static private final byte bytePATH = 2;       // unreserved / sub-delims / ":" / "@" / "/"
+    static private final byte byteHOST = 4;       // lower case ALPHA / DIGIT / "-" / "."
+
+    static private final byte[] abyteClasses = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            IRIResolver.abyteClasses[c] = byteUNRESERVED | bytePATH | byteHOST;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            IRIResolver.abyteClasses[c] = byteUNRESERVED | bytePATH;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            IRIResolver.abyteClasses[c] = byteUNRESERVED | bytePATH | byteHOST;
+        }
+        IRIResolver.abyteClasses['-'] = byteUNRESERVED | bytePATH | byteHOST;
+        IRIResolver.abyteClasses['.'] = byteUNRESERVED | bytePATH | byteHOST;
+        IRIResolver.abyteClasses['_'] = byteUNRESERVED | bytePATH;
+        IRIResolver.abyteClasses['~'] = byteUNRESERVED | bytePATH;
+        for ( char c : "!$&'()*+,;=:@/".toCharArray() ) {
+            IRIResolver.abyteClasses[c] = bytePATH;
+        }
+    }
+
+    static private boolean isClass(char c, byte byteClass) {
+        return ( c < 128 && ( IRIResolver.abyteClasses[c] & byteClass ) != 0 );
+    }
+
+    /*
+     * Method resolve()
+     *
+     *  Resolve the IRI on the base IRI string.  Returns null when the fast path cannot decide,
+     *  i.e., the IRI must be resolved by the Jena IRI checker.
+     */
+    static public String resolve(String strBaseIRI, String strIRI) {
+        if ( strIRI == null || strIRI.isEmpty() ) {
+            return null;
+        }
+        if ( IRIResolver.hasHTTPScheme(strIRI) ) {
+            return ( IRIResolver.findPathStart(strIRI) < 0 ? null : strIRI );
+        }
+        if ( strBaseIRI == null || ! IRIResolver.isLocalName(strIRI) ) {
+            return null;
+        }
+        return IRIResolver.resolveLocalName(strBaseIRI, strIRI);
+    }
+
+    /*
+     * Method isAbsolute()
+     *
+     *  Test whether the IRI is an absolute http(s) IRI accepted by the fast path.
+     */
+    static public boolean isAbsolute(String strIRI) {
+        return ( IRIResolver.hasHTTPScheme(strIRI) && IRIResolver.findPathStart(strIRI) >= 0 );
+    }
+
+    static private String resolveLocalName(String strBaseIRI, String strName) {
+        if ( ! IRIResolver.hasHTTPScheme(strBaseIRI) ) {
+            return null;
+        }
+        int iPathStart = IRIResolver.findPathStart(strBaseIRI);
+        if (iPathStart < 0) {
+            return null;
+        }
+        // Find the end of the base path (before any query or fragment)...
+        int iLength = strBaseIRI.length();
+        int iPathEnd = iPathStart;
+        while ( iPathEnd < iLength ) {
+            char c = strBaseIRI.charAt(iPathEnd);
+            if (c == '?' || c == '#') {
+                break;
+            }
+            iPathEnd++;
+        }
+        // No base path: the name is the path...
+        if (iPathEnd == iPathStart) {
+            return new StringBuilder(iPathStart + 1 + strName.length())
+                .append(strBaseIRI, 0, iPathStart).append('/').append(strName).toString();
+        }
+        // Otherwise, replace the last base path segment...
+        int iSlash = strBaseIRI.lastIndexOf('/', iPathEnd - 1);
+        return new StringBuilder(iSlash + 1 + strName.length())
+            .append(strBaseIRI, 0, iSlash + 1).append(strName).toString();
+    }
+
+    static private boolean hasHTTPScheme(String strIRI) {
+        return ( strIRI.startsWith("http://") || strIRI.startsWith("https://") );
+    }
+
+    /*
+     * Method findPathStart()
+     *
+     *  Check an http(s) IRI and return the index of its path (the end of its host).
+     *  Returns -1 when the fast path does not accept the IRI.
+     */
+    static private int findPathStart(String strIRI) {
+        int iLength = strIRI.length();
+        int iHostStart = strIRI.indexOf("//") + 2;
+
+        //
+        // Check the host: dot separated DNS labels of 1 to 63 characters without
+        // leading or trailing dashes or an ACE "--"...
+        //
+        int iIndex = iHostStart;
+        int iLabelStart = iHostStart;
+        char cLast = '.';
+        while (iIndex < iLength) {
+            char c = strIRI.charAt(iIndex);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            if ( ! IRIResolver.isClass(c, byteHOST) ) {
+                return -1;
+            }
+            if (c == '.') {
+                if (cLast == '.' || cLast == '-' || iIndex - iLabelStart > 63) {
+                    return -1;
+                }
+                iLabelStart = iIndex + 1;
+            }
+            else if (c == '-') {
+                if (cLast == '.' || cLast == '-') {
+                    return -1;
+                }
+            }
+            cLast = c;
+            iIndex++;
+        }
+        if ( iIndex == iHostStart || cLast == '.' || cLast == '-' || iIndex - iLabelStart > 63 ) {
+            return -1;
+        }
+        int iPathStart = iIndex;
+
+        //
+        // Check the path, query, and fragment...
+        //
+        boolean bFragment = false;
+        while (iIndex < iLength) {
+            char c = strIRI.charAt(iIndex);
+            if (c == '#') {
+                if (bFragment) {
+                    return -1;
+                }
+                bFragment = true;
+            }
+            else if (c == '?') {
+                // ...query delimiter or query / fragment character...
+            }
+            else if ( ! IRIResolver.isClass(c, bytePATH) ) {
+                return -1;
+            }
+            // Leave the dot segments to the checker...
+            else if ( c == '.' && strIRI.charAt(iIndex - 1) == '/' ) {
+                return -1;
+            }
+            iIndex++;
+        }
+        return iPathStart;
+    }
+
+    /*
+     * Method isLocalName()
+     *
+     *  Test whether the IRI is a simple relative local name accepted by the fast path.
+     */
+    static public boolean isLocalName(String strName) {
+        if ( strName == null || strName.isEmpty() ) {
+            return false;
+        }
+        int iLength = strName.length();
+        for (int iIndex = 0; iIndex < iLength; iIndex++) {
+            if ( ! IRIResolver.isClass( strName.charAt(iIndex), byteUNRESERVED ) ) {
+                return false;
+            }
+        }
+        // Not a dot segment...
+        return ! ( strName.equals(".") || strName.equals("..") );
+    }
+}
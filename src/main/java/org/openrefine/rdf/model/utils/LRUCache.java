@@ -0,0 +1,112 @@
+/*
+ *  Class LRUCache
+ *
+ *  A bounded, Least Recently Used (LRU) cache utility class that tracks hit
+ *  and miss counts.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Class LRUCache
+ *
+ *  A synchronized, size bounded cache.  When the cache is full, the least recently used
+ *  entry is evicted to make room for a new entry.  Hits and misses are counted so the
+ *  effectiveness of the cache can be reported.
+ */
+public class LRUCache<K, V> {
+    private final int iMaxSize;
+    private final LinkedHashMap<K, V> mapCache;
+    private final AtomicLong liHits = new AtomicLong();
+    private final AtomicLong liMisses = new AtomicLong();
+
+    public LRUCache(int iMaxSize) {
+        this.iMaxSize = (iMaxSize > 0 ? iMaxSize : 1);
+        // Access ordered map: the eldest entry is the least recently used...
+        this.mapCache =
+            new LinkedHashMap<K, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return this.size() > LRUCache.this.iMaxSize;
+                }
+            };
+    }
+
+    /*
+     * Method get()
+     *
+     *  Get the cached value for the key and count the hit or miss.
+     *  Returns null on a miss.
+     */
+    public V get(K key) {
+        V value;
+        synchronized (this.mapCache) {
+            value = this.mapCache.get(key);
+        }
+        if (value == null) {
+            this.liMisses.incrementAndGet();
+        }
+        else {
+            this.liHits.incrementAndGet();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        synchronized (this.mapCache) {
+            this.mapCache.put(key, value);
+        }
+    }
+
+    public int size() {
+        synchronized (this.mapCache) {
+            return this.mapCache.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return this.iMaxSize;
+    }
+
+    public long getHits() {
+        return this.liHits.get();
+    }
+
+    public long getMisses() {
+        return this.liMisses.get();
+    }
+
+    public void clear() {
+        synchronized (this.mapCache) {
+            this.mapCache.clear();
+        }
+        this.liHits.set(0);
+        this.liMisses.set(0);
+    }
+
+    public String toString() {
+        return "{ size:" + this.size() + ", max:" + this.iMaxSize +
+                ", hits:" + this.getHits() + ", misses:" + this.getMisses() + " }";
+    }
+}
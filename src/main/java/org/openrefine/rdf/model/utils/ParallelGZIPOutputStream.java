@@ -0,0 +1,211 @@
+/*
+ *  Class ParallelGZIPOutputStream
+ *
+ *  A gzip output stream that compresses fixed size blocks on a thread pool
+ *  and writes each block as a gzip member in order.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Class ParallelGZIPOutputStream
+ *
+ *  A gzip file may hold many members, one after another, and a reader decompresses them as one
+ *  stream (RFC 1952, section 2.2).  The stream collects the output in blocks.  Each full block is
+ *  compressed to a complete gzip member by a worker, so the blocks are compressed in parallel.
+ *  The members are written to the output in block order by the writing thread.  The number of
+ *  blocks in flight is bounded to limit the memory held by pending blocks.
+ *
+ *  Each member restarts the compression dictionary, so the output is slightly larger than a
+ *  single member gzip.  Large blocks keep the difference small.
+ *
+ *  Call finish() to write the last block without closing the output.  On an error, call abort()
+ *  to stop the workers without writing to the output.
+ */
+public class ParallelGZIPOutputStream extends OutputStream {
+    // The number of blocks in flight per thread...
+    static private final int iBlocksPerThread = 2;
+
+    private final OutputStream theOutput;
+    private final int iBlockSize;
+    private final int iWindow;
+    private final ExecutorService theExecutor;
+    private final Deque<Future<byte[]>> queuePending = new ArrayDeque<Future<byte[]>>();
+    private final AtomicInteger iThreadCount = new AtomicInteger(0);
+
+    private byte[] abyteBlock;
+    private int iBlockLength = 0;
+    private boolean bFinished = false;
+
+    public ParallelGZIPOutputStream(OutputStream theOutput, int iThreads, int iBlockSize) {
+        this.theOutput = theOutput;
+        this.iBlockSize = ( iBlockSize > 0 ? iBlockSize : 1048576 );
+        int iWorkers = ( iThreads < 1 ? 1 : iThreads );
+        this.iWindow = iWorkers * ParallelGZIPOutputStream.iBlocksPerThread;
+        this.abyteBlock = new byte[this.iBlockSize];
+        this.theExecutor =
+            Executors.newFixedThreadPool(iWorkers,
+                (Runnable theRunnable) -> {
+                    Thread theThread = new Thread(theRunnable, "RDFT-GZIP-" + this.iThreadCount.incrementAndGet());
+                    theThread.setDaemon(true);
+                    return theThread;
+                }
+            );
+    }
+
+    @Override
+    public void write(int iByte)
+            throws IOException {
+        this.abyteBlock[this.iBlockLength++] = (byte) iByte;
+        if (this.iBlockLength == this.iBlockSize) {
+            this.submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] abyteData, int iOffset, int iLength)
+            throws IOException {
+        while (iLength > 0) {
+            int iCopy = Math.min(iLength, this.iBlockSize - this.iBlockLength);
+            System.arraycopy(abyteData, iOffset, this.abyteBlock, this.iBlockLength, iCopy);
+            this.iBlockLength += iCopy;
+            iOffset += iCopy;
+            iLength -= iCopy;
+            if (this.iBlockLength == this.iBlockSize) {
+                this.submitBlock();
+            }
+        }
+    }
+
+    /*
+     * Method flush()
+     *
+     *  Write the completed members.  A partial block is not compressed early since small
+     *  members compress poorly.
+     */
+    @Override
+    public void flush()
+            throws IOException {
+        while ( ! this.queuePending.isEmpty() && this.queuePending.peekFirst().isDone() ) {
+            this.writeMember();
+        }
+        this.theOutput.flush();
+    }
+
+    /*
+     * Method finish()
+     *
+     *  Compress the last block and write all members without closing the output.
+     */
+    public void finish()
+            throws IOException {
+        if (this.bFinished) {
+            return;
+        }
+        try {
+            if (this.iBlockLength > 0) {
+                this.submitBlock();
+            }
+            while ( ! this.queuePending.isEmpty() ) {
+                this.writeMember();
+            }
+            this.theOutput.flush();
+        }
+        finally {
+            this.bFinished = true;
+            this.theExecutor.shutdownNow();
+        }
+    }
+
+    /*
+     * Method abort()
+     *
+     *  Stop the workers and drop the pending members and the partial block.  Nothing is written
+     *  to the output, so a broken output cannot mask the error that caused the abort.
+     */
+    public void abort() {
+        if (this.bFinished) {
+            return;
+        }
+        this.bFinished = true;
+        for (Future<byte[]> futureMember : this.queuePending) {
+            futureMember.cancel(true);
+        }
+        this.queuePending.clear();
+        this.iBlockLength = 0;
+        this.theExecutor.shutdownNow();
+    }
+
+    @Override
+    public void close()
+            throws IOException {
+        try {
+            this.finish();
+        }
+        finally {
+            this.theOutput.close();
+        }
+    }
+
+    private void submitBlock()
+            throws IOException {
+        // Wait for the oldest member when the window is full...
+        while (this.queuePending.size() >= this.iWindow) {
+            this.writeMember();
+        }
+        final byte[] abyteData = this.abyteBlock;
+        final int iLength = this.iBlockLength;
+        this.queuePending.add( this.theExecutor.submit( () -> ParallelGZIPOutputStream.compress(abyteData, iLength) ) );
+        this.abyteBlock = new byte[this.iBlockSize];
+        this.iBlockLength = 0;
+    }
+
+    private void writeMember()
+            throws IOException {
+        try {
+            this.theOutput.write( this.queuePending.removeFirst().get() );
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compression interrupted", ex);
+        }
+        catch (ExecutionException ex) {
+            throw new IOException( "Compression failed: " + ex.getCause().getMessage(), ex.getCause() );
+        }
+    }
+
+    static private byte[] compress(byte[] abyteData, int iLength)
+            throws IOException {
+        ByteArrayOutputStream theMember = new ByteArrayOutputStream(iLength / 3 + 64);
+        try ( GZIPOutputStream theGZIP = new GZIPOutputStream(theMember, 65536) ) {
+            theGZIP.write(abyteData, 0, iLength);
+        }
+        return theMember.toByteArray();
+    }
+}
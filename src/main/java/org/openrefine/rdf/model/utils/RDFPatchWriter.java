@@ -0,0 +1,129 @@
+/*
+ *  Class RDFPatchWriter
+ *
+ *  A writer for RDF Patch text: a transaction of prefix, add, and delete
+ *  rows describing the changes to an RDF dataset.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.sparql.core.Quad;
+
+/*
+ * Class RDFPatchWriter
+ *
+ *  An RDF Patch (see https://afs.github.io/rdf-delta/rdf-patch.html) is written as:
+ *      H id <uuid:...> .
+ *      H prev <uuid:...> .
+ *      TX .
+ *      PA prefix: <namespace> .
+ *      D <s> <p> <o> .
+ *      A <s> <p> <o> <g> .
+ *      TC .
+ *  The statements are given as statement lines: the N-Triples terms of a triple, followed by
+ *  the graph for a quad in a named graph, separated by spaces without the ending " .".  See
+ *  toLine().  Statement lines hold no line breaks, so they may be stored and compared as text.
+ *
+ *  The patch writer does not check the row order.  The caller writes the header, then one
+ *  transaction.
+ */
+public class RDFPatchWriter {
+    static public final String strCONTENT_TYPE = "application/rdf-patch";
+    static public final String strEXTENSION = "rdfp";
+
+    private final Writer theWriter;
+    private long lAdds = 0;
+    private long lDeletes = 0;
+
+    public RDFPatchWriter(Writer theWriter) {
+        this.theWriter = theWriter;
+    }
+
+    /*
+     * Method toLine()
+     *
+     *  Get the triple line for a triple: "<s> <p> <o>" in N-Triples terms.
+     */
+    static public String toLine(Triple theTriple) {
+        return
+            NodeFmtLib.strNT( theTriple.getSubject() ) + " " +
+            NodeFmtLib.strNT( theTriple.getPredicate() ) + " " +
+            NodeFmtLib.strNT( theTriple.getObject() );
+    }
+
+    /*
+     * Method toLine()
+     *
+     *  Get the statement line for a quad: "<s> <p> <o> <g>" in N-Triples terms.  A quad in the
+     *  default graph is given as a triple line.
+     */
+    static public String toLine(Quad theQuad) {
+        if ( theQuad.isDefaultGraph() ) {
+            return RDFPatchWriter.toLine( theQuad.asTriple() );
+        }
+        return RDFPatchWriter.toLine( theQuad.asTriple() ) + " " + NodeFmtLib.strNT( theQuad.getGraph() );
+    }
+
+    public void header(String strField, String strUUID)
+            throws IOException {
+        this.theWriter.write("H " + strField + " <uuid:" + strUUID + "> .\n");
+    }
+
+    public void begin()
+            throws IOException {
+        this.theWriter.write("TX .\n");
+    }
+
+    public void prefixes(Map<String, String> mapPrefixes)
+            throws IOException {
+        for ( Map.Entry<String, String> entryPrefix : mapPrefixes.entrySet() ) {
+            this.theWriter.write("PA " + entryPrefix.getKey() + ": <" + entryPrefix.getValue() + "> .\n");
+        }
+    }
+
+    public void add(String strLine)
+            throws IOException {
+        this.theWriter.write("A " + strLine + " .\n");
+        this.lAdds++;
+    }
+
+    public void delete(String strLine)
+            throws IOException {
+        this.theWriter.write("D " + strLine + " .\n");
+        this.lDeletes++;
+    }
+
+    public void commit()
+            throws IOException {
+        this.theWriter.write("TC .\n");
+        this.theWriter.flush();
+    }
+
+    public long getAddCount() {
+        return this.lAdds;
+    }
+
+    public long getDeleteCount() {
+        return this.lDeletes;
+    }
+}
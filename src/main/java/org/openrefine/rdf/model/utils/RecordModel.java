@@ -22,17 +22,19 @@
 package org.openrefine.rdf.model.utils;
 
 import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
 import com.google.refine.model.Record;
-import org.openrefine.rdf.model.Node;
-import org.openrefine.rdf.model.ResourceNode;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreType;
 
+/*
+ * Class RecordModel
+ *
+ *  The row / record position for one node evaluation.  A RecordModel is created for each
+ *  invocation of a node, so the node tree itself holds no evaluation state.
+ */
 @JsonIgnoreType
 public class RecordModel {
-    @JsonIgnore
-    private final Node theNode;
-
     // For Row-based data processing...
     @JsonIgnore
     private int iRowIndex = -1;
@@ -56,9 +58,7 @@ public class RecordModel {
     @JsonIgnore
     private int iSubRecordRowEnd = -1;
 
-    public RecordModel(Node theNode) {
-        // Get the back reference to the node holding this object...
-        this.theNode = theNode;
+    public RecordModel() {
     }
 
     public boolean isSet() {
@@ -77,17 +77,17 @@ public class RecordModel {
     }
 
     @JsonIgnore
-    public void setMode(ResourceNode nodeProperty) {
-        this.setMode(nodeProperty, false);
+    public void setMode(RecordModel recProperty) {
+        this.setMode(recProperty, false);
     }
 
     @JsonIgnore
-    public void setMode(ResourceNode nodeProperty, boolean bPerRow) {
+    public void setMode(RecordModel recProperty, boolean bPerRow) {
         // Set Row Mode...
-        this.iRowIndex = nodeProperty.theRec.iRowIndex;
+        this.iRowIndex = recProperty.iRowIndex;
         // Set Record Mode only when Row Mode is off...
         if ( ! this.isRowMode() ) {
-            this.theRecord = nodeProperty.theRec.theRecord;
+            this.theRecord = recProperty.theRecord;
             this.bRecordMode = (theRecord != null);
             this.bRecordPerRow = bPerRow;
             // NOTE: When bRecordPerRow is true, further processing will be in Row Mode as
@@ -168,10 +168,14 @@ public class RecordModel {
 //        return this.iRowIndex;
 //    }
 
-    public void setSubRecord(String strColumnName) {
+    public void setSubRecord(Project theProject, int iColumn) {
+        // NOTE: The column is given as a cell index already resolved by the evaluation context.
+        //       See EvaluationContext.getCellIndex().
         if ( this.isSet() ) {
             bSubRecords = false;
-            int iColumn = this.theNode.getProject().columnModel.getColumnByName(strColumnName).getCellIndex();
+            if (iColumn < 0) {
+                return;
+            }
 
             int iStart = this.theRecord.fromRowIndex;
             if (iSubRecordRowEnd >= 0) {
@@ -187,8 +191,8 @@ public class RecordModel {
 
             iSubRecordRowStart = iStart;
             for (int iRow = iStart; iRow < iEnd; iRow++) {
-                Cell cell = this.theNode.getProject().rows.get(iRow).getCell( iColumn );
-                if ( ! ( cell == null || cell.value.toString().isEmpty() ) ) {
+                Cell cell = theProject.rows.get(iRow).getCell( iColumn );
+                if ( ! ( cell == null || cell.value == null || cell.value.toString().isEmpty() ) ) {
                     iSubRecordRowEnd = iRow + 1;
                     bSubRecords = true;
                     break;
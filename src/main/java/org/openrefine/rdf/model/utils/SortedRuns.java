@@ -0,0 +1,236 @@
+/*
+ *  Class SortedRuns
+ *
+ *  Sorts text lines in bounded memory using sorted runs on disk and merges
+ *  them back as one sorted sequence.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.openrefine.rdf.model.Util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class SortedRuns
+ *
+ *  The lines are held in memory up to the run size.  A full run is sorted, deduplicated, and
+ *  spilled to a temporary file.  After open(), next() merges (k-way) the runs and returns the
+ *  lines in sorted order without duplicates.  Only the run size in lines and one line per run
+ *  are held in memory.  Lines must not hold line breaks.
+ *
+ *  The run files are removed by close().  Call it in a finally block (or use try with
+ *  resources) so a failed export leaves no files behind.
+ */
+public class SortedRuns implements Closeable {
+    private final static Logger logger = LoggerFactory.getLogger("RDFT:SortedRuns");
+
+    private final int iRunSize;
+    private final String strPrefix;
+    private final List<File> listRuns = new ArrayList<File>();
+    private final List<RunReader> listReaders = new ArrayList<RunReader>();
+    private final PriorityQueue<RunReader> queueRuns = new PriorityQueue<RunReader>();
+    private List<String> listLines = new ArrayList<String>();
+    private String strLast = null;
+
+    /*
+     * Class RunReader
+     *
+     *  The current line of a sorted run for the merge.
+     */
+    static private class RunReader implements Comparable<RunReader> {
+        private final BufferedReader theReader;
+        private final Iterator<String> iterLines;
+        private String strLine = null;
+
+        RunReader(BufferedReader theReader) {
+            this.theReader = theReader;
+            this.iterLines = null;
+        }
+
+        RunReader(List<String> listLines) {
+            this.theReader = null;
+            this.iterLines = listLines.iterator();
+        }
+
+        boolean next() throws IOException {
+            if (this.theReader != null) {
+                this.strLine = this.theReader.readLine();
+            }
+            else {
+                this.strLine = ( this.iterLines.hasNext() ? this.iterLines.next() : null );
+            }
+            return (this.strLine != null);
+        }
+
+        void close() throws IOException {
+            if (this.theReader != null) {
+                this.theReader.close();
+            }
+        }
+
+        @Override
+        public int compareTo(RunReader theOther) {
+            return this.strLine.compareTo(theOther.strLine);
+        }
+    }
+
+    /*
+     * Constructor
+     *
+     *  The prefix names the temporary run files, e.g., "rdft-sort-".
+     */
+    public SortedRuns(int iRunSize, String strPrefix) {
+        this.iRunSize = ( iRunSize < 1 ? 1 : iRunSize );
+        this.strPrefix = strPrefix;
+    }
+
+    public void add(String strLine)
+            throws IOException {
+        this.listLines.add(strLine);
+        if ( this.listLines.size() >= this.iRunSize ) {
+            this.spillRun();
+        }
+    }
+
+    public boolean isEmpty() {
+        return ( this.listRuns.isEmpty() && this.listLines.isEmpty() );
+    }
+
+    /*
+     * Method getRunCount()
+     *
+     *  Get the number of runs: the spilled runs and the run in memory.
+     */
+    public int getRunCount() {
+        return this.listRuns.size() + ( this.listLines.isEmpty() ? 0 : 1 );
+    }
+
+    private void sortRun() {
+        Collections.sort(this.listLines);
+        // Remove duplicate lines...
+        List<String> listUnique = new ArrayList<String>( this.listLines.size() );
+        String strLastLine = null;
+        for (String strLine : this.listLines) {
+            if ( ! strLine.equals(strLastLine) ) {
+                listUnique.add(strLine);
+                strLastLine = strLine;
+            }
+        }
+        this.listLines = listUnique;
+    }
+
+    private void spillRun()
+            throws IOException {
+        this.sortRun();
+        File fileRun = File.createTempFile(this.strPrefix, ".run");
+        this.listRuns.add(fileRun);
+        try ( BufferedWriter theWriter = Files.newBufferedWriter( fileRun.toPath(), StandardCharsets.UTF_8 ) ) {
+            for (String strLine : this.listLines) {
+                theWriter.write(strLine);
+                theWriter.newLine();
+            }
+        }
+        if ( Util.isDebugMode() ) {
+            SortedRuns.logger.info("DEBUG: Spilled run " + this.listRuns.size() + ": " + this.listLines.size() + " lines");
+        }
+        this.listLines = new ArrayList<String>();
+    }
+
+    /*
+     * Method open()
+     *
+     *  Start the merge.  The last run stays in memory.  No lines may be added after.
+     */
+    public void open()
+            throws IOException {
+        this.sortRun();
+        this.listReaders.add( new RunReader(this.listLines) );
+        for (File fileRun : this.listRuns) {
+            this.listReaders.add(
+                new RunReader( Files.newBufferedReader( fileRun.toPath(), StandardCharsets.UTF_8 ) ) );
+        }
+        for (RunReader theRun : this.listReaders) {
+            if ( theRun.next() ) {
+                this.queueRuns.add(theRun);
+            }
+        }
+    }
+
+    /*
+     * Method next()
+     *
+     *  Get the next line in sorted order, skipping the duplicates between runs.  Returns null
+     *  when the runs are done.
+     */
+    public String next()
+            throws IOException {
+        while ( ! this.queueRuns.isEmpty() ) {
+            RunReader theRun = this.queueRuns.poll();
+            String strLine = theRun.strLine;
+            if ( theRun.next() ) {
+                this.queueRuns.add(theRun);
+            }
+            if ( ! strLine.equals(this.strLast) ) {
+                this.strLast = strLine;
+                return strLine;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Method close()
+     *
+     *  Remove the sorted runs.
+     */
+    @Override
+    public void close() {
+        for (RunReader theRun : this.listReaders) {
+            try {
+                theRun.close();
+            }
+            catch (IOException ex) {
+                // ...continue: remove the files...
+            }
+        }
+        this.listReaders.clear();
+        this.queueRuns.clear();
+        for (File fileRun : this.listRuns) {
+            if ( ! fileRun.delete() ) {
+                SortedRuns.logger.warn("WARNING: Cannot delete sorted run: " + fileRun.getPath());
+            }
+        }
+        this.listRuns.clear();
+        this.listLines = new ArrayList<String>();
+        this.strLast = null;
+    }
+}
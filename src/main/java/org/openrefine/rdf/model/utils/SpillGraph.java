@@ -0,0 +1,477 @@
+/*
+ *  Class SpillGraph
+ *
+ *  A Graph class that holds dictionary encoded triples in memory mapped
+ *  files to limit the heap used by large exports.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.openrefine.rdf.model.Util;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.GraphBase;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NullIterator;
+import org.apache.jena.util.iterator.WrappedIterator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Class SpillGraph
+ *
+ *  Each distinct term (Node) is held once in a heap dictionary and given an integer id.  Each
+ *  triple is held as three ids (12 bytes) appended to a temporary file.  So, the heap holds
+ *  only the distinct terms and not the triples, their statement objects, or graph indexes.
+ *
+ *  On the first find() (or size()) after an add(), the triple file is indexed:
+ *    SPO: the triples sorted by subject, predicate, object and deduplicated,
+ *    POS: the triples sorted by predicate, object, subject,
+ *    OSP: the triples sorted by object, subject, predicate.
+ *  Each index is a memory mapped file sorted in place, so the sort uses no heap.  A find()
+ *  selects the index with the longest bound prefix for the pattern and binary searches
+ *  its range.  Any added triples rebuild the indexes on the next find().
+ *
+ *  Deleting triples is not supported.  An index file is limited to 2 GiB, i.e., about 178
+ *  million distinct triples.  The temporary files are deleted when the graph is closed.
+ *
+ *  NOTE: A spill graph is used by one visitor, so it is not thread-safe.
+ */
+public class SpillGraph extends GraphBase {
+    static private final Logger logger = LoggerFactory.getLogger("RDFT:SpillGraph");
+
+    static private final int iRECORD = 3; // ...ids per triple
+    static private final int iBYTES = SpillGraph.iRECORD * Integer.BYTES;
+
+    // The index orders as positions of subject (0), predicate (1), object (2)...
+    static private final int[] aiSPO = { 0, 1, 2 };
+    static private final int[] aiPOS = { 1, 2, 0 };
+    static private final int[] aiOSP = { 2, 0, 1 };
+
+    private final Map<Node, Integer> mapTermIDs = new HashMap<Node, Integer>();
+    private final List<Node> listTerms = new ArrayList<Node>();
+
+    private final File fileTriples;
+    private DataOutputStream streamTriples;
+    private long lAdded = 0;
+
+    private boolean bIndexed = false;
+    private int iSize = 0;
+    private IntBuffer bufferSPO = null;
+    private IntBuffer bufferPOS = null;
+    private IntBuffer bufferOSP = null;
+    private final List<File> listIndexFiles = new ArrayList<File>();
+
+    public SpillGraph()
+            throws IOException {
+        this.fileTriples = File.createTempFile("rdft-spill-", ".ids");
+        this.streamTriples =
+            new DataOutputStream( new BufferedOutputStream( new FileOutputStream(this.fileTriples), 1 << 16 ) );
+    }
+
+    public int getTermCount() {
+        return this.listTerms.size();
+    }
+
+    private int encode(Node theNode) {
+        Integer iID = this.mapTermIDs.get(theNode);
+        if (iID == null) {
+            iID = this.listTerms.size();
+            this.listTerms.add(theNode);
+            this.mapTermIDs.put(theNode, iID);
+        }
+        return iID;
+    }
+
+    @Override
+    public void performAdd(Triple theTriple) {
+        try {
+            this.streamTriples.writeInt( this.encode( theTriple.getSubject() ) );
+            this.streamTriples.writeInt( this.encode( theTriple.getPredicate() ) );
+            this.streamTriples.writeInt( this.encode( theTriple.getObject() ) );
+        }
+        catch (IOException ex) {
+            throw new RuntimeException("Cannot spill triple: " + ex.getMessage(), ex);
+        }
+        this.lAdded++;
+        this.bIndexed = false;
+    }
+
+    @Override
+    protected int graphBaseSize() {
+        this.index();
+        return this.iSize;
+    }
+
+    @Override
+    protected ExtendedIterator<Triple> graphBaseFind(Triple thePattern) {
+        this.index();
+
+        // Encode the bound terms.  An unknown term matches nothing...
+        Node[] anodePattern = { thePattern.getSubject(), thePattern.getPredicate(), thePattern.getObject() };
+        int[] aiPattern = new int[SpillGraph.iRECORD];
+        boolean[] abBound = new boolean[SpillGraph.iRECORD];
+        for (int iPos = 0; iPos < SpillGraph.iRECORD; iPos++) {
+            Node theNode = anodePattern[iPos];
+            abBound[iPos] = ( theNode != null && theNode.isConcrete() );
+            if ( abBound[iPos] ) {
+                Integer iID = this.mapTermIDs.get(theNode);
+                if (iID == null) {
+                    return NullIterator.instance();
+                }
+                aiPattern[iPos] = iID;
+            }
+        }
+
+        // Select the index with the longest bound prefix...
+        IntBuffer bufferIndex = this.bufferSPO;
+        int[] aiOrder = SpillGraph.aiSPO;
+        if ( abBound[0] ) {
+            if ( ! abBound[1] && abBound[2] ) {
+                bufferIndex = this.bufferOSP;
+                aiOrder = SpillGraph.aiOSP;
+            }
+        }
+        else if ( abBound[1] ) {
+            bufferIndex = this.bufferPOS;
+            aiOrder = SpillGraph.aiPOS;
+        }
+        else if ( abBound[2] ) {
+            bufferIndex = this.bufferOSP;
+            aiOrder = SpillGraph.aiOSP;
+        }
+
+        int iPrefix = 0;
+        int[] aiKey = new int[SpillGraph.iRECORD];
+        while ( iPrefix < SpillGraph.iRECORD && abBound[ aiOrder[iPrefix] ] ) {
+            aiKey[iPrefix] = aiPattern[ aiOrder[iPrefix] ];
+            iPrefix++;
+        }
+
+        int iStart = 0;
+        int iEnd = this.iSize;
+        if (iPrefix > 0) {
+            iStart = SpillGraph.lowerBound(bufferIndex, this.iSize, aiKey, iPrefix, false);
+            iEnd = SpillGraph.lowerBound(bufferIndex, this.iSize, aiKey, iPrefix, true);
+        }
+        return WrappedIterator.create(
+            new RangeIterator(bufferIndex, aiOrder, iStart, iEnd, aiPattern, abBound) );
+    }
+
+    /*
+     * Class RangeIterator
+     *
+     *  Iterate the triples in an index range that match the pattern's bound terms.
+     */
+    private class RangeIterator implements Iterator<Triple> {
+        private final IntBuffer bufferIndex;
+        private final int[] aiOrder;
+        private final int iEnd;
+        private final int[] aiPattern;
+        private final boolean[] abBound;
+        private int iNext;
+        private Triple theNext = null;
+
+        RangeIterator(IntBuffer bufferIndex, int[] aiOrder, int iStart, int iEnd, int[] aiPattern, boolean[] abBound) {
+            // A duplicate view gives the iterator its own buffer position...
+            this.bufferIndex = bufferIndex.duplicate();
+            this.aiOrder = aiOrder;
+            this.iNext = iStart;
+            this.iEnd = iEnd;
+            this.aiPattern = aiPattern;
+            this.abBound = abBound;
+        }
+
+        @Override
+        public boolean hasNext() {
+            int[] aiTriple = new int[SpillGraph.iRECORD];
+            while ( this.theNext == null && this.iNext < this.iEnd ) {
+                int iBase = this.iNext * SpillGraph.iRECORD;
+                this.iNext++;
+                boolean bMatch = true;
+                for (int iField = 0; iField < SpillGraph.iRECORD; iField++) {
+                    int iPos = this.aiOrder[iField];
+                    aiTriple[iPos] = this.bufferIndex.get(iBase + iField);
+                    if ( this.abBound[iPos] && aiTriple[iPos] != this.aiPattern[iPos] ) {
+                        bMatch = false;
+                    }
+                }
+                if (bMatch) {
+                    this.theNext =
+                        Triple.create(
+                            SpillGraph.this.listTerms.get( aiTriple[0] ),
+                            SpillGraph.this.listTerms.get( aiTriple[1] ),
+                            SpillGraph.this.listTerms.get( aiTriple[2] ) );
+                }
+            }
+            return (this.theNext != null);
+        }
+
+        @Override
+        public Triple next() {
+            if ( ! this.hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            Triple theTriple = this.theNext;
+            this.theNext = null;
+            return theTriple;
+        }
+    }
+
+    /*
+     * Method lowerBound()
+     *
+     *  Binary search the sorted index for the first record whose key prefix is not less than
+     *  the key (or, when bAfter, greater than the key).
+     */
+    static private int lowerBound(IntBuffer bufferIndex, int iSize, int[] aiKey, int iPrefix, boolean bAfter) {
+        int iLow = 0;
+        int iHigh = iSize;
+        while (iLow < iHigh) {
+            int iMid = (iLow + iHigh) >>> 1;
+            int iCompare = 0;
+            int iBase = iMid * SpillGraph.iRECORD;
+            for (int iField = 0; iField < iPrefix && iCompare == 0; iField++) {
+                iCompare = Integer.compare( bufferIndex.get(iBase + iField), aiKey[iField] );
+            }
+            if ( iCompare < 0 || ( bAfter && iCompare == 0 ) ) {
+                iLow = iMid + 1;
+            }
+            else {
+                iHigh = iMid;
+            }
+        }
+        return iLow;
+    }
+
+    /*
+     * Method index()
+     *
+     *  Build the sorted indexes from the triple file.
+     */
+    private void index() {
+        if (this.bIndexed) {
+            return;
+        }
+        try {
+            this.streamTriples.flush();
+            this.deleteIndexes();
+            if ( this.lAdded * SpillGraph.iBYTES > Integer.MAX_VALUE ) {
+                throw new IOException("Too many triples to index: " + this.lAdded);
+            }
+            int iAdded = (int) this.lAdded;
+            if ( Util.isVerbose(2) || Util.isDebugMode() ) {
+                SpillGraph.logger.info("Indexing " + iAdded + " triples on " + this.listTerms.size() + " terms...");
+            }
+
+            // Sort and deduplicate the SPO index...
+            IntBuffer bufferTriples = SpillGraph.map(this.fileTriples, iAdded, false);
+            this.bufferSPO = this.createIndex(bufferTriples, iAdded, SpillGraph.aiSPO);
+            SpillGraph.sort(this.bufferSPO, 0, iAdded - 1);
+            this.iSize = SpillGraph.dedup(this.bufferSPO, iAdded);
+
+            // Build the other indexes from the unique triples...
+            this.bufferPOS = this.createIndex(this.bufferSPO, this.iSize, SpillGraph.aiPOS);
+            SpillGraph.sort(this.bufferPOS, 0, this.iSize - 1);
+            this.bufferOSP = this.createIndex(this.bufferSPO, this.iSize, SpillGraph.aiOSP);
+            SpillGraph.sort(this.bufferOSP, 0, this.iSize - 1);
+
+            this.bIndexed = true;
+            if ( Util.isVerbose(2) || Util.isDebugMode() ) SpillGraph.logger.info("...indexed " + this.iSize + " unique triples.");
+        }
+        catch (IOException ex) {
+            throw new RuntimeException("Cannot index spilled triples: " + ex.getMessage(), ex);
+        }
+    }
+
+    static private IntBuffer map(File theFile, int iRecords, boolean bWrite)
+            throws IOException {
+        try ( RandomAccessFile rafIndex = new RandomAccessFile(theFile, bWrite ? "rw" : "r") ) {
+            long lBytes = (long) iRecords * SpillGraph.iBYTES;
+            if (bWrite) {
+                rafIndex.setLength(lBytes);
+            }
+            MappedByteBuffer bufferMapped =
+                rafIndex.getChannel().map(
+                    bWrite ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, lBytes);
+            // NOTE: The mapping remains valid after the channel is closed.
+            return bufferMapped.asIntBuffer();
+        }
+    }
+
+    /*
+     * Method createIndex()
+     *
+     *  Copy the SPO ordered source records to a new index file in the given order.
+     */
+    private IntBuffer createIndex(IntBuffer bufferSource, int iRecords, int[] aiOrder)
+            throws IOException {
+        File fileIndex = File.createTempFile("rdft-spill-", ".idx");
+        this.listIndexFiles.add(fileIndex);
+        IntBuffer bufferIndex = SpillGraph.map(fileIndex, iRecords, true);
+        for (int iRecord = 0; iRecord < iRecords; iRecord++) {
+            int iBase = iRecord * SpillGraph.iRECORD;
+            for (int iField = 0; iField < SpillGraph.iRECORD; iField++) {
+                bufferIndex.put( iBase + iField, bufferSource.get( iBase + aiOrder[iField] ) );
+            }
+        }
+        return bufferIndex;
+    }
+
+    static private int compare(IntBuffer theBuffer, int iA, int iB) {
+        int iBaseA = iA * SpillGraph.iRECORD;
+        int iBaseB = iB * SpillGraph.iRECORD;
+        for (int iField = 0; iField < SpillGraph.iRECORD; iField++) {
+            int iCompare = Integer.compare( theBuffer.get(iBaseA + iField), theBuffer.get(iBaseB + iField) );
+            if (iCompare != 0) {
+                return iCompare;
+            }
+        }
+        return 0;
+    }
+
+    static private void swap(IntBuffer theBuffer, int iA, int iB) {
+        int iBaseA = iA * SpillGraph.iRECORD;
+        int iBaseB = iB * SpillGraph.iRECORD;
+        for (int iField = 0; iField < SpillGraph.iRECORD; iField++) {
+            int iTemp = theBuffer.get(iBaseA + iField);
+            theBuffer.put( iBaseA + iField, theBuffer.get(iBaseB + iField) );
+            theBuffer.put(iBaseB + iField, iTemp);
+        }
+    }
+
+    /*
+     * Method sort()
+     *
+     *  Sort the records in place: a quicksort on the median of three, recursing on the
+     *  smaller side, with an insertion sort for short ranges.
+     */
+    static private void sort(IntBuffer theBuffer, int iLow, int iHigh) {
+        while (iHigh - iLow > 16) {
+            int iMid = (iLow + iHigh) >>> 1;
+            if ( SpillGraph.compare(theBuffer, iMid, iLow) < 0 ) SpillGraph.swap(theBuffer, iMid, iLow);
+            if ( SpillGraph.compare(theBuffer, iHigh, iLow) < 0 ) SpillGraph.swap(theBuffer, iHigh, iLow);
+            if ( SpillGraph.compare(theBuffer, iHigh, iMid) < 0 ) SpillGraph.swap(theBuffer, iHigh, iMid);
+            // Move the pivot to iHigh - 1...
+            SpillGraph.swap(theBuffer, iMid, iHigh - 1);
+            int iPivot = iHigh - 1;
+            int iLeft = iLow;
+            int iRight = iHigh - 1;
+            while (true) {
+                while ( SpillGraph.compare(theBuffer, ++iLeft, iPivot) < 0 ) {}
+                while ( SpillGraph.compare(theBuffer, --iRight, iPivot) > 0 ) {}
+                if (iLeft >= iRight) {
+                    break;
+                }
+                SpillGraph.swap(theBuffer, iLeft, iRight);
+            }
+            SpillGraph.swap(theBuffer, iLeft, iHigh - 1);
+            if (iLeft - iLow < iHigh - iLeft) {
+                SpillGraph.sort(theBuffer, iLow, iLeft - 1);
+                iLow = iLeft + 1;
+            }
+            else {
+                SpillGraph.sort(theBuffer, iLeft + 1, iHigh);
+                iHigh = iLeft - 1;
+            }
+        }
+        for (int iRecord = iLow + 1; iRecord <= iHigh; iRecord++) {
+            for (int iPrev = iRecord; iPrev > iLow && SpillGraph.compare(theBuffer, iPrev, iPrev - 1) < 0; iPrev--) {
+                SpillGraph.swap(theBuffer, iPrev, iPrev - 1);
+            }
+        }
+    }
+
+    /*
+     * Method dedup()
+     *
+     *  Remove adjacent duplicate records from a sorted index.  Returns the unique count.
+     */
+    static private int dedup(IntBuffer theBuffer, int iRecords) {
+        if (iRecords == 0) {
+            return 0;
+        }
+        int iUnique = 1;
+        for (int iRecord = 1; iRecord < iRecords; iRecord++) {
+            if ( SpillGraph.compare(theBuffer, iRecord, iUnique - 1) != 0 ) {
+                if (iRecord != iUnique) {
+                    int iFrom = iRecord * SpillGraph.iRECORD;
+                    int iTo = iUnique * SpillGraph.iRECORD;
+                    for (int iField = 0; iField < SpillGraph.iRECORD; iField++) {
+                        theBuffer.put( iTo + iField, theBuffer.get(iFrom + iField) );
+                    }
+                }
+                iUnique++;
+            }
+        }
+        return iUnique;
+    }
+
+    private void deleteIndexes() {
+        this.bufferSPO = null;
+        this.bufferPOS = null;
+        this.bufferOSP = null;
+        for (File fileIndex : this.listIndexFiles) {
+            fileIndex.delete();
+        }
+        this.listIndexFiles.clear();
+    }
+
+    @Override
+    protected void destroy() {
+        try {
+            this.streamTriples.close();
+        }
+        catch (IOException ex) {
+            // ...continue: remove the files...
+        }
+        this.deleteIndexes();
+        this.fileTriples.delete();
+        this.mapTermIDs.clear();
+        this.listTerms.clear();
+        this.bIndexed = false;
+        this.iSize = 0;
+    }
+
+    /*
+     * Method getTerms()
+     *
+     *  Get the term dictionary (for diagnostics).  The list index is the term id.
+     */
+    public List<Node> getTerms() {
+        return Collections.unmodifiableList(this.listTerms);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *  Class TermDictionary
+ *
+ *  A bounded, concurrent dictionary of interned RDF terms that tracks hit
+ *  and miss counts.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.impl.LiteralImpl;
+import org.apache.jena.rdf.model.impl.ResourceImpl;
+
+/*
+ * Class TermDictionary
+ *
+ *  Generated IRIs and literals repeat heavily in an export (the same country IRI, the same
+ *  boolean literal, ...).  The dictionary maps each term's text to one shared, model free
+ *  Resource or Literal (and its Node), so repeated values are created once instead of once
+ *  per row.
+ *
+ *  Resources are keyed by the full IRI.  Literals are keyed by a qualifier, i.e., the datatype
+ *  IRI, "@" and the language, or "" for a simple literal, then by the lexical form.  The two
+ *  level literal key needs no key object for a lookup.
+ *
+ *  The dictionary is bounded: when the term count reaches the maximum, the dictionary is
+ *  cleared and refilled by the current terms.  Lookups are lock free, so the dictionary may be
+ *  shared by the parallel export threads.  The bound is approximate under concurrent adds.
+ */
+public class TermDictionary {
+    static private final String strSIMPLE = "";
+    static private final String strLANGUAGE = "@";
+
+    private final int iMaxSize;
+    private final ConcurrentMap<String, Resource> mapResources = new ConcurrentHashMap<String, Resource>();
+    private final ConcurrentMap<String, ConcurrentMap<String, Literal>> mapLiterals =
+        new ConcurrentHashMap<String, ConcurrentMap<String, Literal>>();
+    private final AtomicInteger iSize = new AtomicInteger();
+    private final AtomicLong liHits = new AtomicLong();
+    private final AtomicLong liMisses = new AtomicLong();
+    private final AtomicLong liResets = new AtomicLong();
+
+    public TermDictionary(int iMaxSize) {
+        this.iMaxSize = (iMaxSize > 0 ? iMaxSize : 1);
+    }
+
+    /*
+     * Method internResource()
+     *
+     *  Get the shared Resource for a full IRI.
+     */
+    public Resource internResource(String strIRI) {
+        Resource theResource = this.mapResources.get(strIRI);
+        if (theResource != null) {
+            this.liHits.incrementAndGet();
+            return theResource;
+        }
+        this.liMisses.incrementAndGet();
+        theResource = new ResourceImpl(strIRI);
+        Resource theExisting = this.mapResources.putIfAbsent(strIRI, theResource);
+        if (theExisting != null) {
+            return theExisting;
+        }
+        this.added();
+        return theResource;
+    }
+
+    /*
+     * Method internLiteral()
+     *
+     *  Get the shared Literal for a lexical form and datatype.
+     *  NOTE: Like NodeFactory.createLiteral(), an invalid lexical form may throw a
+     *        DatatypeFormatException.  The invalid literal is not added.
+     */
+    public Literal internLiteral(String strLexical, RDFDatatype theDatatype) {
+        ConcurrentMap<String, Literal> mapLexicals = this.getLexicals( theDatatype.getURI() );
+        Literal theLiteral = this.lookup(mapLexicals, strLexical);
+        if (theLiteral == null) {
+            theLiteral = this.add( mapLexicals, strLexical,
+                new LiteralImpl( NodeFactory.createLiteral(strLexical, theDatatype), null ) );
+        }
+        return theLiteral;
+    }
+
+    /*
+     * Method internLiteral()
+     *
+     *  Get the shared Literal for a lexical form and language.
+     */
+    public Literal internLiteral(String strLexical, String strLanguage) {
+        ConcurrentMap<String, Literal> mapLexicals = this.getLexicals(TermDictionary.strLANGUAGE + strLanguage);
+        Literal theLiteral = this.lookup(mapLexicals, strLexical);
+        if (theLiteral == null) {
+            theLiteral = this.add( mapLexicals, strLexical,
+                new LiteralImpl( NodeFactory.createLiteral(strLexical, strLanguage), null ) );
+        }
+        return theLiteral;
+    }
+
+    /*
+     * Method internLiteral()
+     *
+     *  Get the shared simple Literal for a lexical form.
+     */
+    public Literal internLiteral(String strLexical) {
+        ConcurrentMap<String, Literal> mapLexicals = this.getLexicals(TermDictionary.strSIMPLE);
+        Literal theLiteral = this.lookup(mapLexicals, strLexical);
+        if (theLiteral == null) {
+            theLiteral = this.add( mapLexicals, strLexical,
+                new LiteralImpl( NodeFactory.createLiteral(strLexical), null ) );
+        }
+        return theLiteral;
+    }
+
+    private ConcurrentMap<String, Literal> getLexicals(String strQualifier) {
+        ConcurrentMap<String, Literal> mapLexicals = this.mapLiterals.get(strQualifier);
+        if (mapLexicals == null) {
+            mapLexicals = this.mapLiterals.computeIfAbsent(strQualifier,
+                (String strKey) -> new ConcurrentHashMap<String, Literal>() );
+        }
+        return mapLexicals;
+    }
+
+    private Literal lookup(ConcurrentMap<String, Literal> mapLexicals, String strLexical) {
+        Literal theLiteral = mapLexicals.get(strLexical);
+        if (theLiteral != null) {
+            this.liHits.incrementAndGet();
+        }
+        else {
+            this.liMisses.incrementAndGet();
+        }
+        return theLiteral;
+    }
+
+    private Literal add(ConcurrentMap<String, Literal> mapLexicals, String strLexical, Literal theLiteral) {
+        Literal theExisting = mapLexicals.putIfAbsent(strLexical, theLiteral);
+        if (theExisting != null) {
+            return theExisting;
+        }
+        this.added();
+        return theLiteral;
+    }
+
+    private void added() {
+        if ( this.iSize.incrementAndGet() > this.iMaxSize ) {
+            // Full: start over with the current terms...
+            this.iSize.set(0);
+            this.mapResources.clear();
+            this.mapLiterals.clear();
+            this.liResets.incrementAndGet();
+        }
+    }
+
+    public int size() {
+        return this.iSize.get();
+    }
+
+    public int getMaxSize() {
+        return this.iMaxSize;
+    }
+
+    public long getHits() {
+        return this.liHits.get();
+    }
+
+    public long getMisses() {
+        return this.liMisses.get();
+    }
+
+    public long getResets() {
+        return this.liResets.get();
+    }
+
+    public void clear() {
+        this.mapResources.clear();
+        this.mapLiterals.clear();
+        this.iSize.set(0);
+        this.liHits.set(0);
+        this.liMisses.set(0);
+        this.liResets.set(0);
+    }
+
+    public String toString() {
+        return "{ size:" + this.size() + ", max:" + this.iMaxSize +
+                ", hits:" + this.getHits() + ", misses:" + this.getMisses() +
+                ", resets:" + this.getResets() + " }";
+    }
+}
@@ -234,6 +234,75 @@ class RDFExporterMenuBar
         };
         objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
 
+        // COMPRESSED PRINTERS: gzip, bzip2 (Stream)
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFNTriplesGZIP",
+            label : $.i18n("rdft-menu/rdf-n-triples-gzip"),
+            click : () => RDFExporterMenuBar.#exportRDF("NTRIPLES_GZIP", "nt.gz")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFNQuadsGZIP",
+            label : $.i18n("rdft-menu/rdf-nquads-gzip"),
+            click : () => RDFExporterMenuBar.#exportRDF("NQUADS_GZIP", "nq.gz")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFTurtleGZIP",
+            label : $.i18n("rdft-menu/rdf-turtle-gzip"),
+            click : () => RDFExporterMenuBar.#exportRDF("TURTLE_BLOCKS_GZIP", "ttl.gz")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFNTriplesBZIP2",
+            label : $.i18n("rdft-menu/rdf-n-triples-bzip2"),
+            click : () => RDFExporterMenuBar.#exportRDF("NTRIPLES_BZIP2", "nt.bz2")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFNQuadsBZIP2",
+            label : $.i18n("rdft-menu/rdf-nquads-bzip2"),
+            click : () => RDFExporterMenuBar.#exportRDF("NQUADS_BZIP2", "nq.bz2")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFTurtleBZIP2",
+            label : $.i18n("rdft-menu/rdf-turtle-bzip2"),
+            click : () => RDFExporterMenuBar.#exportRDF("TURTLE_BLOCKS_BZIP2", "ttl.bz2")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
+        // SHARDED PRINTERS: many files in a ZIP archive (Stream)
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFNTriplesShards",
+            label : $.i18n("rdft-menu/rdf-n-triples-shards"),
+            click : () => RDFExporterMenuBar.#exportRDF("NTRIPLES_SHARDS", "nt.zip")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFNQuadsShards",
+            label : $.i18n("rdft-menu/rdf-nquads-shards"),
+            click : () => RDFExporterMenuBar.#exportRDF("NQUADS_SHARDS", "nq.zip")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
+        // INCREMENTAL PRINTERS: changes since the last incremental export (Stream)
+
+        objTypeSubSubMenuItem = {
+            id : "rdf-transform/stream/exportRDFPatch",
+            label : $.i18n("rdft-menu/rdf-patch-incremental"),
+            click : () => RDFExporterMenuBar.#exportRDF("RDF_PATCH", "rdfp")
+        };
+        objTypeSubMenuItem.submenu.push(objTypeSubSubMenuItem);
+
         //objTypeSubSubMenuItem = {
         //    id : "rdf-transform/stream/exportRDFBinaryRDF",
         //    label : $.i18n("rdft-menu/rdf-binary"),
@@ -59,6 +59,8 @@ class RDFTransform {
 
     // subjectMappings
     static gstrSubjectMappings = "subjectMappings";
+    // graphMapping
+    static gstrGraphMapping = "graphMapping";
     // prefix
     static gstrPrefix = "prefix";
     static gstrLocalPart = "localPart";
@@ -104,6 +106,19 @@ class RDFTransform {
     static gPreferences = {
         iVerbosity : 0 ,
         iExportLimit : 10737418 ,
+        iExportThreads : 1 ,
+        bExportOrdered : true ,
+        iFlushSize : 10000 ,
+        iFlushCount : 1000 ,
+        iFlushTime : 1000 ,
+        iSortRunSize : 0 ,
+        bExportSpill : false ,
+        iBinaryBufferSize : 1048576 ,
+        bBinaryPrefixes : true ,
+        iCompressThreads : 1 ,
+        iShardCount : 4 ,
+        bShardBySubject : false ,
+        strShardDirectory : "" ,
         bPreviewStream : null ,
         bDebugMode : false ,
         bDebugJSON : false ,
@@ -834,6 +849,19 @@ class RDFTransformDialog {
             var prefs = JSON.parse(data.message);
             RDFTransform.gPreferences.iVerbosity     = prefs.iVerbosity;
             RDFTransform.gPreferences.iExportLimit   = prefs.iExportLimit;
+            RDFTransform.gPreferences.iExportThreads = prefs.iExportThreads;
+            RDFTransform.gPreferences.bExportOrdered = prefs.bExportOrdered;
+            RDFTransform.gPreferences.iFlushSize     = prefs.iFlushSize;
+            RDFTransform.gPreferences.iFlushCount    = prefs.iFlushCount;
+            RDFTransform.gPreferences.iFlushTime     = prefs.iFlushTime;
+            RDFTransform.gPreferences.iSortRunSize   = prefs.iSortRunSize;
+            RDFTransform.gPreferences.bExportSpill   = prefs.bExportSpill;
+            RDFTransform.gPreferences.iBinaryBufferSize = prefs.iBinaryBufferSize;
+            RDFTransform.gPreferences.bBinaryPrefixes   = prefs.bBinaryPrefixes;
+            RDFTransform.gPreferences.iCompressThreads  = prefs.iCompressThreads;
+            RDFTransform.gPreferences.iShardCount       = prefs.iShardCount;
+            RDFTransform.gPreferences.bShardBySubject   = prefs.bShardBySubject;
+            RDFTransform.gPreferences.strShardDirectory = prefs.strShardDirectory;
             RDFTransform.gPreferences.bPreviewStream = prefs.bPreviewStream;
             RDFTransform.gPreferences.bDebugMode     = prefs.bDebugMode;
             RDFTransform.gPreferences.bDebugJSON     = prefs.bDebugJSON;
@@ -1085,6 +1113,11 @@ class RDFTransformDialog {
             }
         }
 
+        // Keep the current Graph Mapping node, if any (no editor: set in the transform JSON)...
+        if ( this.#theTransform[RDFTransform.gstrGraphMapping] ) {
+            theTransform[RDFTransform.gstrGraphMapping] = this.#theTransform[RDFTransform.gstrGraphMapping];
+        }
+
         return theTransform;
     }
 }
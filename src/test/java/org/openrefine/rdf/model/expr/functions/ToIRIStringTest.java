@@ -0,0 +1,219 @@
+/*
+ *  Class ToIRIStringTest
+ *
+ *  Checks the staged toIRIString() conversion against the baseline regular
+ *  expression conversion on a fixed corpus of strings.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.expr.functions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.regex.Pattern;
+
+import org.openrefine.rdf.model.Util;
+
+import org.junit.Test;
+
+/*
+ * Class ToIRIStringTest
+ *
+ *  The baseline is the regular expression conversion replaced by the staged conversion:
+ *  eight replaceAll() stages, each followed by an underscore condensing replaceAll(), tested
+ *  by the IRI checker's construct() before each stage (as the baseline's Util.buildIRI()).
+ *  The checker accepts the empty string as the empty relative IRI.
+ */
+public class ToIRIStringTest {
+    // The baseline outputs...
+    static private final String[][] astrEXPECTED = {
+        // ASCII...
+        { "http://example.org/resource",    "http://example.org/resource" },
+        { "http://example.org/a b",         "http://example.org/a_b" },
+        { "hello world",                    "hello_world" },
+        { "a  \t b",                        "a_b" },
+        { "a<b>c",                          "a_b_c" },
+        { "\"quoted\"",                     "_quoted_" },
+        { "urn:isbn:0451450523",            "urn:isbn:0451450523" },
+        // Underscore runs: condensed only by a stage...
+        { "a__b",                           "a__b" },
+        { "a__ b",                          "a_b" },
+        { "a _ b",                          "a_b" },
+        // Unicode...
+        { "café",                           "café" },
+        { "naïve résumé",                   "naïve_résumé" },
+        { "日本語 テキスト",                  "日本語_テキスト" }
+    };
+
+    // The differential corpus: the baseline outputs are computed by toIRIStringByPatterns()...
+    static private final String[] astrCORPUS = {
+        // ASCII...
+        "name",
+        "Name_1",
+        "hello world",
+        " leading and trailing ",
+        "tab\tsep",
+        "line\nbreak",
+        "a<b>c",
+        "{a}|b^c`d\\e",
+        "x[1]",
+        "!$&'()*+,;= x",
+        "?#[]@ x",
+        "a b/c?d#e",
+        "a:b:c d",
+        "a/b/c d",
+        " ",
+        "\t\n",
+        // Percent...
+        "%",
+        "100%",
+        "a%20b",
+        "%zz",
+        "50% off",
+        // Underscore runs...
+        "a__b",
+        "___",
+        "_ _ _",
+        "a__ b",
+        "a _ b",
+        "__a  b__",
+        // Unicode...
+        "café",
+        "naïve résumé",
+        "ü ö ä",
+        "日本語 テキスト",
+        "😀 smile",
+        "smile 😀😀",
+        "\u00A0nbsp",
+        "a\u2003b",
+        "\uC2A0x",
+        // Schemes and leading delimiters...
+        "http://example.org/resource",
+        "http://example.org/a b",
+        "https://example.org/path?q=a b#frag",
+        "HTTP://Example.org/x y",
+        "ftp://example.org/a b",
+        "mailto:someone@example.org",
+        "mailto:a b@example.org",
+        "urn:isbn:0451450523",
+        "://foo",
+        "//foo/bar",
+        ":///x",
+        "/path/to x",
+        ":",
+        "/",
+        "#",
+        // Empty...
+        ""
+    };
+
+    /*
+     * Method toIRIStringByPatterns()
+     *
+     *  The baseline regular expression conversion.
+     */
+    static private String toIRIStringByPatterns(String strConvert) {
+        String strUnderscore = "_";
+        int iTry = 0;
+        do {
+            // Test if it's an acceptable IRI now (absolute or relative)...
+            if ( ToIRIStringTest.isIRIByChecker(strConvert) ) {
+                break;
+            }
+            if (iTry > 7) {
+                strConvert = null; // ...cannot convert to IRI
+                break;
+            }
+
+            switch (iTry) {
+                case 0:
+                    strConvert = strConvert.replaceAll(
+                        "[" + Util.WHITESPACE + Pattern.quote("<>\"{}|\\^`") + "]+", strUnderscore);
+                    break;
+                case 1:
+                    strConvert = strConvert.replaceAll(
+                        "[^-\\p{N}\\p{L}_\\.~:/\\?#\\[\\]@\\%!\\$&'\\(\\)\\*\\+,;=]+", strUnderscore);
+                    break;
+                case 2:
+                    strConvert = strConvert.replaceFirst("^(:?/+)+", strUnderscore);
+                    break;
+                case 3:
+                    strConvert = strConvert.replaceAll("[!\\$&'\\(\\)\\*\\+,;=]+", strUnderscore);
+                    break;
+                case 4:
+                    strConvert = strConvert.replaceAll("[\\?#\\[\\]@]+", strUnderscore);
+                    break;
+                case 5:
+                    strConvert = strConvert.replaceAll("/+", strUnderscore);
+                    break;
+                case 6:
+                    strConvert = strConvert.replaceAll(":+", strUnderscore);
+                    break;
+                default:
+                    strConvert = strConvert.replaceAll("[^-\\p{N}\\p{L}_\\.~]+", strUnderscore);
+                    break;
+            }
+            // Condense underscores...
+            strConvert = strConvert.replaceAll("__+", strUnderscore);
+            ++iTry;
+        } while (true);
+
+        return strConvert;
+    }
+
+    static private boolean isIRIByChecker(String strConvert) {
+        try {
+            Util.iriFactory.construct(strConvert);
+        }
+        catch (Exception ex) {
+            return false;
+        }
+        return true;
+    }
+
+    @Test
+    public void testBaselineOutputs() {
+        for (String[] astrCase : ToIRIStringTest.astrEXPECTED) {
+            assertEquals( "Baseline: " + astrCase[0], astrCase[1], ToIRIStringTest.toIRIStringByPatterns( astrCase[0] ) );
+            assertEquals( "Converted: " + astrCase[0], astrCase[1], ToIRIString.toIRIString( astrCase[0] ) );
+        }
+    }
+
+    @Test
+    public void testCorpus() {
+        for (String strConvert : ToIRIStringTest.astrCORPUS) {
+            assertEquals( "Converted: [" + strConvert + "]",
+                ToIRIStringTest.toIRIStringByPatterns(strConvert), ToIRIString.toIRIString(strConvert) );
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals( "", ToIRIString.toIRIString("") );
+        assertEquals( "", ToIRIStringTest.toIRIStringByPatterns("") );
+    }
+
+    @Test
+    public void testConverted() {
+        // Every converted string is an IRI...
+        for (String strConvert : ToIRIStringTest.astrCORPUS) {
+            String strResult = ToIRIString.toIRIString(strConvert);
+            if ( strResult != null && ! strResult.isEmpty() ) {
+                assertEquals( strResult, Util.IRICheck.VALID, Util.checkIRI(strResult) );
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ *  Class IRIResolverTest
+ *
+ *  Checks the IRI resolver's fast path against the Jena IRI checker on a
+ *  fixed corpus of IRIs.
+ *
+ *  Copyright 2022 Keven L. Ates
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.openrefine.rdf.model.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.openrefine.rdf.model.Util;
+
+import org.apache.jena.iri.IRI;
+
+import org.junit.Test;
+
+/*
+ * Class IRIResolverTest
+ *
+ *  The fast path must return the IRI checker's IRI for every IRI it accepts.  The corpus
+ *  also holds the IRIs left to the checker (null from the fast path), so a change to the
+ *  accepted IRIs is checked against the checker too.
+ */
+public class IRIResolverTest {
+    static private final String[] astrBASES = {
+        "http://example.org/",
+        "http://example.org",
+        "http://example.org/base/path",
+        "http://example.org/base/path/",
+        "https://www.example.com/a/b?query=1#frag",
+        "http://sub-domain.example.co.uk/vocab#"
+    };
+
+    // Accepted by the fast path...
+    static private final String[] astrABSOLUTE = {
+        "http://example.org",
+        "http://example.org/",
+        "https://example.org/resource",
+        "http://www.w3.org/1999/02/22-rdf-syntax-ns#type",
+        "http://example.org/path/to/resource?x=1&y=2#frag",
+        "http://example.org/a;b=c,d",
+        "http://example.org/a:b@c/!$'()*+",
+        "http://example.org/~user/_item-1.2",
+        "http://example.org/a?b?c",
+        "http://example.org/a#b/c?d",
+        "https://a-b.example.com/x",
+        "http://localhost/x"
+    };
+
+    static private final String[] astrLOCAL_NAMES = {
+        "name",
+        "Name_1",
+        "a-b.c~d",
+        "123"
+    };
+
+    // Left to the IRI checker...
+    static private final String[] astrCHECKER = {
+        // Dot segments...
+        ".",
+        "..",
+        "./name",
+        "../name",
+        "http://example.org/a/../b",
+        "http://example.org/a/./b",
+        "http://example.org/.",
+        // Ports and user info...
+        "http://example.org:8080/x",
+        "http://user@example.org/x",
+        // Percent encodings...
+        "http://example.org/a%20b",
+        "a%20b",
+        "http://example.org/%C3%A9",
+        // Non-ASCII...
+        "http://example.org/été",
+        "été",
+        "http://exämple.org/",
+        "http://example.org/😀",
+        // Hosts...
+        "http://Example.org/x",
+        "http://example..org/x",
+        "http://-example.org/x",
+        "http://example-.org/x",
+        "http:///x",
+        // Fragments, queries, and paths...
+        "#frag",
+        "?query",
+        "/path",
+        "a/b",
+        "http://example.org/a#b#c",
+        "http://example.org/a b",
+        "http://example.org/a<b>",
+        // Other schemes...
+        "ftp://example.org/x",
+        "HTTP://example.org/x",
+        "mailto:someone@example.org",
+        "urn:isbn:0451450523"
+    };
+
+    /*
+     * Method resolveByChecker()
+     *
+     *  Resolve the IRI by the IRI checker only.  Returns null for a bad IRI.
+     */
+    static private String resolveByChecker(String strBase, String strIRI) {
+        IRI theIRI = Util.iriFactory.create(strIRI);
+        if ( ! theIRI.hasViolation(false) && theIRI.isAbsolute() ) {
+            return theIRI.toString();
+        }
+        IRI baseIRI = Util.iriFactory.create(strBase);
+        IRI resolvedIRI = baseIRI.create(strIRI);
+        return ( resolvedIRI.hasViolation(false) ? null : resolvedIRI.toString() );
+    }
+
+    @Test
+    public void testAbsoluteIRIs() {
+        for (String strBase : IRIResolverTest.astrBASES) {
+            for (String strIRI : IRIResolverTest.astrABSOLUTE) {
+                String strResolved = IRIResolver.resolve(strBase, strIRI);
+                assertNotNull("Fast path rejected: " + strIRI, strResolved);
+                assertEquals( "Absolute: " + strIRI,
+                    Util.iriFactory.construct(strIRI).toString(), strResolved );
+                assertEquals( strIRI, strResolved );
+            }
+        }
+        for (String strIRI : IRIResolverTest.astrABSOLUTE) {
+            assertEquals( strIRI, IRIResolver.resolve(null, strIRI) );
+        }
+    }
+
+    @Test
+    public void testLocalNames()
+            throws Exception {
+        for (String strBase : IRIResolverTest.astrBASES) {
+            IRI baseIRI = Util.iriFactory.construct(strBase);
+            for (String strName : IRIResolverTest.astrLOCAL_NAMES) {
+                String strResolved = IRIResolver.resolve(strBase, strName);
+                assertNotNull("Fast path rejected: " + strName + " on " + strBase, strResolved);
+                assertEquals( "Relative: " + strName + " on " + strBase,
+                    baseIRI.construct(strName).toString(), strResolved );
+            }
+        }
+        // No base IRI...
+        for (String strName : IRIResolverTest.astrLOCAL_NAMES) {
+            assertNull( IRIResolver.resolve(null, strName) );
+        }
+    }
+
+    @Test
+    public void testCheckerIRIs() {
+        for (String strBase : IRIResolverTest.astrBASES) {
+            for (String strIRI : IRIResolverTest.astrCHECKER) {
+                assertNull( "Fast path accepted: " + strIRI + " on " + strBase,
+                    IRIResolver.resolve(strBase, strIRI) );
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyIRIs() {
+        for (String strBase : IRIResolverTest.astrBASES) {
+            assertNull( IRIResolver.resolve(strBase, null) );
+            assertNull( IRIResolver.resolve(strBase, "") );
+        }
+        // Bad base IRIs...
+        assertNull( IRIResolver.resolve("urn:example:base", "name") );
+        assertNull( IRIResolver.resolve("http://example.org:8080/", "name") );
+    }
+
+    /*
+     * Method testCorpus()
+     *
+     *  Every IRI accepted by the fast path resolves to the IRI checker's IRI.
+     */
+    @Test
+    public void testCorpus() {
+        for (String strBase : IRIResolverTest.astrBASES) {
+            for ( String[] astrIRIs :
+                    new String[][] { IRIResolverTest.astrABSOLUTE, IRIResolverTest.astrLOCAL_NAMES, IRIResolverTest.astrCHECKER } )
+            {
+                for (String strIRI : astrIRIs) {
+                    String strResolved = IRIResolver.resolve(strBase, strIRI);
+                    if (strResolved != null) {
+                        assertEquals( strIRI + " on " + strBase,
+                            IRIResolverTest.resolveByChecker(strBase, strIRI), strResolved );
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPredicates() {
+        for (String strIRI : IRIResolverTest.astrABSOLUTE) {
+            assertEquals( true, IRIResolver.isAbsolute(strIRI) );
+        }
+        for (String strName : IRIResolverTest.astrLOCAL_NAMES) {
+            assertEquals( true, IRIResolver.isLocalName(strName) );
+            assertEquals( false, IRIResolver.isAbsolute(strName) );
+        }
+        assertEquals( false, IRIResolver.isLocalName(".") );
+        assertEquals( false, IRIResolver.isLocalName("..") );
+        assertEquals( false, IRIResolver.isLocalName("#frag") );
+        assertEquals( false, IRIResolver.isLocalName("") );
+        assertEquals( false, IRIResolver.isLocalName(null) );
+    }
+}